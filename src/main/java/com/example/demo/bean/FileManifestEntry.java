@@ -0,0 +1,27 @@
+package com.example.demo.bean;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 批次压缩包文件清单条目
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileManifestEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    //压缩包内文件名（含路径）
+    private String name;
+    //文件大小（字节）
+    private long size;
+
+}
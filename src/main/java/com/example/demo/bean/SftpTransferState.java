@@ -0,0 +1,33 @@
+package com.example.demo.bean;
+
+/**
+ * SFTP批量传输任务状态
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+public enum SftpTransferState {
+
+    RUNNING("传输中"),
+    COMPLETED("传输完成"),
+    PARTIAL_FAILED("部分文件传输失败"),
+    FAILED("传输失败"),
+    CANCELLED("已取消");
+
+    private final String description;
+
+    SftpTransferState(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 任务是否已结束
+     */
+    public boolean isFinished() {
+        return this != RUNNING;
+    }
+}
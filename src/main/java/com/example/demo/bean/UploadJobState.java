@@ -0,0 +1,34 @@
+package com.example.demo.bean;
+
+/**
+ * 异步上传任务状态
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+public enum UploadJobState {
+
+    QUEUED("排队中"),
+    EXTRACTING("解压中"),
+    CONVERTING("转换中"),
+    UPLOADING("上传中"),
+    PERSISTED("已完成"),
+    FAILED("失败");
+
+    private final String description;
+
+    UploadJobState(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 是否为最终状态
+     */
+    public boolean isFinished() {
+        return this == PERSISTED || this == FAILED;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.bean.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+@Data
+public class ChunkUploadVo implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    //分片上传ID
+    private String uploadId;
+    //文件名
+    private String fileName;
+    //文件总大小（字节）
+    private long totalSize;
+    //已接收大小（字节），下一个分片的偏移量
+    private long received;
+
+}
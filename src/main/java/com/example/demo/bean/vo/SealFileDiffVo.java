@@ -0,0 +1,43 @@
+package com.example.demo.bean.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 签章文件与待签章文件的差异报告
+ */
+@Data
+public class SealFileDiffVo implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /*
+     * 签章文件中缺少的待签章文件
+     */
+    private List<String> missing = new ArrayList<>();
+    /*
+     * 签章文件中多出的文件（不在待签章文件中）
+     */
+    private List<String> extra = new ArrayList<>();
+    /*
+     * 签章文件中去除扩展名后同名的文件（如 a.pdf 与 a.docx 转换的 a.pdf 并存），默认只报告不拒绝
+     */
+    private List<String> duplicate = new ArrayList<>();
+
+    /**
+     * 是否缺少待签章文件
+     */
+    public boolean hasMissing() {
+        return !missing.isEmpty();
+    }
+
+    /**
+     * 是否存在去除扩展名后同名的文件
+     */
+    public boolean hasDuplicate() {
+        return !duplicate.isEmpty();
+    }
+}
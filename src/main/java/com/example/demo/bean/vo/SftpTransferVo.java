@@ -0,0 +1,49 @@
+package com.example.demo.bean.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class SftpTransferVo implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    //传输任务ID
+    private String transferId;
+    //源目录
+    private String sourceDirectory;
+    //目标服务器
+    private String target;
+    //目标目录
+    private String targetDirectory;
+    //任务状态
+    private String state;
+    //任务状态描述
+    private String stateDesc;
+    //并发通道数
+    private Integer concurrency;
+    //带宽上限（字节/秒，0表示不限速）
+    private Long bandwidthBytesPerSecond;
+    //文件总数
+    private Integer totalFiles;
+    //已完成文件数
+    private Integer completedFiles;
+    //失败文件数
+    private Integer failedFiles;
+    //文件总大小（字节）
+    private Long totalBytes;
+    //已传输字节数
+    private Long transferredBytes;
+    //平均速率（字节/秒）
+    private Long bytesPerSecond;
+    //失败文件及原因
+    private List<String> failures;
+    //开始时间
+    private LocalDateTime startTime;
+    //结束时间
+    private LocalDateTime endTime;
+
+}
@@ -0,0 +1,28 @@
+package com.example.demo.bean.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+public class UploadJobVo implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    //批次ID
+    private String batchId;
+    //批次名称
+    private String batchName;
+    //任务状态
+    private String state;
+    //任务状态描述
+    private String stateDesc;
+    //失败原因
+    private String message;
+    //提交时间
+    private LocalDateTime createTime;
+    //最后更新时间
+    private LocalDateTime updateTime;
+
+}
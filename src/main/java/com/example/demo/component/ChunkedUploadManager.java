@@ -0,0 +1,309 @@
+package com.example.demo.component;
+
+import com.example.demo.bean.vo.ChunkUploadVo;
+import com.example.demo.config.TransferConfig;
+import com.example.demo.util.FileUtil;
+import com.example.demo.util.LocalMultipartFile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分片上传管理
+ * 按偏移量顺序接收分片并追加写入本地落盘文件，每个分片校验 MD5，
+ * 网络中断后客户端可查询已接收大小并从该偏移量继续上传
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+@Slf4j
+@Component
+public class ChunkedUploadManager {
+
+    private static final String PART_SUFFIX = ".chunk";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final TransferConfig transferConfig;
+
+    /* 分片上传ID -> 上传会话 */
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    private Path directory;
+
+    public ChunkedUploadManager(TransferConfig transferConfig) {
+        this.transferConfig = transferConfig;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        directory = Paths.get(transferConfig.getSpoolDirectory());
+        Files.createDirectories(directory);
+
+        // 会话不持久化，启动时清理上次运行遗留的分片文件
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + PART_SUFFIX)) {
+            for (Path file : stream) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * 创建分片上传会话
+     *
+     * @param fileName  原始文件名
+     * @param totalSize 文件总大小（字节）
+     * @return 上传会话
+     */
+    public ChunkUploadVo create(String fileName, long totalSize) throws IOException {
+        purgeExpired();
+
+        if (totalSize <= 0 || totalSize > transferConfig.getMaxChunkedUploadBytes()) {
+            throw new IllegalArgumentException("文件大小超出范围（1 ~ " + transferConfig.getMaxChunkedUploadBytes() + " 字节）");
+        }
+
+        String uploadId = UUID.randomUUID().toString().replace("-", "");
+        Path file = directory.resolve(uploadId + PART_SUFFIX);
+        Files.createFile(file);
+
+        Session session = new Session(uploadId, fileName, totalSize, file);
+        sessions.put(uploadId, session);
+        log.info("创建分片上传会话：{}，文件名：{}，大小：{} 字节", uploadId, fileName, totalSize);
+        return session.toVo();
+    }
+
+    /**
+     * 写入一个分片
+     * 分片必须从已接收大小处开始；MD5 不一致时丢弃本次写入的数据
+     *
+     * @param uploadId 分片上传ID
+     * @param offset   分片在文件中的偏移量
+     * @param checksum 分片内容的 MD5（十六进制）
+     * @param in       分片内容
+     * @return 写入后的上传会话
+     */
+    public ChunkUploadVo append(String uploadId, long offset, String checksum, InputStream in) throws IOException {
+        Session session = getSession(uploadId);
+        synchronized (session) {
+            if (session.completing) {
+                throw new IllegalStateException("文件正在处理中，不能继续上传分片");
+            }
+            if (offset != session.received) {
+                throw new ChunkOffsetException(session.toVo());
+            }
+
+            MessageDigest digest = newMd5();
+            // 整个文件的SHA-256随分片累加，分片失败时丢弃本分片的累加结果
+            MessageDigest contentDigest = cloneDigest(session.contentDigest);
+            long written = 0;
+            try (FileChannel channel = FileChannel.open(session.file, StandardOpenOption.WRITE)) {
+                channel.truncate(offset);
+                channel.position(offset);
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int len;
+                while ((len = in.read(buffer)) != -1) {
+                    if (offset + written + len > session.totalSize) {
+                        channel.truncate(offset);
+                        throw new IllegalArgumentException("分片数据超出文件总大小");
+                    }
+                    digest.update(buffer, 0, len);
+                    contentDigest.update(buffer, 0, len);
+                    ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, len);
+                    while (byteBuffer.hasRemaining()) {
+                        channel.write(byteBuffer);
+                    }
+                    written += len;
+                }
+
+                String actual = FileUtil.toHex(digest.digest());
+                if (checksum == null || !checksum.equalsIgnoreCase(actual)) {
+                    channel.truncate(offset);
+                    throw new IllegalArgumentException("分片校验失败，期望 MD5：" + checksum + "，实际：" + actual);
+                }
+            } catch (IOException e) {
+                // 连接中断等异常：丢弃不完整的分片，客户端从原偏移量重传
+                truncateQuietly(session.file, offset);
+                throw e;
+            }
+
+            session.received = offset + written;
+            session.contentDigest = contentDigest;
+            session.lastUpdate = System.currentTimeMillis();
+            log.info("分片上传会话 {} 已接收 {}/{} 字节", uploadId, session.received, session.totalSize);
+            return session.toVo();
+        }
+    }
+
+    /**
+     * 查询上传会话
+     *
+     * @param uploadId 分片上传ID
+     * @return 上传会话
+     */
+    public ChunkUploadVo get(String uploadId) {
+        return getSession(uploadId).toVo();
+    }
+
+    /**
+     * 开始处理已上传完成的文件，处理期间不允许重复提交
+     *
+     * @param uploadId 分片上传ID
+     * @return 落盘文件
+     */
+    public LocalMultipartFile beginComplete(String uploadId) {
+        Session session = getSession(uploadId);
+        synchronized (session) {
+            if (session.received != session.totalSize) {
+                throw new IllegalStateException("文件尚未上传完成（已接收 " + session.received + "/" + session.totalSize + " 字节）");
+            }
+            if (session.completing) {
+                throw new IllegalStateException("文件正在处理中，请勿重复提交");
+            }
+            session.completing = true;
+            session.lastUpdate = System.currentTimeMillis();
+            String contentHash = FileUtil.toHex(cloneDigest(session.contentDigest).digest());
+            return new LocalMultipartFile(session.file.toFile(), session.fileName, null, contentHash);
+        }
+    }
+
+    /**
+     * 结束处理：成功时删除会话及落盘文件，失败时保留以便重新提交
+     *
+     * @param uploadId 分片上传ID
+     * @param success  是否处理成功
+     */
+    public void endComplete(String uploadId, boolean success) {
+        Session session = sessions.get(uploadId);
+        if (session == null) {
+            return;
+        }
+        synchronized (session) {
+            session.completing = false;
+            session.lastUpdate = System.currentTimeMillis();
+            if (success) {
+                sessions.remove(uploadId);
+                try {
+                    Files.deleteIfExists(session.file);
+                } catch (IOException e) {
+                    log.warn("删除分片文件失败：{}，{}", session.file, e.getMessage());
+                }
+                log.info("分片上传会话 {} 处理完成，文件名：{}", uploadId, session.fileName);
+            }
+        }
+    }
+
+    private Session getSession(String uploadId) {
+        Session session = uploadId == null ? null : sessions.get(uploadId);
+        if (session == null) {
+            throw new IllegalArgumentException("分片上传会话不存在或已过期");
+        }
+        return session;
+    }
+
+    /**
+     * 清除空闲超时的上传会话及其落盘文件
+     */
+    private void purgeExpired() {
+        long deadline = System.currentTimeMillis() - transferConfig.getChunkSessionTimeoutMinutes() * 60 * 1000;
+        sessions.values().removeIf(session -> {
+            if (session.completing || session.lastUpdate >= deadline) {
+                return false;
+            }
+            try {
+                Files.deleteIfExists(session.file);
+            } catch (IOException e) {
+                log.warn("删除过期分片文件失败：{}，{}", session.file, e.getMessage());
+            }
+            log.info("分片上传会话 {} 已过期", session.uploadId);
+            return true;
+        });
+    }
+
+    private void truncateQuietly(Path file, long size) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        } catch (IOException e) {
+            log.warn("回滚分片数据失败：{}，{}", file, e.getMessage());
+        }
+    }
+
+    private static MessageDigest newMd5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MessageDigest cloneDigest(MessageDigest digest) {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 分片偏移量与已接收大小不一致，客户端应按返回的已接收大小续传
+     */
+    public static class ChunkOffsetException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ChunkUploadVo upload;
+
+        ChunkOffsetException(ChunkUploadVo upload) {
+            super("分片偏移量错误，请从 " + upload.getReceived() + " 字节处继续上传");
+            this.upload = upload;
+        }
+
+        public ChunkUploadVo getUpload() {
+            return upload;
+        }
+    }
+
+    /**
+     * 上传会话
+     */
+    private static class Session {
+        private final String uploadId;
+        private final String fileName;
+        private final long totalSize;
+        private final Path file;
+        private volatile long received;
+        private volatile boolean completing;
+        private volatile long lastUpdate = System.currentTimeMillis();
+        private volatile MessageDigest contentDigest = FileUtil.newSha256();
+
+        Session(String uploadId, String fileName, long totalSize, Path file) {
+            this.uploadId = uploadId;
+            this.fileName = fileName;
+            this.totalSize = totalSize;
+            this.file = file;
+        }
+
+        ChunkUploadVo toVo() {
+            ChunkUploadVo vo = new ChunkUploadVo();
+            vo.setUploadId(uploadId);
+            vo.setFileName(fileName);
+            vo.setTotalSize(totalSize);
+            vo.setReceived(received);
+            return vo;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.demo.component;
+
+import com.example.demo.config.CacheConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 下载文件本地磁盘缓存
+ * 以 远程路径 + 修改时间 + 文件大小 为键缓存从SFTP下载的批次压缩包，
+ * 超出容量上限时按最近最少使用（LRU）淘汰
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+@Slf4j
+@Component
+public class DownloadFileCache {
+
+    private static final String TEMP_PREFIX = "download";
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /* 本缓存生成的文件名：缓存文件（MD5 键 + .cache）和下载中的临时文件 */
+    private static final Pattern CACHE_FILE_PATTERN = Pattern.compile("[0-9a-f]{32}\\.cache|" + TEMP_PREFIX + "-?\\d+\\" + TEMP_SUFFIX);
+
+    private final CacheConfig.Download config;
+
+    /* 访问顺序的缓存索引：缓存键 -> 缓存条目 */
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    private Path directory;
+
+    private long totalBytes;
+
+    public DownloadFileCache(CacheConfig cacheConfig, MeterRegistry meterRegistry) {
+        this.config = cacheConfig.getDownload();
+        this.hitCounter = Counter.builder("download.cache.hit").description("下载缓存命中次数").register(meterRegistry);
+        this.missCounter = Counter.builder("download.cache.miss").description("下载缓存未命中次数").register(meterRegistry);
+        Gauge.builder("download.cache.size", this, DownloadFileCache::getTotalBytes)
+                .description("下载缓存占用字节数")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!isEnabled()) {
+            log.info("下载文件缓存未启用");
+            return;
+        }
+        directory = Paths.get(config.getDirectory());
+        Files.createDirectories(directory);
+
+        // 索引不持久化，启动时清理上次运行遗留的缓存文件（只删除本缓存生成的文件，目录中的其他文件不受影响）
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                file -> CACHE_FILE_PATTERN.matcher(file.getFileName().toString()).matches())) {
+            for (Path file : stream) {
+                Files.deleteIfExists(file);
+            }
+        }
+        log.info("下载文件缓存目录：{}，容量上限：{} 字节", directory, config.getMaxSizeBytes());
+    }
+
+    /**
+     * 是否启用缓存
+     */
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(config.getEnabled());
+    }
+
+    /**
+     * 查找并打开缓存文件
+     * 在持有缓存锁时打开文件，之后即使该条目被淘汰或失效（文件被删除），已打开的通道仍可完整读取
+     *
+     * @param remotePath 远程文件完整路径
+     * @param mtime      远程文件修改时间（秒）
+     * @param size       远程文件大小
+     * @return 已打开的缓存文件通道（由 {@link #transferTo(FileChannel, OutputStream)} 关闭），未命中返回null
+     */
+    public synchronized FileChannel open(String remotePath, long mtime, long size) {
+        if (!isEnabled()) {
+            return null;
+        }
+        CacheEntry entry = entries.get(buildKey(remotePath, mtime, size));
+        if (entry != null) {
+            try {
+                FileChannel channel = FileChannel.open(entry.file, StandardOpenOption.READ);
+                hitCounter.increment();
+                log.info("下载缓存命中：{}", remotePath);
+                return channel;
+            } catch (IOException e) {
+                log.warn("打开下载缓存文件失败：{}，{}", entry.file, e.getMessage());
+                removeByRemotePath(remotePath);
+            }
+        }
+        missCounter.increment();
+        return null;
+    }
+
+    /**
+     * 判断指定大小的文件是否可以放入缓存
+     */
+    public boolean isCacheable(long size) {
+        return isEnabled() && size <= config.getMaxSizeBytes();
+    }
+
+    /**
+     * 在缓存目录下创建临时文件，用于边下载边写入
+     */
+    public Path createTempFile() throws IOException {
+        return Files.createTempFile(directory, TEMP_PREFIX, TEMP_SUFFIX);
+    }
+
+    /**
+     * 将下载完成的临时文件放入缓存，同一远程路径的旧版本会被移除
+     *
+     * @param remotePath 远程文件完整路径
+     * @param mtime      远程文件修改时间（秒）
+     * @param size       远程文件大小
+     * @param tempFile   已写完的临时文件
+     */
+    public synchronized void put(String remotePath, long mtime, long size, Path tempFile) {
+        try {
+            if (Files.size(tempFile) != size) {
+                log.warn("缓存文件大小与远程文件不一致，放弃缓存：{}", remotePath);
+                Files.deleteIfExists(tempFile);
+                return;
+            }
+
+            removeByRemotePath(remotePath);
+
+            String key = buildKey(remotePath, mtime, size);
+            Path file = directory.resolve(key + ".cache");
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            entries.put(key, new CacheEntry(remotePath, size, file));
+            totalBytes += size;
+            log.info("已缓存下载文件：{}，大小：{} 字节，缓存总大小：{} 字节", remotePath, size, totalBytes);
+
+            evict();
+        } catch (IOException e) {
+            log.warn("写入下载缓存失败：{}，{}", remotePath, e.getMessage());
+            deleteQuietly(tempFile);
+        }
+    }
+
+    /**
+     * 使远程文件的所有缓存失效（远程文件被删除或覆盖时调用）
+     *
+     * @param remotePath 远程文件完整路径
+     */
+    public synchronized void invalidate(String remotePath) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (removeByRemotePath(remotePath)) {
+            log.info("下载缓存已失效：{}", remotePath);
+        }
+    }
+
+    /**
+     * 将缓存文件写入输出流（使用 FileChannel.transferTo），完成后关闭通道
+     *
+     * @param channel {@link #open(String, long, long)} 返回的缓存文件通道
+     * @param out     目标输出流
+     * @return 写入的字节数
+     */
+    public long transferTo(FileChannel channel, OutputStream out) throws IOException {
+        try (FileChannel source = channel) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long size = source.size();
+            long position = 0;
+            while (position < size) {
+                position += source.transferTo(position, size - position, target);
+            }
+            out.flush();
+            return position;
+        }
+    }
+
+    /**
+     * 删除临时文件（下载中断时调用）
+     */
+    public void discard(Path tempFile) {
+        deleteQuietly(tempFile);
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * 超出容量上限时淘汰最近最少使用的缓存
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, CacheEntry>> iterator = entries.entrySet().iterator();
+        while (totalBytes > config.getMaxSizeBytes() && iterator.hasNext()) {
+            CacheEntry eldest = iterator.next().getValue();
+            iterator.remove();
+            totalBytes -= eldest.size;
+            deleteQuietly(eldest.file);
+            log.info("淘汰下载缓存：{}，释放 {} 字节", eldest.remotePath, eldest.size);
+        }
+    }
+
+    private boolean removeByRemotePath(String remotePath) {
+        boolean removed = false;
+        Iterator<Map.Entry<String, CacheEntry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            CacheEntry entry = iterator.next().getValue();
+            if (entry.remotePath.equals(remotePath)) {
+                iterator.remove();
+                totalBytes -= entry.size;
+                deleteQuietly(entry.file);
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    private String buildKey(String remotePath, long mtime, long size) {
+        String raw = remotePath + "|" + mtime + "|" + size;
+        return DigestUtils.md5DigestAsHex(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除缓存文件失败：{}，{}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * 缓存条目
+     */
+    private static class CacheEntry {
+        private final String remotePath;
+        private final long size;
+        private final Path file;
+
+        CacheEntry(String remotePath, long size, Path file) {
+            this.remotePath = remotePath;
+            this.size = size;
+            this.file = file;
+        }
+    }
+}
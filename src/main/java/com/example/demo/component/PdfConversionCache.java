@@ -0,0 +1,291 @@
+package com.example.demo.component;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.util.FileUtil;
+import com.example.demo.util.PdfConverter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * PDF 转换结果缓存（按内容寻址）
+ * 以 输入内容SHA-256 + 扩展名 + 转换器版本 为键，内存层按字节数限制容量，
+ * 内存淘汰的结果溢出到磁盘层，磁盘层同样按字节数以最近最少使用（LRU）淘汰。
+ * 磁盘文件名即缓存键，重启后重新建立索引继续使用
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+@Slf4j
+@Component
+public class PdfConversionCache {
+
+    private static final String FILE_SUFFIX = ".pdf";
+
+    private final CacheConfig.Conversion config;
+
+    /* 内存层：缓存键 -> PDF 数据（访问顺序） */
+    private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(16, 0.75f, true);
+
+    /* 磁盘层：缓存键 -> 文件大小（访问顺序） */
+    private final LinkedHashMap<String, Long> disk = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Counter memoryHitCounter;
+
+    private final Counter diskHitCounter;
+
+    private final Counter missCounter;
+
+    private Path directory;
+
+    private long memoryBytes;
+
+    private long diskBytes;
+
+    public PdfConversionCache(CacheConfig cacheConfig, MeterRegistry meterRegistry) {
+        this.config = cacheConfig.getConversion();
+        this.memoryHitCounter = Counter.builder("pdf.convert.cache.hit").tag("tier", "memory")
+                .description("转换缓存命中次数").register(meterRegistry);
+        this.diskHitCounter = Counter.builder("pdf.convert.cache.hit").tag("tier", "disk")
+                .description("转换缓存命中次数").register(meterRegistry);
+        this.missCounter = Counter.builder("pdf.convert.cache.miss")
+                .description("转换缓存未命中次数").register(meterRegistry);
+        Gauge.builder("pdf.convert.cache.size", this, PdfConversionCache::getMemoryBytes).tag("tier", "memory")
+                .description("转换缓存占用字节数").register(meterRegistry);
+        Gauge.builder("pdf.convert.cache.size", this, PdfConversionCache::getDiskBytes).tag("tier", "disk")
+                .description("转换缓存占用字节数").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!isEnabled()) {
+            log.info("PDF 转换缓存未启用");
+            return;
+        }
+        directory = Paths.get(config.getDiskDirectory());
+        Files.createDirectories(directory);
+
+        // 按修改时间从旧到新重建磁盘索引，其他版本转换器的结果和未写完的临时文件直接删除
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(versionSuffix() + FILE_SUFFIX)) {
+                    files.add(file);
+                } else {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        files.sort(Comparator.comparingLong(this::lastModified));
+        synchronized (disk) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long size = Files.size(file);
+                disk.put(name.substring(0, name.length() - FILE_SUFFIX.length()), size);
+                diskBytes += size;
+            }
+            evictDisk();
+        }
+        log.info("PDF 转换缓存目录：{}，已有 {} 个结果（{} 字节），转换器版本：{}", directory, disk.size(), diskBytes, PdfConverter.VERSION);
+    }
+
+    /**
+     * 是否启用缓存
+     */
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(config.getEnabled());
+    }
+
+    /**
+     * 计算缓存键
+     *
+     * @param fileName 文件名（扩展名决定转换方式）
+     * @param data     文件内容
+     * @return 缓存键
+     */
+    public String buildKey(String fileName, byte[] data) {
+        String extension = FileUtil.getExtension(fileName).toLowerCase(Locale.ROOT);
+        MessageDigest digest = FileUtil.newSha256();
+        return FileUtil.toHex(digest.digest(data)) + "-" + extension + versionSuffix();
+    }
+
+    /**
+     * 查找转换结果，磁盘层命中时提升到内存层
+     *
+     * @param key 缓存键
+     * @return PDF 数据，未命中返回null
+     */
+    public byte[] get(String key) {
+        synchronized (memory) {
+            byte[] data = memory.get(key);
+            if (data != null) {
+                memoryHitCounter.increment();
+                return data;
+            }
+        }
+
+        boolean onDisk;
+        synchronized (disk) {
+            onDisk = disk.get(key) != null;
+        }
+        if (onDisk) {
+            try {
+                byte[] data = Files.readAllBytes(directory.resolve(key + FILE_SUFFIX));
+                diskHitCounter.increment();
+                putMemory(key, data);
+                return data;
+            } catch (IOException e) {
+                log.warn("读取转换缓存文件失败：{}，{}", key, e.getMessage());
+                removeDisk(key);
+            }
+        }
+        missCounter.increment();
+        return null;
+    }
+
+    /**
+     * 放入转换结果（超过单条上限的结果不缓存）
+     *
+     * @param key 缓存键
+     * @param pdf PDF 数据
+     */
+    public void put(String key, byte[] pdf) {
+        if (pdf == null || pdf.length > config.getMaxEntryBytes()) {
+            return;
+        }
+        putMemory(key, pdf);
+    }
+
+    public long getMemoryBytes() {
+        synchronized (memory) {
+            return memoryBytes;
+        }
+    }
+
+    public long getDiskBytes() {
+        synchronized (disk) {
+            return diskBytes;
+        }
+    }
+
+    /**
+     * 放入内存层，淘汰的结果在锁外写入磁盘层
+     */
+    private void putMemory(String key, byte[] pdf) {
+        List<Map.Entry<String, byte[]>> evicted = new ArrayList<>();
+        synchronized (memory) {
+            byte[] previous = memory.put(key, pdf);
+            if (previous != null) {
+                memoryBytes -= previous.length;
+            }
+            memoryBytes += pdf.length;
+
+            Iterator<Map.Entry<String, byte[]>> iterator = memory.entrySet().iterator();
+            while (memoryBytes > config.getMemoryMaxBytes() && iterator.hasNext()) {
+                Map.Entry<String, byte[]> eldest = iterator.next();
+                iterator.remove();
+                memoryBytes -= eldest.getValue().length;
+                evicted.add(eldest);
+            }
+        }
+        for (Map.Entry<String, byte[]> entry : evicted) {
+            spill(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * 写入磁盘层（先写临时文件再原子重命名），已存在时只更新访问顺序
+     */
+    private void spill(String key, byte[] pdf) {
+        if (directory == null || config.getDiskMaxBytes() <= 0) {
+            return;
+        }
+        synchronized (disk) {
+            if (disk.get(key) != null) {
+                return;
+            }
+        }
+        Path file = directory.resolve(key + FILE_SUFFIX);
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile(directory, "spill", ".tmp");
+            Files.write(tempFile, pdf);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("写入转换缓存文件失败：{}，{}", key, e.getMessage());
+            deleteQuietly(tempFile);
+            return;
+        }
+        synchronized (disk) {
+            if (disk.put(key, (long) pdf.length) == null) {
+                diskBytes += pdf.length;
+            }
+            evictDisk();
+        }
+    }
+
+    /**
+     * 超出磁盘层容量时淘汰最近最少使用的结果（调用方持有 disk 锁）
+     */
+    private void evictDisk() {
+        Iterator<Map.Entry<String, Long>> iterator = disk.entrySet().iterator();
+        while (diskBytes > config.getDiskMaxBytes() && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            diskBytes -= eldest.getValue();
+            deleteQuietly(directory.resolve(eldest.getKey() + FILE_SUFFIX));
+        }
+    }
+
+    private void removeDisk(String key) {
+        synchronized (disk) {
+            Long size = disk.remove(key);
+            if (size != null) {
+                diskBytes -= size;
+            }
+        }
+        deleteQuietly(directory.resolve(key + FILE_SUFFIX));
+    }
+
+    private static String versionSuffix() {
+        return "-v" + PdfConverter.VERSION;
+    }
+
+    private long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除转换缓存文件失败：{}，{}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.demo.component;
+
+import com.example.demo.config.PdfConfig;
+import com.example.demo.util.ArchiveExtractor;
+import com.example.demo.util.ImagePdfConverter;
+import com.example.demo.util.PdfConverter;
+import com.example.demo.util.PdfFontRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * PDF 并行转换执行器
+ * 在独立的 CPU 线程池中并行转换压缩包内的文件，结果按提交顺序返回
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+@Slf4j
+@Component
+public class PdfConvertExecutor {
+
+    private final ThreadPoolTaskExecutor convertExecutor;
+
+    private final PdfConfig pdfConfig;
+
+    private final PdfConversionCache conversionCache;
+
+    private final Timer convertTimer;
+
+    private final Counter timeoutCounter;
+
+    public PdfConvertExecutor(@Qualifier("convertExecutor") ThreadPoolTaskExecutor convertExecutor, PdfConfig pdfConfig,
+                              PdfConversionCache conversionCache, MeterRegistry meterRegistry) {
+        this.convertExecutor = convertExecutor;
+        this.pdfConfig = pdfConfig;
+        this.conversionCache = conversionCache;
+        this.convertTimer = Timer.builder("pdf.convert.time")
+                .description("单个文件转换为 PDF 的耗时")
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder("pdf.convert.timeout")
+                .description("文件转换超时次数")
+                .register(meterRegistry);
+        Gauge.builder("pdf.convert.queue.depth", convertExecutor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("等待转换的文件数")
+                .register(meterRegistry);
+        Gauge.builder("pdf.convert.active", convertExecutor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("正在转换的文件数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 启动时加载中文字体（避免首个转换请求承担字体解析耗时）并设置图片输出分辨率
+     */
+    @PostConstruct
+    public void init() {
+        ImagePdfConverter.configure(pdfConfig.getImageDpi(), pdfConfig.getImageJpegQuality());
+        PdfFontRegistry.configure(pdfConfig.getFontPath());
+        PdfFontRegistry.getBaseFont();
+        log.info("PDF 转换使用字体：{}", PdfFontRegistry.getResolvedFont());
+    }
+
+    /**
+     * 并行转换文件列表，结果顺序与输入一致
+     * 同时处于转换中的文件数不超过 max-in-flight，超出时先等待最早提交的文件
+     *
+     * @param files 压缩包内的文件
+     * @return 处理后的文件（转换失败或超时的文件保留原格式）
+     */
+    public List<ArchiveExtractor.ArchiveFileInfo> convertAll(List<ArchiveExtractor.ArchiveFileInfo> files) {
+        Deque<PendingFile> pending = new ArrayDeque<>();
+        List<ArchiveExtractor.ArchiveFileInfo> result = new ArrayList<>(files.size());
+        try {
+            for (ArchiveExtractor.ArchiveFileInfo file : files) {
+                pending.addLast(submit(file.getName(), file.getData()));
+                while (pending.size() > getMaxInFlight()) {
+                    result.add(await(pending.removeFirst()));
+                }
+            }
+            while (!pending.isEmpty()) {
+                result.add(await(pending.removeFirst()));
+            }
+        } finally {
+            cancelAll(pending);
+        }
+        return result;
+    }
+
+    /**
+     * 提交单个文件转换，无需转换的文件直接返回已完成的结果
+     * 相同内容的文件（如标准委托书模板）优先使用转换缓存中的结果
+     *
+     * @param fileName 文件名
+     * @param data     文件内容
+     * @return 待获取的转换结果
+     */
+    public PendingFile submit(String fileName, byte[] data) {
+        if (!needsConversion(fileName)) {
+            return new PendingFile(fileName, data, null);
+        }
+        long submittedAt = System.nanoTime();
+        Future<byte[]> future;
+        try {
+            future = submitConversion(fileName, data);
+        } catch (TaskRejectedException e) {
+            log.warn("文件 {} 无法提交转换，保留原格式：{}", fileName, e.getMessage());
+            return new PendingFile(fileName, data, null);
+        }
+        return new PendingFile(fileName, data, future, submittedAt);
+    }
+
+    private Future<byte[]> submitConversion(String fileName, byte[] data) {
+        return convertExecutor.submit(() -> {
+            String cacheKey = null;
+            if (conversionCache.isEnabled()) {
+                cacheKey = conversionCache.buildKey(fileName, data);
+                byte[] cached = conversionCache.get(cacheKey);
+                if (cached != null) {
+                    log.info("文件 {} 命中转换缓存", fileName);
+                    return cached;
+                }
+            }
+
+            long start = System.nanoTime();
+            byte[] pdfData;
+            try {
+                log.info("尝试转换文件 {} 为 PDF", fileName);
+                pdfData = PdfConverter.convertToPdf(fileName, data);
+            } finally {
+                convertTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            if (cacheKey != null && pdfData != null) {
+                conversionCache.put(cacheKey, pdfData);
+            }
+            return pdfData;
+        });
+    }
+
+    /**
+     * 等待转换完成，超时或失败时保留原文件
+     * 超时时间从提交时开始计算（包含排队等待时间）
+     *
+     * @param file 已提交的文件
+     * @return 处理后的文件
+     */
+    public ArchiveExtractor.ArchiveFileInfo await(PendingFile file) {
+        byte[] pdfData = null;
+        if (file.future != null) {
+            try {
+                long deadline = file.submittedAt + TimeUnit.SECONDS.toNanos(pdfConfig.getConvertTimeoutSeconds());
+                pdfData = file.future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                file.future.cancel(true);
+                timeoutCounter.increment();
+                log.warn("文件 {} 转换超时（{}秒），保留原格式", file.fileName, pdfConfig.getConvertTimeoutSeconds());
+            } catch (InterruptedException e) {
+                file.future.cancel(true);
+                Thread.currentThread().interrupt();
+                log.warn("文件 {} 转换被中断，保留原格式", file.fileName);
+            } catch (ExecutionException e) {
+                log.error("转换文件 {} 失败：{}", file.fileName, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            }
+        }
+
+        ArchiveExtractor.ArchiveFileInfo processedFile = new ArchiveExtractor.ArchiveFileInfo();
+        if (pdfData != null) {
+            processedFile.setName(toPdfFileName(file.fileName));
+            processedFile.setData(pdfData);
+            log.info("文件 {} 转换为 PDF 成功，原始大小：{} 字节，转换后大小：{} 字节", file.fileName, file.data.length, pdfData.length);
+        } else {
+            if (file.future != null) {
+                log.warn("文件 {} 转换为 PDF 失败，保留原格式", file.fileName);
+            }
+            processedFile.setName(file.fileName);
+            processedFile.setData(file.data);
+        }
+        processedFile.setSize(processedFile.getData().length);
+        return processedFile;
+    }
+
+    /**
+     * 取消尚未取走结果的转换并清空列表
+     *
+     * @param files 已提交但未等待结果的文件
+     */
+    public void cancelAll(Collection<PendingFile> files) {
+        for (PendingFile file : files) {
+            if (file.future != null) {
+                file.future.cancel(true);
+            }
+        }
+        if (!files.isEmpty()) {
+            log.info("已取消 {} 个未完成的转换", files.size());
+            files.clear();
+        }
+    }
+
+    /**
+     * 单个上传允许同时转换的最大文件数
+     */
+    public int getMaxInFlight() {
+        return pdfConfig.getMaxInFlight();
+    }
+
+    /**
+     * 文件是否需要转换（非 PDF 且为支持转换的格式）
+     */
+    public static boolean needsConversion(String fileName) {
+        return !PdfConverter.isPdf(fileName) && PdfConverter.canConvertToPdf(fileName);
+    }
+
+    /**
+     * 将文件扩展名修改为 .pdf
+     */
+    public static String toPdfFileName(String fileName) {
+        String baseName = fileName.contains(".") ? fileName.substring(0, fileName.lastIndexOf(".")) : fileName;
+        return baseName + ".pdf";
+    }
+
+    /**
+     * 已提交转换的文件
+     */
+    public static class PendingFile {
+        private final String fileName;
+        private final byte[] data;
+        private final Future<byte[]> future;
+        private final long submittedAt;
+
+        PendingFile(String fileName, byte[] data, Future<byte[]> future) {
+            this(fileName, data, future, System.nanoTime());
+        }
+
+        PendingFile(String fileName, byte[] data, Future<byte[]> future, long submittedAt) {
+            this.fileName = fileName;
+            this.data = data;
+            this.future = future;
+            this.submittedAt = submittedAt;
+        }
+    }
+}
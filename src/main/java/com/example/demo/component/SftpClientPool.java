@@ -0,0 +1,355 @@
+package com.example.demo.component;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.config.SftpConfig;
+import com.example.demo.util.CircuitBreaker;
+import com.example.demo.util.CircuitOpenException;
+import com.example.demo.util.FileUtil;
+import com.example.demo.util.RemoteDirectoryCache;
+import com.example.demo.util.RetryPolicy;
+import com.example.demo.util.SftpUtil;
+import com.jcraft.jsch.JSchException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.pool2.BaseKeyedPooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPoolConfig;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SFTP连接池
+ * 按主机维护已认证的 SFTP 连接，避免每次请求都重新进行 SSH 握手
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+@Slf4j
+@Component
+public class SftpClientPool implements DisposableBean {
+
+    private final SftpConfig sftpConfig;
+
+    private final CacheConfig.Listing listingConfig;
+
+    private final GenericKeyedObjectPool<Endpoint, SftpUtil> pool;
+
+    /* 已借出的连接及其所属主机 */
+    private final Map<SftpUtil, Endpoint> borrowed = new ConcurrentHashMap<>();
+
+    private final Timer borrowTimer;
+
+    private final Counter borrowTimeoutCounter;
+
+    private final MeterRegistry meterRegistry;
+
+    private final RetryPolicy retryPolicy;
+
+    /* 每个SFTP服务器独立的熔断器，服务器数超过上限时淘汰最久未使用的 */
+    private final Map<Endpoint, CircuitBreaker> breakers;
+
+    /* 每个SFTP服务器独立的目录列表缓存，服务器数超过上限时淘汰最久未使用的 */
+    private final Map<Endpoint, RemoteDirectoryCache> directoryCaches;
+
+    /* 熔断器、目录列表缓存注册的监控指标，淘汰时一并移除 */
+    private final Map<Object, List<Meter>> hostMeters = new ConcurrentHashMap<>();
+
+    public SftpClientPool(SftpConfig sftpConfig, CacheConfig cacheConfig, MeterRegistry meterRegistry) {
+        this.sftpConfig = sftpConfig;
+        this.listingConfig = cacheConfig.getListing();
+        this.meterRegistry = meterRegistry;
+
+        SftpConfig.Retry retry = sftpConfig.getRetry();
+        this.retryPolicy = new RetryPolicy(retry.getMaxRetries(), retry.getInitialDelayMillis(), retry.getMaxDelayMillis(),
+                retry.getMultiplier(), retry.getJitter(), retry.getDeadlineMillis());
+
+        SftpConfig.Pool poolConfig = sftpConfig.getPool();
+        int maxHosts = Math.max(1, poolConfig.getMaxHosts());
+        this.breakers = boundedMap(maxHosts);
+        this.directoryCaches = boundedMap(maxHosts);
+
+        GenericKeyedObjectPoolConfig<SftpUtil> config = new GenericKeyedObjectPoolConfig<>();
+        config.setMaxTotalPerKey(poolConfig.getMaxPerHost());
+        config.setMaxIdlePerKey(poolConfig.getMaxIdlePerHost());
+        config.setMinIdlePerKey(poolConfig.getMinIdlePerHost());
+        config.setMaxWait(Duration.ofMillis(poolConfig.getMaxWaitMillis()));
+        config.setBlockWhenExhausted(true);
+        config.setTestOnBorrow(Boolean.TRUE.equals(poolConfig.getTestOnBorrow()));
+        config.setTestWhileIdle(true);
+        config.setTimeBetweenEvictionRuns(Duration.ofMillis(poolConfig.getEvictionIntervalMillis()));
+        config.setMinEvictableIdleTime(Duration.ofMillis(poolConfig.getMinEvictableIdleMillis()));
+        config.setJmxEnabled(false);
+        this.pool = new GenericKeyedObjectPool<>(new SftpClientFactory(), config);
+
+        this.borrowTimer = Timer.builder("sftp.pool.borrow")
+                .description("从连接池借用SFTP连接的耗时")
+                .register(meterRegistry);
+        this.borrowTimeoutCounter = Counter.builder("sftp.pool.borrow.timeout")
+                .description("借用SFTP连接超时次数")
+                .register(meterRegistry);
+        Gauge.builder("sftp.pool.active", pool, GenericKeyedObjectPool::getNumActive)
+                .description("已借出的SFTP连接数")
+                .register(meterRegistry);
+        Gauge.builder("sftp.pool.idle", pool, GenericKeyedObjectPool::getNumIdle)
+                .description("空闲的SFTP连接数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 从连接池借用默认SFTP服务器的连接
+     *
+     * @return 已连接的SFTP客户端，用完必须调用 {@link #release(SftpUtil)} 归还
+     * @throws JSchException 连接失败或借用超时
+     */
+    public SftpUtil borrow() throws JSchException {
+        return borrow(defaultEndpoint());
+    }
+
+    /**
+     * 从连接池借用指定SFTP服务器的连接
+     *
+     * @param endpoint SFTP服务器
+     * @return 已连接的SFTP客户端，用完必须调用 {@link #release(SftpUtil)} 归还
+     * @throws JSchException 连接失败或借用超时
+     */
+    public SftpUtil borrow(Endpoint endpoint) throws JSchException {
+        CircuitBreaker breaker = breakerFor(endpoint);
+        if (breaker != null && breaker.isOpen()) {
+            // 熔断中不等待连接池，也不尝试建立新连接
+            throw new CircuitOpenException(endpoint.toString(), 0);
+        }
+        long start = System.nanoTime();
+        try {
+            SftpUtil client = pool.borrowObject(endpoint);
+            borrowed.put(client, endpoint);
+            return client;
+        } catch (NoSuchElementException e) {
+            borrowTimeoutCounter.increment();
+            log.error("获取SFTP连接超时: {}，活跃连接数：{}", endpoint, pool.getNumActive(endpoint));
+            throw new JSchException("获取SFTP连接超时: " + endpoint, e);
+        } catch (JSchException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new JSchException("获取SFTP连接失败: " + e.getMessage(), e);
+        } finally {
+            borrowTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 归还连接，已断开的连接会被直接销毁
+     *
+     * @param client 借用的SFTP客户端，允许为null
+     */
+    public void release(SftpUtil client) {
+        if (client == null) {
+            return;
+        }
+        Endpoint endpoint = borrowed.remove(client);
+        if (endpoint == null) {
+            log.warn("归还的SFTP连接不属于连接池，直接断开");
+            client.disconnect();
+            return;
+        }
+        try {
+            if (client.isAlive()) {
+                pool.returnObject(endpoint, client);
+            } else {
+                pool.invalidateObject(endpoint, client);
+            }
+        } catch (Exception e) {
+            log.warn("归还SFTP连接失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 默认SFTP服务器（sign.sftp 配置）
+     */
+    public Endpoint defaultEndpoint() {
+        return new Endpoint(sftpConfig.getHost(), sftpConfig.getPort(), sftpConfig.getUsername(), sftpConfig.getPassword());
+    }
+
+    /**
+     * 获取（或创建）SFTP服务器的熔断器，未启用熔断时返回null
+     */
+    private CircuitBreaker breakerFor(Endpoint endpoint) {
+        SftpConfig.Breaker config = sftpConfig.getBreaker();
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            return null;
+        }
+        return breakers.computeIfAbsent(endpoint, e -> {
+            CircuitBreaker breaker = new CircuitBreaker(e.toString(), config.getFailureThreshold(), config.getOpenDurationMillis());
+            Gauge gauge = Gauge.builder("sftp.circuit.state", breaker, b -> b.getState().getCode())
+                    .description("SFTP熔断器状态（0-关闭，1-打开，2-半开）")
+                    .tag("host", e.getHost() + ":" + e.getPort())
+                    .register(meterRegistry);
+            hostMeters.put(breaker, Collections.singletonList(gauge));
+            return breaker;
+        });
+    }
+
+    /**
+     * 获取（或创建）SFTP服务器的目录列表缓存，未启用缓存时返回null
+     */
+    private RemoteDirectoryCache directoryCacheFor(Endpoint endpoint) {
+        if (!Boolean.TRUE.equals(listingConfig.getEnabled())) {
+            return null;
+        }
+        return directoryCaches.computeIfAbsent(endpoint, e -> {
+            RemoteDirectoryCache cache = new RemoteDirectoryCache(listingConfig.getTtlMillis(), listingConfig.getMaxDirectories());
+            String host = e.getHost() + ":" + e.getPort();
+            hostMeters.put(cache, Arrays.asList(
+                    FunctionCounter.builder("sftp.listing.cache.hit", cache, RemoteDirectoryCache::getHitCount)
+                            .description("目录列表缓存命中次数").tag("host", host).register(meterRegistry),
+                    FunctionCounter.builder("sftp.listing.cache.revalidate", cache, RemoteDirectoryCache::getRevalidateCount)
+                            .description("目录列表过期后按修改时间续期次数").tag("host", host).register(meterRegistry),
+                    FunctionCounter.builder("sftp.listing.cache.miss", cache, RemoteDirectoryCache::getMissCount)
+                            .description("目录列表重新列出次数").tag("host", host).register(meterRegistry)));
+            return cache;
+        });
+    }
+
+    /**
+     * 按访问顺序淘汰的服务器映射，超过上限时淘汰最久未使用的服务器并移除其监控指标
+     * 被淘汰服务器已借出或空闲的连接继续使用原有的熔断器和缓存，之后新建的连接使用新的实例
+     *
+     * @param maxHosts 保留的服务器数上限
+     */
+    private <V> Map<Endpoint, V> boundedMap(int maxHosts) {
+        return Collections.synchronizedMap(new LinkedHashMap<Endpoint, V>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Endpoint, V> eldest) {
+                if (size() <= maxHosts) {
+                    return false;
+                }
+                List<Meter> meters = hostMeters.remove(eldest.getValue());
+                if (meters != null) {
+                    meters.forEach(meterRegistry::remove);
+                }
+                log.info("SFTP服务器数超过上限 {}，淘汰最久未使用的服务器：{}", maxHosts, eldest.getKey());
+                return true;
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        pool.close();
+        log.info("SFTP连接池已关闭");
+    }
+
+    /**
+     * 连接池对象工厂
+     */
+    private class SftpClientFactory extends BaseKeyedPooledObjectFactory<Endpoint, SftpUtil> {
+
+        @Override
+        public SftpUtil create(Endpoint endpoint) throws Exception {
+            SftpUtil client = new SftpUtil(endpoint.getHost(), endpoint.getPort(), endpoint.getUsername(), endpoint.getPassword());
+            client.setVerifyChecksum(Boolean.TRUE.equals(sftpConfig.getVerifyChecksum()));
+            client.setRetryPolicy(retryPolicy);
+            client.setCircuitBreaker(breakerFor(endpoint));
+            client.setDirectoryCache(directoryCacheFor(endpoint));
+            client.connectWithRetry();
+            return client;
+        }
+
+        @Override
+        public PooledObject<SftpUtil> wrap(SftpUtil client) {
+            return new DefaultPooledObject<>(client);
+        }
+
+        @Override
+        public boolean validateObject(Endpoint endpoint, PooledObject<SftpUtil> p) {
+            return p.getObject().isAlive();
+        }
+
+        @Override
+        public void destroyObject(Endpoint endpoint, PooledObject<SftpUtil> p) {
+            p.getObject().disconnect();
+        }
+    }
+
+    /**
+     * SFTP服务器标识（主机、端口、用户名、密码）
+     * 密码以摘要参与比较，密码不同的请求不会借到其他凭据认证过的连接
+     */
+    public static final class Endpoint {
+        private final String host;
+        private final int port;
+        private final String username;
+        private final String password;
+        /* 密码的SHA-256摘要，作为连接池键的一部分 */
+        private final byte[] credentialDigest;
+
+        public Endpoint(String host, int port, String username, String password) {
+            this.host = host;
+            this.port = port;
+            this.username = username;
+            this.password = password;
+            this.credentialDigest = password == null ? new byte[0]
+                    : FileUtil.newSha256().digest(password.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Endpoint)) {
+                return false;
+            }
+            Endpoint other = (Endpoint) o;
+            return port == other.port && Objects.equals(host, other.host) && Objects.equals(username, other.username)
+                    && MessageDigest.isEqual(credentialDigest, other.credentialDigest);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(host, port, username, Arrays.hashCode(credentialDigest));
+        }
+
+        @Override
+        public String toString() {
+            return username + "@" + host + ":" + port;
+        }
+    }
+}
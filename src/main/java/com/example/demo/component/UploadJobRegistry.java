@@ -0,0 +1,121 @@
+package com.example.demo.component;
+
+import com.example.demo.bean.UploadJobState;
+import com.example.demo.bean.vo.UploadJobVo;
+import com.example.demo.config.TransferConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 异步上传任务登记表
+ * 在内存中记录每个批次上传任务的处理进度，已结束的任务保留一段时间供查询后清除
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+@Slf4j
+@Component
+public class UploadJobRegistry {
+
+    private final TransferConfig transferConfig;
+
+    /* 批次ID -> 任务进度 */
+    private final Map<String, UploadJobVo> jobs = new ConcurrentHashMap<>();
+
+    public UploadJobRegistry(TransferConfig transferConfig, MeterRegistry meterRegistry) {
+        this.transferConfig = transferConfig;
+        Gauge.builder("upload.job.running", this, UploadJobRegistry::countRunning)
+                .description("未结束的异步上传任务数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 登记新任务
+     *
+     * @param batchId   批次ID
+     * @param batchName 批次名称
+     * @return 任务进度，同一批次已有未结束的任务时返回null
+     */
+    public UploadJobVo register(String batchId, String batchName) {
+        purgeExpired();
+
+        UploadJobVo job = new UploadJobVo();
+        job.setBatchId(batchId);
+        job.setBatchName(batchName);
+        job.setState(UploadJobState.QUEUED.name());
+        job.setStateDesc(UploadJobState.QUEUED.getDescription());
+        job.setCreateTime(LocalDateTime.now());
+        job.setUpdateTime(job.getCreateTime());
+
+        UploadJobVo previous = jobs.putIfAbsent(batchId, job);
+        if (previous != null) {
+            if (!UploadJobState.valueOf(previous.getState()).isFinished()) {
+                return null;
+            }
+            jobs.put(batchId, job);
+        }
+        return copy(job);
+    }
+
+    /**
+     * 更新任务状态
+     *
+     * @param batchId 批次ID
+     * @param state   新状态
+     * @param message 失败原因，非失败状态传null
+     */
+    public void update(String batchId, UploadJobState state, String message) {
+        UploadJobVo job = jobs.get(batchId);
+        if (job == null) {
+            return;
+        }
+        synchronized (job) {
+            job.setState(state.name());
+            job.setStateDesc(state.getDescription());
+            job.setMessage(message);
+            job.setUpdateTime(LocalDateTime.now());
+        }
+        log.info("上传任务 {} 状态变更为：{}", batchId, state.getDescription());
+    }
+
+    /**
+     * 查询任务进度
+     *
+     * @param batchId 批次ID
+     * @return 任务进度，不存在或已过期返回null
+     */
+    public UploadJobVo get(String batchId) {
+        UploadJobVo job = jobs.get(batchId);
+        return job == null ? null : copy(job);
+    }
+
+    /**
+     * 清除保留时间已过的已结束任务
+     */
+    private void purgeExpired() {
+        LocalDateTime deadline = LocalDateTime.now().minusMinutes(transferConfig.getJobRetentionMinutes());
+        jobs.entrySet().removeIf(e -> UploadJobState.valueOf(e.getValue().getState()).isFinished()
+                && e.getValue().getUpdateTime().isBefore(deadline));
+    }
+
+    private long countRunning() {
+        return jobs.values().stream()
+                .filter(job -> !UploadJobState.valueOf(job.getState()).isFinished())
+                .count();
+    }
+
+    private UploadJobVo copy(UploadJobVo job) {
+        UploadJobVo result = new UploadJobVo();
+        synchronized (job) {
+            BeanUtils.copyProperties(job, result);
+        }
+        return result;
+    }
+}
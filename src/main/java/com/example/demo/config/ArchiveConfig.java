@@ -0,0 +1,40 @@
+package com.example.demo.config;
+
+import com.example.demo.util.ArchiveExtractor;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * 压缩文件解析配置类
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "sign.archive")
+public class ArchiveConfig {
+    /* 不超过该大小的上传压缩包直接在内存中解析，不写临时文件（字节） */
+    private Long inMemoryThresholdBytes = 32L * 1024 * 1024;
+
+    /* 最大条目数 */
+    private Integer maxEntries = 10000;
+
+    /* 单个条目最大解压大小（字节） */
+    private Long maxEntrySizeBytes = 256L * 1024 * 1024;
+
+    /* 最大解压总大小（字节） */
+    private Long maxTotalSizeBytes = 1024L * 1024 * 1024;
+
+    /* 最大压缩比（解压总大小 / 压缩包大小），超过视为压缩炸弹 */
+    private Integer maxCompressionRatio = 100;
+
+    /**
+     * 将配置应用到 ArchiveExtractor 静态工具类
+     */
+    @PostConstruct
+    public void apply() {
+        ArchiveExtractor.setInMemoryThreshold(inMemoryThresholdBytes);
+        ArchiveExtractor.setLimits(new ArchiveExtractor.Limits(maxEntries, maxEntrySizeBytes, maxTotalSizeBytes, maxCompressionRatio));
+    }
+}
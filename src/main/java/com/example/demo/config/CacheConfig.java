@@ -0,0 +1,73 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 本地缓存配置类
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "sign.cache")
+public class CacheConfig {
+    /* 下载文件缓存 */
+    private Download download = new Download();
+
+    /* SFTP目录列表缓存 */
+    private Listing listing = new Listing();
+
+    /* PDF 转换结果缓存 */
+    private Conversion conversion = new Conversion();
+
+    /**
+     * 下载文件本地磁盘缓存配置
+     */
+    @Data
+    public static class Download {
+        /* 是否启用 */
+        private Boolean enabled = true;
+
+        /* 缓存目录 */
+        private String directory = System.getProperty("java.io.tmpdir") + "/sign-download-cache";
+
+        /* 缓存总大小上限（字节），超出后按最近最少使用淘汰 */
+        private Long maxSizeBytes = 2L * 1024 * 1024 * 1024;
+    }
+
+    /**
+     * SFTP目录列表缓存配置（isFileExist、searchFile 从缓存判断）
+     */
+    @Data
+    public static class Listing {
+        /* 是否启用 */
+        private Boolean enabled = true;
+
+        /* 列表有效期（毫秒），过期后按目录修改时间判断是否需要重新列出 */
+        private Long ttlMillis = 30000L;
+
+        /* 每个SFTP服务器最多缓存的目录数 */
+        private Integer maxDirectories = 1000;
+    }
+
+    /**
+     * PDF 转换结果缓存配置（内存 + 磁盘两级）
+     */
+    @Data
+    public static class Conversion {
+        /* 是否启用 */
+        private Boolean enabled = true;
+
+        /* 内存层容量上限（字节），超出后按最近最少使用溢出到磁盘层 */
+        private Long memoryMaxBytes = 64L * 1024 * 1024;
+
+        /* 磁盘层目录 */
+        private String diskDirectory = System.getProperty("java.io.tmpdir") + "/sign-convert-cache";
+
+        /* 磁盘层容量上限（字节），0 表示不使用磁盘层 */
+        private Long diskMaxBytes = 1024L * 1024 * 1024;
+
+        /* 单个转换结果大小上限（字节），超过的不缓存 */
+        private Long maxEntryBytes = 16L * 1024 * 1024;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * PDF 转换配置类
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "sign.pdf")
+public class PdfConfig {
+    /* 单个文件转换超时时间（秒），超时后保留原文件 */
+    private Integer convertTimeoutSeconds = 60;
+
+    /* 单个上传同时处于转换中的最大文件数（限制内存占用和转换队列长度） */
+    private Integer maxInFlight = 8;
+
+    /* 中文字体路径（TTF/TTC，TTC 可用 ",n" 指定字体序号），为空时自动探测系统字体 */
+    private String fontPath;
+
+    /* 图片转 PDF 的输出分辨率（DPI），超出的图片在解码时降采样 */
+    private Integer imageDpi = 150;
+
+    /* 图片转 PDF 重新压缩时的 JPEG 质量（0-1） */
+    private Float imageJpegQuality = 0.75f;
+}
@@ -32,6 +32,18 @@ public class SftpConfig {
     /* 通知接口URL */
     private String noticeUrl;
 
+    /* 上传完成后重命名前是否回读远程文件校验MD5（默认只校验大小） */
+    private Boolean verifyChecksum = false;
+
+    /* 连接池配置 */
+    private Pool pool = new Pool();
+
+    /* 重试策略配置 */
+    private Retry retry = new Retry();
+
+    /* 熔断器配置 */
+    private Breaker breaker = new Breaker();
+
     /**
      * 获取SFTP服务器上的接收目录路径
      * 将Windows路径转换为Linux路径格式
@@ -77,4 +89,73 @@ public class SftpConfig {
 
         return result;
     }
+
+    /**
+     * SFTP连接池配置
+     */
+    @Data
+    public static class Pool {
+        /* 每个主机最大连接数 */
+        private Integer maxPerHost = 8;
+
+        /* 每个主机最大空闲连接数 */
+        private Integer maxIdlePerHost = 4;
+
+        /* 每个主机最小空闲连接数 */
+        private Integer minIdlePerHost = 0;
+
+        /* 借用连接最大等待时间（毫秒） */
+        private Long maxWaitMillis = 10000L;
+
+        /* 借用连接时是否校验连接可用 */
+        private Boolean testOnBorrow = true;
+
+        /* 空闲连接回收检测周期（毫秒） */
+        private Long evictionIntervalMillis = 60000L;
+
+        /* 连接空闲超过该时间后被回收（毫秒） */
+        private Long minEvictableIdleMillis = 300000L;
+
+        /* 保留熔断器和目录列表缓存的SFTP服务器数上限，超过后淘汰最久未使用的服务器 */
+        private Integer maxHosts = 32;
+    }
+
+    /**
+     * SFTP重试策略配置（指数退避 + 随机抖动 + 截止时间）
+     */
+    @Data
+    public static class Retry {
+        /* 最大重试次数 */
+        private Integer maxRetries = 3;
+
+        /* 首次重试间隔（毫秒） */
+        private Long initialDelayMillis = 1000L;
+
+        /* 最大重试间隔（毫秒） */
+        private Long maxDelayMillis = 8000L;
+
+        /* 间隔增长倍数 */
+        private Double multiplier = 2.0;
+
+        /* 随机抖动比例（0~1） */
+        private Double jitter = 0.5;
+
+        /* 单次操作从首次尝试起的总耗时上限（毫秒，含传输耗时），超过后不再重试，0 表示不限制 */
+        private Long deadlineMillis = 300000L;
+    }
+
+    /**
+     * SFTP熔断器配置（按服务器独立熔断）
+     */
+    @Data
+    public static class Breaker {
+        /* 是否启用熔断 */
+        private Boolean enabled = true;
+
+        /* 连续失败多少次后熔断 */
+        private Integer failureThreshold = 5;
+
+        /* 熔断持续时间（毫秒），到期后放行一次试探请求 */
+        private Long openDurationMillis = 30000L;
+    }
 }
@@ -3,6 +3,7 @@ package com.example.demo.config;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 /**
  * 线程池配置类
@@ -10,6 +11,9 @@ import java.util.concurrent.ThreadPoolExecutor;
 @Configuration
 public class ThreadPoolConfig {
 
+    /**
+     * 异步上传任务线程池（满载时拒绝，由调用方返回繁忙，不在请求线程中执行解压、转换和上传）
+     */
     @Bean("uploadExecutor")
     public ThreadPoolTaskExecutor uploadExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -18,8 +22,70 @@ public class ThreadPoolConfig {
         executor.setQueueCapacity(100);
         executor.setKeepAliveSeconds(300);
         executor.setThreadNamePrefix("upload-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * PDF 转换线程池（CPU 密集型，线程数与 CPU 核数一致）
+     * 队列满时阻塞提交方等待队列空位，不在调用线程中执行转换（否则会绕过单文件转换超时）
+     */
+    @Bean("convertExecutor")
+    public ThreadPoolTaskExecutor convertExecutor() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(processors);
+        executor.setMaxPoolSize(processors);
+        executor.setQueueCapacity(200);
+        executor.setKeepAliveSeconds(300);
+        executor.setThreadNamePrefix("pdf-convert-");
+        executor.setRejectedExecutionHandler(ThreadPoolConfig::blockUntilQueued);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean("downloadExecutor")
+    public ThreadPoolTaskExecutor downloadExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(5);
+        executor.setMaxPoolSize(20);
+        executor.setQueueCapacity(50);
+        executor.setKeepAliveSeconds(300);
+        executor.setThreadNamePrefix("download-");
         executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
         executor.initialize();
         return executor;
     }
+
+    /**
+     * SFTP批量传输线程池（每个传输通道占用一个线程，满载时拒绝而不是在请求线程执行）
+     */
+    @Bean("transferExecutor")
+    public ThreadPoolTaskExecutor transferExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(32);
+        executor.setQueueCapacity(0);
+        executor.setKeepAliveSeconds(300);
+        executor.setThreadNamePrefix("sftp-transfer-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 拒绝策略：阻塞等待队列空位，线程池已关闭或等待被中断时拒绝
+     */
+    private static void blockUntilQueued(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("线程池已关闭");
+        }
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("等待线程池队列时被中断", e);
+        }
+    }
 }
@@ -0,0 +1,67 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 文件传输配置类
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "sign.transfer")
+public class TransferConfig {
+    /* 是否启用流式上传（逐个条目解压、转换、打包并直接写入SFTP，不在内存中保留整个压缩包） */
+    private Boolean streamingUpload = true;
+
+    /* 流式传输缓冲区大小（字节） */
+    private Integer bufferSize = 64 * 1024;
+
+    /* 下载输出缓冲区大小（字节） */
+    private Integer downloadBufferSize = 64 * 1024;
+
+    /* 同时从SFTP流式输出的下载数上限（不超过连接池每主机连接数减1，为上传保留连接；缓存命中的下载不受限制） */
+    private Integer downloadMaxStreams = 4;
+
+    /* 流式下载超时时间（毫秒） */
+    private Long downloadTimeoutMillis = 30 * 60 * 1000L;
+
+    /* 异步上传时上传文件的落盘目录 */
+    private String spoolDirectory = System.getProperty("java.io.tmpdir") + "/sign-upload-spool";
+
+    /* 已结束的异步上传任务保留时间（分钟），超过后不可再查询进度 */
+    private Long jobRetentionMinutes = 24 * 60L;
+
+    /* 分片上传允许的最大文件大小（字节） */
+    private Long maxChunkedUploadBytes = 4L * 1024 * 1024 * 1024;
+
+    /* 分片上传会话的空闲超时时间（分钟），超时后删除已接收的数据 */
+    private Long chunkSessionTimeoutMinutes = 24 * 60L;
+
+    /* 是否按上传压缩包的SHA-256识别重复上传，重复时直接复用已存储的ZIP（SFTP硬链接），跳过解压和转换 */
+    private Boolean deduplicate = true;
+
+    /* 是否将批次内所有文件合并为一个PDF（每个文件一个书签）上传，默认打包为ZIP；可被上传请求的 mergePdf 覆盖 */
+    private Boolean mergePdf = false;
+
+    /* 签章文件中存在去除扩展名后同名的文件时是否拒绝上传，默认只在差异报告和日志中提示 */
+    private Boolean rejectDuplicateSealFiles = false;
+
+    /* 批量传输（迁移、补推）默认并发通道数 */
+    private Integer replicationConcurrency = 2;
+
+    /* 批量传输所有任务合计的最大并发通道数（同时不超过SFTP连接池每主机连接数的一半，为上传下载保留连接） */
+    private Integer replicationMaxConcurrency = 4;
+
+    /* 批量传输总带宽上限（字节/秒），所有任务共享，0 表示不限速 */
+    private Long replicationBandwidthBytesPerSecond = 0L;
+
+    /* 批量传输单个文件失败后的重试次数 */
+    private Integer replicationFileRetries = 3;
+
+    /* 批量传输允许的目标服务器（host 或 host:port，主机名不区分大小写），为空时不允许批量传输 */
+    private List<String> replicationAllowedHosts = new ArrayList<>();
+}
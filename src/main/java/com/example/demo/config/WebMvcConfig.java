@@ -0,0 +1,30 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Web MVC 配置类
+ * 流式下载（StreamingResponseBody）在独立线程池中写出响应
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final ThreadPoolTaskExecutor downloadExecutor;
+
+    private final TransferConfig transferConfig;
+
+    public WebMvcConfig(@Qualifier("downloadExecutor") ThreadPoolTaskExecutor downloadExecutor, TransferConfig transferConfig) {
+        this.downloadExecutor = downloadExecutor;
+        this.transferConfig = transferConfig;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(downloadExecutor);
+        configurer.setDefaultTimeout(transferConfig.getDownloadTimeoutMillis());
+    }
+}
@@ -2,8 +2,10 @@ package com.example.demo.controller;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.example.demo.bean.Response;
+import com.example.demo.bean.vo.ChunkUploadVo;
 import com.example.demo.bean.vo.LawCaseBatchInfoStateVo;
 import com.example.demo.bean.vo.LawCaseBatchInfoVo;
+import com.example.demo.bean.vo.UploadJobVo;
 import com.example.demo.dto.LawCaseBatchInfoRequestDto;
 import com.example.demo.entity.LawCaseBatchInfo;
 import com.example.demo.service.ILawCaseBatchInfoService;
@@ -11,8 +13,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.annotation.Resource;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -60,14 +64,113 @@ public class LawCaseBatchInfoController {
         return lawCaseBatchInfoService.uploadUnstampedFile(dto, file);
     }
 
+    /**
+     * 异步上传压缩文件
+     *
+     * @param dto  批次信息
+     * @param file 上传的压缩文件
+     * @return 任务进度（包含批次ID）
+     */
+    @PostMapping("uploadUnstampedFileAsync")
+    public Response<UploadJobVo> uploadUnstampedFileAsync(
+            @ModelAttribute LawCaseBatchInfoRequestDto dto,
+            @RequestParam("file") MultipartFile file) {
+        log.info("异步上传压缩文件，批次信息：{}，文件名：{}", dto, file != null ? file.getOriginalFilename() : "无文件");
+        return lawCaseBatchInfoService.submitUnstampedFile(dto, file);
+    }
+
+    /**
+     * 查询异步上传任务进度
+     *
+     * @param dto 批次信息（必须包含batchId）
+     * @return 任务进度
+     */
+    @GetMapping("getUploadJob")
+    public Response<UploadJobVo> getUploadJob(LawCaseBatchInfoRequestDto dto) {
+        log.info("查询上传任务进度，批次ID：{}", dto.getBatchId());
+        return lawCaseBatchInfoService.getUploadJob(dto);
+    }
+
+    /**
+     * 创建分片上传会话
+     *
+     * @param fileName  原始文件名
+     * @param totalSize 文件总大小（字节）
+     * @return 分片上传会话（包含uploadId）
+     */
+    @PostMapping("initChunkUpload")
+    public Response<ChunkUploadVo> initChunkUpload(@RequestParam("fileName") String fileName,
+                                                   @RequestParam("totalSize") Long totalSize) {
+        log.info("创建分片上传，文件名：{}，大小：{} 字节", fileName, totalSize);
+        return lawCaseBatchInfoService.initChunkUpload(fileName, totalSize);
+    }
+
+    /**
+     * 上传一个分片（请求体为分片的原始字节）
+     *
+     * @param uploadId 分片上传ID
+     * @param offset   分片在文件中的偏移量
+     * @param checksum 分片内容的 MD5（十六进制）
+     * @param body     分片内容
+     * @return 已接收大小
+     */
+    @PutMapping("uploadChunk")
+    public Response<ChunkUploadVo> uploadChunk(@RequestParam("uploadId") String uploadId,
+                                               @RequestParam("offset") Long offset,
+                                               @RequestParam("checksum") String checksum,
+                                               InputStream body) {
+        return lawCaseBatchInfoService.uploadChunk(uploadId, offset, checksum, body);
+    }
+
+    /**
+     * 查询分片上传会话（断点续传时获取已接收大小）
+     *
+     * @param uploadId 分片上传ID
+     * @return 分片上传会话
+     */
+    @GetMapping("getChunkUpload")
+    public Response<ChunkUploadVo> getChunkUpload(@RequestParam("uploadId") String uploadId) {
+        return lawCaseBatchInfoService.getChunkUpload(uploadId);
+    }
+
+    /**
+     * 完成分片上传并作为待签章压缩包处理
+     *
+     * @param uploadId 分片上传ID
+     * @param dto      批次信息
+     * @return 上传结果
+     */
+    @PostMapping("completeUnstampedChunkUpload")
+    public Response<List<LawCaseBatchInfoVo>> completeUnstampedChunkUpload(@RequestParam("uploadId") String uploadId,
+                                                                           @ModelAttribute LawCaseBatchInfoRequestDto dto) {
+        log.info("完成分片上传（待签章文件），上传ID：{}，批次信息：{}", uploadId, dto);
+        return lawCaseBatchInfoService.completeUnstampedChunkUpload(uploadId, dto);
+    }
+
+    /**
+     * 完成分片上传并作为签章文件处理
+     *
+     * @param uploadId 分片上传ID
+     * @param dto      批次信息（必须包含batchId）
+     * @return 上传结果
+     */
+    @PostMapping("completeSealChunkUpload")
+    public Response<?> completeSealChunkUpload(@RequestParam("uploadId") String uploadId,
+                                               @ModelAttribute LawCaseBatchInfoRequestDto dto) {
+        log.info("完成分片上传（签章文件），上传ID：{}，批次ID：{}", uploadId, dto.getBatchId());
+        Response<?> result = lawCaseBatchInfoService.completeSealChunkUpload(uploadId, dto);
+        log.info("上传结果 {}", result);
+        return result;
+    }
+
     /**
      * 下载未签章文件
      *
      * @param dto 批次信息（必须包含batchId）
-     * @return 下载的文件（二进制格式）
+     * @return 下载的文件（流式输出）
      */
     @GetMapping("downloadUnstampedFile")
-    public ResponseEntity<byte[]> downloadUnstampedFile(LawCaseBatchInfoRequestDto dto) {
+    public ResponseEntity<StreamingResponseBody> downloadUnstampedFile(LawCaseBatchInfoRequestDto dto) {
         log.info("下载未签章文件，批次ID：{}", dto.getBatchId());
         return lawCaseBatchInfoService.downloadUnstampedFile(dto);
     }
@@ -80,11 +183,11 @@ public class LawCaseBatchInfoController {
      * @return 上传结果
      */
     @PostMapping("uploadSealFile")
-    public Response<List<LawCaseBatchInfoVo>> uploadSealFile(
+    public Response<?> uploadSealFile(
             @ModelAttribute LawCaseBatchInfoRequestDto dto,
             @RequestParam("file") MultipartFile file) {
         log.info("上传签章文件，批次ID：{}，文件名：{}", dto.getBatchId(), file.getOriginalFilename());
-        Response<List<LawCaseBatchInfoVo>> result = lawCaseBatchInfoService.uploadSealFile(dto, file);
+        Response<?> result = lawCaseBatchInfoService.uploadSealFile(dto, file);
         log.info("上传结果 {}", result);
         return result;
     }
@@ -93,10 +196,10 @@ public class LawCaseBatchInfoController {
      * 下载签章文件
      *
      * @param dto 批次信息（必须包含batchId）
-     * @return 下载的文件（二进制格式）
+     * @return 下载的文件（流式输出）
      */
     @GetMapping("downloadSealFile")
-    public ResponseEntity<byte[]> downloadSealFile(LawCaseBatchInfoRequestDto dto) {
+    public ResponseEntity<StreamingResponseBody> downloadSealFile(LawCaseBatchInfoRequestDto dto) {
         log.info("下载签章文件，批次ID：{}", dto.getBatchId());
         return lawCaseBatchInfoService.downloadSealFile(dto);
     }
@@ -0,0 +1,61 @@
+package com.example.demo.controller;
+
+import com.example.demo.bean.Response;
+import com.example.demo.bean.vo.SftpTransferVo;
+import com.example.demo.dto.SftpTransferRequestDto;
+import com.example.demo.service.ISftpTransferService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+import javax.annotation.Resource;
+
+/**
+ * SFTP批量传输 前端控制器
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+@Slf4j
+@RestController
+@RequestMapping("/sftp-transfer")
+public class SftpTransferController {
+
+    @Resource
+    private ISftpTransferService sftpTransferService;
+
+    /**
+     * 启动批量传输任务
+     *
+     * @param dto 传输参数（目标服务器必填，源目录默认为接收目录，文件名为空时传输整个目录）
+     * @return 任务进度（包含transferId）
+     */
+    @PostMapping("startTransfer")
+    public Response<SftpTransferVo> startTransfer(@RequestBody SftpTransferRequestDto dto) {
+        log.info("启动批量传输，源目录：{}，目标服务器：{}，目标目录：{}", dto.getSourceDirectory(), dto.getTargetHost(), dto.getTargetDirectory());
+        return sftpTransferService.startTransfer(dto);
+    }
+
+    /**
+     * 查询批量传输任务进度
+     *
+     * @param transferId 传输任务ID
+     * @return 任务进度
+     */
+    @GetMapping("getTransfer")
+    public Response<SftpTransferVo> getTransfer(@RequestParam("transferId") String transferId) {
+        log.info("查询批量传输进度，任务ID：{}", transferId);
+        return sftpTransferService.getTransfer(transferId);
+    }
+
+    /**
+     * 取消批量传输任务
+     *
+     * @param transferId 传输任务ID
+     * @return 任务进度
+     */
+    @PostMapping("cancelTransfer")
+    public Response<SftpTransferVo> cancelTransfer(@RequestParam("transferId") String transferId) {
+        log.info("取消批量传输，任务ID：{}", transferId);
+        return sftpTransferService.cancelTransfer(transferId);
+    }
+}
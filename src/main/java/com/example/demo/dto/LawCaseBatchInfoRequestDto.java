@@ -122,4 +122,9 @@ public class LawCaseBatchInfoRequestDto implements Serializable {
      */
     private String remarks;
 
+    /**
+     * 是否将批次内所有文件合并为一个PDF（为空时使用配置 sign.transfer.merge-pdf）
+     */
+    private Boolean mergePdf;
+
 }
@@ -0,0 +1,55 @@
+package com.example.demo.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * SFTP批量传输请求对象
+ */
+@Data
+public class SftpTransferRequestDto implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 源目录（默认 sign.sftp.receive-path）
+     */
+    private String sourceDirectory;
+
+    /**
+     * 待传输的文件名，为空时传输源目录下的所有文件
+     */
+    private List<String> fileNames;
+
+    /**
+     * 目标服务器地址
+     */
+    private String targetHost;
+
+    /**
+     * 目标服务器端口（默认22）
+     */
+    private Integer targetPort;
+
+    /**
+     * 目标服务器用户名
+     */
+    private String targetUsername;
+
+    /**
+     * 目标服务器密码
+     */
+    private String targetPassword;
+
+    /**
+     * 目标目录（默认与源目录相同）
+     */
+    private String targetDirectory;
+
+    /**
+     * 并发通道数（默认 sign.transfer.replication-concurrency）
+     */
+    private Integer concurrency;
+}
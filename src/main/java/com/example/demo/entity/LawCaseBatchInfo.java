@@ -54,6 +54,16 @@ public class LawCaseBatchInfo implements Serializable {
      */
     private String uploadAddressOver;
 
+    /**
+     * 未签章压缩包文件清单(JSON,文件名及大小)
+     */
+    private String fileManifest;
+
+    /**
+     * 上传压缩包内容SHA-256(用于识别重复上传)
+     */
+    private String contentHash;
+
     /**
      * 创建时间
      */
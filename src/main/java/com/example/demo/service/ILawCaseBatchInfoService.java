@@ -3,13 +3,17 @@ package com.example.demo.service;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.example.demo.bean.Response;
+import com.example.demo.bean.vo.ChunkUploadVo;
 import com.example.demo.bean.vo.LawCaseBatchInfoStateVo;
 import com.example.demo.bean.vo.LawCaseBatchInfoVo;
+import com.example.demo.bean.vo.UploadJobVo;
 import com.example.demo.dto.LawCaseBatchInfoRequestDto;
 import com.example.demo.entity.LawCaseBatchInfo;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -29,30 +33,93 @@ public interface ILawCaseBatchInfoService extends IService<LawCaseBatchInfo> {
      */
     Response<List<LawCaseBatchInfoVo>> uploadUnstampedFile(LawCaseBatchInfoRequestDto dto, MultipartFile file);
 
+    /**
+     * 异步上传压缩文件（文件落盘后立即返回批次ID，后台完成处理）
+     *
+     * @param dto 批次信息
+     * @param file 上传的压缩文件
+     * @return Response 包含任务进度或错误信息
+     */
+    Response<UploadJobVo> submitUnstampedFile(LawCaseBatchInfoRequestDto dto, MultipartFile file);
+
+    /**
+     * 查询异步上传任务进度
+     *
+     * @param dto 批次信息（必须包含batchId）
+     * @return Response 包含任务进度或错误信息
+     */
+    Response<UploadJobVo> getUploadJob(LawCaseBatchInfoRequestDto dto);
+
+    /**
+     * 创建分片上传会话
+     *
+     * @param fileName 原始文件名
+     * @param totalSize 文件总大小（字节）
+     * @return Response 包含分片上传会话或错误信息
+     */
+    Response<ChunkUploadVo> initChunkUpload(String fileName, Long totalSize);
+
+    /**
+     * 上传一个分片（必须从已接收大小处开始）
+     *
+     * @param uploadId 分片上传ID
+     * @param offset 分片在文件中的偏移量
+     * @param checksum 分片内容的 MD5（十六进制）
+     * @param in 分片内容
+     * @return Response 包含已接收大小或错误信息
+     */
+    Response<ChunkUploadVo> uploadChunk(String uploadId, Long offset, String checksum, InputStream in);
+
+    /**
+     * 查询分片上传会话
+     *
+     * @param uploadId 分片上传ID
+     * @return Response 包含分片上传会话或错误信息
+     */
+    Response<ChunkUploadVo> getChunkUpload(String uploadId);
+
+    /**
+     * 完成分片上传并作为待签章压缩包处理
+     *
+     * @param uploadId 分片上传ID
+     * @param dto 批次信息
+     * @return Response 包含批次信息列表或错误信息
+     */
+    Response<List<LawCaseBatchInfoVo>> completeUnstampedChunkUpload(String uploadId, LawCaseBatchInfoRequestDto dto);
+
+    /**
+     * 完成分片上传并作为签章文件处理
+     *
+     * @param uploadId 分片上传ID
+     * @param dto 批次信息（必须包含batchId）
+     * @return Response 包含批次信息列表，文件校验失败时包含差异报告
+     */
+    Response<?> completeSealChunkUpload(String uploadId, LawCaseBatchInfoRequestDto dto);
+
     /**
      * 下载未签章文件
      *
      * @param dto 批次信息（必须包含batchId）
-     * @return ResponseEntity 包含二进制文件数据
+     * @return ResponseEntity 以流的方式输出文件数据
      */
-    ResponseEntity<byte[]> downloadUnstampedFile(LawCaseBatchInfoRequestDto dto);
+    ResponseEntity<StreamingResponseBody> downloadUnstampedFile(LawCaseBatchInfoRequestDto dto);
 
     /**
      * 上传签章文件
      *
      * @param dto 批次信息（必须包含batchId）
      * @param file 签章后的文件
-     * @return Response 包含批次信息列表或错误信息
+     * @return Response 包含批次信息列表，文件校验失败时包含差异报告
      */
-    Response<List<LawCaseBatchInfoVo>> uploadSealFile(LawCaseBatchInfoRequestDto dto, MultipartFile file);
+    Response<?> uploadSealFile(LawCaseBatchInfoRequestDto dto, MultipartFile file);
 
     /**
      * 下载签章文件
      *
      * @param dto 批次信息（必须包含batchId）
-     * @return ResponseEntity 包含二进制文件数据
+     * @return ResponseEntity 以流的方式输出文件数据
      */
-    ResponseEntity<byte[]> downloadSealFile(LawCaseBatchInfoRequestDto dto);
+    ResponseEntity<StreamingResponseBody> downloadSealFile(LawCaseBatchInfoRequestDto dto);
 
     /**
      * 撤销待签章文件（逻辑删除，不删除远程仓库数据）
@@ -0,0 +1,39 @@
+package com.example.demo.service;
+
+import com.example.demo.bean.Response;
+import com.example.demo.bean.vo.SftpTransferVo;
+import com.example.demo.dto.SftpTransferRequestDto;
+
+/**
+ * SFTP批量传输 服务类
+ * 将源目录下的文件通过多个并发通道传输到目标服务器，用于历史批次补推和服务器迁移
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+public interface ISftpTransferService {
+
+    /**
+     * 启动批量传输任务（后台执行，立即返回任务进度）
+     *
+     * @param dto 传输参数
+     * @return Response 包含任务进度或错误信息
+     */
+    Response<SftpTransferVo> startTransfer(SftpTransferRequestDto dto);
+
+    /**
+     * 查询批量传输任务进度
+     *
+     * @param transferId 传输任务ID
+     * @return Response 包含任务进度或错误信息
+     */
+    Response<SftpTransferVo> getTransfer(String transferId);
+
+    /**
+     * 取消批量传输任务（正在传输的文件会中断，未开始的文件不再传输）
+     *
+     * @param transferId 传输任务ID
+     * @return Response 包含任务进度或错误信息
+     */
+    Response<SftpTransferVo> cancelTransfer(String transferId);
+}
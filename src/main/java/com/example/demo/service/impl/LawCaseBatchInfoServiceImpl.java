@@ -3,35 +3,54 @@ package com.example.demo.service.impl;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
-import com.example.demo.bean.FileDownloadResult;
+import com.example.demo.bean.FileManifestEntry;
 import com.example.demo.bean.Response;
+import com.example.demo.bean.UploadJobState;
+import com.example.demo.bean.vo.ChunkUploadVo;
 import com.example.demo.bean.vo.LawCaseBatchInfoStateVo;
 import com.example.demo.bean.vo.LawCaseBatchInfoVo;
+import com.example.demo.bean.vo.SealFileDiffVo;
+import com.example.demo.bean.vo.UploadJobVo;
+import com.example.demo.component.ChunkedUploadManager;
+import com.example.demo.component.DownloadFileCache;
+import com.example.demo.component.PdfConvertExecutor;
+import com.example.demo.component.SftpClientPool;
+import com.example.demo.component.UploadJobRegistry;
 import com.example.demo.config.EmailConfig;
 import com.example.demo.config.SftpConfig;
+import com.example.demo.config.TransferConfig;
 import com.example.demo.dto.LawCaseBatchInfoRequestDto;
 import com.example.demo.entity.LawCaseBatchInfo;
 import com.example.demo.mapper.LawCaseBatchInfoMapper;
 import com.example.demo.service.ILawCaseBatchInfoService;
 import com.example.demo.util.ArchiveExtractor;
+import com.example.demo.util.ArchiveLimitException;
 import com.example.demo.util.FileUtil;
-import com.example.demo.util.PdfConverter;
+import com.example.demo.util.LocalMultipartFile;
+import com.example.demo.util.PdfMerger;
 import com.example.demo.util.SftpUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.annotation.PostConstruct;
 import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
 
 /**
  * <p>
@@ -51,12 +70,44 @@ public class LawCaseBatchInfoServiceImpl extends ServiceImpl<LawCaseBatchInfoMap
     @Autowired
     private SftpConfig sftpConfig;
 
+    @Autowired
+    private SftpClientPool sftpClientPool;
+
+    @Autowired
+    private TransferConfig transferConfig;
+
+    @Autowired
+    private DownloadFileCache downloadFileCache;
+
+    @Autowired
+    private PdfConvertExecutor pdfConvertExecutor;
+
+    @Autowired
+    private UploadJobRegistry uploadJobRegistry;
+
+    @Autowired
+    private ChunkedUploadManager chunkedUploadManager;
+
+    @Autowired
+    @Qualifier("uploadExecutor")
+    private ThreadPoolTaskExecutor uploadExecutor;
+
     @Autowired
     private EmailConfig emailConfig;
 
     @Autowired
     private JavaMailSender mailSender;
 
+    /* 流式下载许可：下载在响应写完前一直占用池化连接，限制其数量为上传保留连接 */
+    private Semaphore downloadPermits;
+
+    @PostConstruct
+    public void init() {
+        int maxStreams = Math.max(1, Math.min(transferConfig.getDownloadMaxStreams(), sftpConfig.getPool().getMaxPerHost() - 1));
+        downloadPermits = new Semaphore(maxStreams);
+        log.info("流式下载并发上限：{}", maxStreams);
+    }
+
     /**
      * 上传压缩文件
      *
@@ -74,52 +125,298 @@ public class LawCaseBatchInfoServiceImpl extends ServiceImpl<LawCaseBatchInfoMap
             return Response.fail("上传失败：文件为空");
         }
 
+        // 校验条目、计算哈希、解压需要多次读取上传文件，先落盘一次，之后都读取落盘文件
+        LocalMultipartFile localFile;
         try {
+            localFile = spoolUpload(file);
+        } catch (Exception e) {
+            log.error("上传文件落盘失败：{}", e.getMessage(), e);
+            return Response.fail("上传失败：" + e.getMessage());
+        }
 
-            // 1. 解析压缩文件
-            List<ArchiveExtractor.ArchiveFileInfo> extractedFiles = ArchiveExtractor.extract(file);
+        try {
+            return processUnstampedFile(dto, localFile, state -> {
+            });
+        } finally {
+            deleteSpoolFile(file, localFile);
+        }
+    }
 
-            // 2. 检查文件数量（必须 >= 3）
-            if (extractedFiles.size() < 3) {
-                log.warn("压缩包内文件数量不足，当前数量：{}，要求：>= 3", extractedFiles.size());
-                return Response.fail("上传失败：压缩包内文件数量不足（至少需要3个文件）");
-            }
+    /**
+     * 异步上传压缩文件
+     * 文件落盘后立即返回批次ID，解压、转换、上传、入库在 uploadExecutor 中执行，
+     * 处理进度通过 {@link #getUploadJob(LawCaseBatchInfoRequestDto)} 查询
+     *
+     * @param dto  批次信息
+     * @param file 上传的压缩文件
+     * @return Response 包含任务进度或错误信息
+     */
+    @Override
+    public Response<UploadJobVo> submitUnstampedFile(LawCaseBatchInfoRequestDto dto, MultipartFile file) {
+        log.info("开始异步上传压缩文件，请求参数：{}，文件名：{}", dto, file != null ? file.getOriginalFilename() : "无文件");
 
-            log.info("压缩包解析成功，共提取 {} 个文件", extractedFiles.size());
+        // 检查文件是否为空
+        if (file == null || file.isEmpty()) {
+            log.warn("上传文件为空，无法上传压缩文件");
+            return Response.fail("上传失败：文件为空");
+        }
 
-            // 3. 检查是否包含必需的文件关键字
-            boolean has起诉状 = false;
-            boolean has委托书 = false;
-            boolean has申请书 = false;
+        String batchId = dto.getBatchId();
+        if (batchId == null || batchId.isEmpty()) {
+            batchId = generateBatchId();
+            dto.setBatchId(batchId);
+        }
 
-            log.info("开始检查提取到的文件，共 {} 个文件", extractedFiles.size());
-            for (ArchiveExtractor.ArchiveFileInfo fileInfo : extractedFiles) {
-                String fileName = fileInfo.getName();
-                log.info("检查文件名：'{}'", fileName);
-                log.info("  - 包含'起诉状'：{}", fileName.contains("起诉状"));
-                log.info("  - 包含'委托书'：{}", fileName.contains("委托书"));
-                log.info("  - 包含'申请书'：{}", fileName.contains("申请书"));
+        UploadJobVo job = uploadJobRegistry.register(batchId, dto.getBatchName());
+        if (job == null) {
+            log.warn("批次 {} 已有正在处理的上传任务", batchId);
+            return Response.fail("上传失败：该批次正在处理中");
+        }
 
-                if (fileInfo.containsKeyword("起诉状")) {
-                    has起诉状 = true;
-                    log.info("找到包含'起诉状'的文件：{}", fileInfo.getName());
-                }
-                if (fileInfo.containsKeyword("委托书")) {
-                    has委托书 = true;
-                    log.info("找到包含'委托书'的文件：{}", fileInfo.getName());
+        // 1. 上传文件落盘，请求结束后临时文件会被容器清理
+        LocalMultipartFile localFile;
+        try {
+            localFile = spoolUpload(file);
+        } catch (Exception e) {
+            log.error("上传文件落盘失败：{}", e.getMessage(), e);
+            uploadJobRegistry.update(batchId, UploadJobState.FAILED, "上传文件保存失败");
+            return Response.fail("上传失败：" + e.getMessage());
+        }
+
+        // 2. 提交到上传线程池后台处理
+        String jobBatchId = batchId;
+        try {
+            uploadExecutor.execute(() -> {
+                try {
+                    Response<List<LawCaseBatchInfoVo>> result = processUnstampedFile(dto, localFile,
+                            state -> uploadJobRegistry.update(jobBatchId, state, null));
+                    if (result.getStatus() == 200) {
+                        uploadJobRegistry.update(jobBatchId, UploadJobState.PERSISTED, null);
+                    } else {
+                        uploadJobRegistry.update(jobBatchId, UploadJobState.FAILED, result.getMessage());
+                    }
+                } catch (Exception e) {
+                    log.error("异步上传任务 {} 失败：{}", jobBatchId, e.getMessage(), e);
+                    uploadJobRegistry.update(jobBatchId, UploadJobState.FAILED, "上传失败：" + e.getMessage());
+                } finally {
+                    deleteSpoolFile(file, localFile);
                 }
-                if (fileInfo.containsKeyword("申请书")) {
-                    has申请书 = true;
-                    log.info("找到包含'申请书'的文件：{}", fileInfo.getName());
+            });
+        } catch (TaskRejectedException e) {
+            log.warn("上传线程池已满，拒绝批次 {} 的异步上传任务", batchId);
+            uploadJobRegistry.update(batchId, UploadJobState.FAILED, "上传线程池已满");
+            deleteSpoolFile(file, localFile);
+            return Response.fail("上传失败：上传任务过多，请稍后重试");
+        }
+
+        log.info("异步上传任务已提交，批次ID：{}", batchId);
+        return Response.success(job);
+    }
+
+    /**
+     * 查询异步上传任务进度
+     *
+     * @param dto 批次信息（必须包含batchId）
+     * @return Response 包含任务进度或错误信息
+     */
+    @Override
+    public Response<UploadJobVo> getUploadJob(LawCaseBatchInfoRequestDto dto) {
+        if (dto.getBatchId() == null || dto.getBatchId().isEmpty()) {
+            return Response.fail("查询失败：批次ID不能为空");
+        }
+        UploadJobVo job = uploadJobRegistry.get(dto.getBatchId());
+        if (job == null) {
+            return Response.fail("查询失败：上传任务不存在或已过期");
+        }
+        return Response.success(job);
+    }
+
+    /**
+     * 创建分片上传会话
+     *
+     * @param fileName  原始文件名
+     * @param totalSize 文件总大小（字节）
+     * @return Response 包含分片上传会话或错误信息
+     */
+    @Override
+    public Response<ChunkUploadVo> initChunkUpload(String fileName, Long totalSize) {
+        if (fileName == null || fileName.isEmpty() || totalSize == null) {
+            return Response.fail("创建分片上传失败：文件名和文件大小不能为空");
+        }
+        try {
+            return Response.success(chunkedUploadManager.create(fileName, totalSize));
+        } catch (IllegalArgumentException e) {
+            return Response.fail("创建分片上传失败：" + e.getMessage());
+        } catch (Exception e) {
+            log.error("创建分片上传失败：{}", e.getMessage(), e);
+            return Response.fail("创建分片上传失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 上传一个分片
+     *
+     * @param uploadId 分片上传ID
+     * @param offset   分片在文件中的偏移量
+     * @param checksum 分片内容的 MD5（十六进制）
+     * @param in       分片内容
+     * @return Response 包含已接收大小或错误信息（偏移量错误时包含当前会话，客户端据此续传）
+     */
+    @Override
+    public Response<ChunkUploadVo> uploadChunk(String uploadId, Long offset, String checksum, InputStream in) {
+        if (offset == null || checksum == null || checksum.isEmpty()) {
+            return Response.fail("分片上传失败：偏移量和校验值不能为空");
+        }
+        try {
+            return Response.success(chunkedUploadManager.append(uploadId, offset, checksum, in));
+        } catch (ChunkedUploadManager.ChunkOffsetException e) {
+            log.warn("分片偏移量错误，上传ID：{}，请求偏移量：{}，已接收：{}", uploadId, offset, e.getUpload().getReceived());
+            return Response.fail(5001, "CHUNK_OFFSET_MISMATCH", e.getMessage(), e.getUpload());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            log.warn("分片上传失败，上传ID：{}，{}", uploadId, e.getMessage());
+            return Response.fail("分片上传失败：" + e.getMessage());
+        } catch (Exception e) {
+            log.error("分片上传失败，上传ID：{}，{}", uploadId, e.getMessage(), e);
+            return Response.fail("分片上传失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 查询分片上传会话（断点续传时获取已接收大小）
+     *
+     * @param uploadId 分片上传ID
+     * @return Response 包含分片上传会话或错误信息
+     */
+    @Override
+    public Response<ChunkUploadVo> getChunkUpload(String uploadId) {
+        try {
+            return Response.success(chunkedUploadManager.get(uploadId));
+        } catch (IllegalArgumentException e) {
+            return Response.fail("查询失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 完成分片上传，将落盘文件作为待签章压缩包处理
+     *
+     * @param uploadId 分片上传ID
+     * @param dto      批次信息
+     * @return Response 包含批次信息列表或错误信息
+     */
+    @Override
+    public Response<List<LawCaseBatchInfoVo>> completeUnstampedChunkUpload(String uploadId, LawCaseBatchInfoRequestDto dto) {
+        LocalMultipartFile file;
+        try {
+            file = chunkedUploadManager.beginComplete(uploadId);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return Response.fail("上传失败：" + e.getMessage());
+        }
+
+        Response<List<LawCaseBatchInfoVo>> result = null;
+        try {
+            result = uploadUnstampedFile(dto, file);
+            return result;
+        } finally {
+            chunkedUploadManager.endComplete(uploadId, result != null && result.getStatus() == 200);
+        }
+    }
+
+    /**
+     * 完成分片上传，将落盘文件作为签章文件处理
+     *
+     * @param uploadId 分片上传ID
+     * @param dto      批次信息（必须包含batchId）
+     * @return Response 包含批次信息列表，文件校验失败时包含差异报告
+     */
+    @Override
+    public Response<?> completeSealChunkUpload(String uploadId, LawCaseBatchInfoRequestDto dto) {
+        LocalMultipartFile file;
+        try {
+            file = chunkedUploadManager.beginComplete(uploadId);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return Response.fail("上传失败：" + e.getMessage());
+        }
+
+        Response<?> result = null;
+        try {
+            result = uploadSealFile(dto, file);
+            return result;
+        } finally {
+            chunkedUploadManager.endComplete(uploadId, result != null && result.getStatus() == 200);
+        }
+    }
+
+    /**
+     * 上传文件落盘到 spool 目录（落盘文件名随机生成，不使用客户端传入的批次ID）
+     * 容器的上传文件不一定能重复读取（Tomcat 超过内存阈值的 Part 在 transferTo 时会被移走），
+     * 需要多次读取的流程统一读取落盘后的文件；已是本地文件（分片上传）时直接返回
+     *
+     * @param file 上传文件
+     * @return 落盘后的文件，用完后调用 {@link #deleteSpoolFile(MultipartFile, LocalMultipartFile)} 删除
+     */
+    private LocalMultipartFile spoolUpload(MultipartFile file) throws java.io.IOException {
+        if (file instanceof LocalMultipartFile) {
+            return (LocalMultipartFile) file;
+        }
+        // 使用绝对路径，相对路径会被容器解析到自己的临时目录下
+        java.nio.file.Path spoolDirectory = java.nio.file.Paths.get(transferConfig.getSpoolDirectory()).toAbsolutePath();
+        java.nio.file.Files.createDirectories(spoolDirectory);
+        java.io.File spoolFile = spoolDirectory.resolve(UUID.randomUUID() + ".upload").toFile();
+        file.transferTo(spoolFile);
+        log.info("上传文件已落盘：{}，大小：{} 字节", spoolFile, spoolFile.length());
+        return new LocalMultipartFile(spoolFile, file.getOriginalFilename(), file.getContentType());
+    }
+
+    /**
+     * 删除 {@link #spoolUpload(MultipartFile)} 生成的落盘文件（上传文件本身就是本地文件时不删除，由其来源负责）
+     */
+    private void deleteSpoolFile(MultipartFile file, LocalMultipartFile localFile) {
+        if (localFile == file) {
+            return;
+        }
+        java.io.File spoolFile = localFile.getFile();
+        if (!spoolFile.delete() && spoolFile.exists()) {
+            log.warn("删除落盘文件失败：{}", spoolFile);
+        }
+    }
+
+    /**
+     * 处理上传的压缩文件：解压、校验、转换、打包、上传SFTP并保存批次信息
+     *
+     * @param dto      批次信息
+     * @param file     已落盘的压缩文件（条目校验、哈希计算、解压各读取一遍）
+     * @param progress 处理进度回调
+     * @return Response 包含批次信息列表或错误信息
+     */
+    private Response<List<LawCaseBatchInfoVo>> processUnstampedFile(LawCaseBatchInfoRequestDto dto, LocalMultipartFile file,
+                                                                    Consumer<UploadJobState> progress) {
+        // 0. 计算压缩包内容SHA-256，与已存储的压缩包相同时直接复用，跳过解压、转换和上传
+        String contentHash = null;
+        if (Boolean.TRUE.equals(transferConfig.getDeduplicate())) {
+            contentHash = contentHashOf(file);
+            if (contentHash != null) {
+                Response<List<LawCaseBatchInfoVo>> reused = reuseStoredArchive(dto, contentHash, outputExtension(dto));
+                if (reused != null) {
+                    return reused;
                 }
             }
+        }
+
+        if (Boolean.TRUE.equals(transferConfig.getStreamingUpload())) {
+            return uploadUnstampedFileStreaming(dto, file, progress, contentHash);
+        }
+
+        try {
 
-            if (!has起诉状 || !has委托书 || !has申请书) {
-                log.warn("缺少必需文件：起诉状={}, 委托书={}, 申请书={}", has起诉状, has委托书, has申请书);
-                return Response.fail("上传失败：压缩包必须包含'起诉状'、'委托书'、'申请书'三个文件");
+            // 1. 只读取条目头信息，检查文件数量及必需文件（不合格的压缩包无需解压）
+            progress.accept(UploadJobState.EXTRACTING);
+            String checkError = checkRequiredFiles(ArchiveExtractor.listEntries(file));
+            if (checkError != null) {
+                return Response.fail(checkError);
             }
 
-            log.info("必需文件检查通过");
+            // 2. 解析压缩文件
+            List<ArchiveExtractor.ArchiveFileInfo> extractedFiles = ArchiveExtractor.extract(file);
 
             // 4. 生成批次ID
             String batchId = dto.getBatchId();
@@ -127,55 +424,11 @@ public class LawCaseBatchInfoServiceImpl extends ServiceImpl<LawCaseBatchInfoMap
                 batchId = generateBatchId();
             }
 
-            // 5. 处理文件转换
-            List<ArchiveExtractor.ArchiveFileInfo> processedFiles = new ArrayList<>();
-            for (ArchiveExtractor.ArchiveFileInfo fileInfo : extractedFiles) {
-                String fileName = fileInfo.getName();
-                byte[] fileData = fileInfo.getData();
-
-                log.info("开始处理文件：'{}'，数据大小：{} 字节", fileName, fileData != null ? fileData.length : 0);
-
-                // 检查并转换文件格式
-                byte[] finalData = fileData;
-                String finalFileName = fileName;
-
-                if (!PdfConverter.isPdf(fileName)) {
-                    // 非 PDF 格式，检查是否需要转换
-                    if (PdfConverter.canConvertToPdf(fileName)) {
-                        // 可以转换的文件（DOCX、图片等）
-                        log.info("尝试转换文件 {} 为 PDF", fileName);
-                        byte[] pdfData = PdfConverter.convertToPdf(fileName, fileData);
-                        if (pdfData != null) {
-                            // 转换成功，使用 PDF 数据
-                            finalData = pdfData;
-                            // 修改文件扩展名为 .pdf
-                            String baseName = fileName.contains(".") ? fileName.substring(0, fileName.lastIndexOf(".")) : fileName;
-                            finalFileName = baseName + ".pdf";
-                            log.info("文件 {} 转换为 PDF 成功，原始大小：{} 字节，转换后大小：{} 字节", 
-                                    fileName, fileData.length, pdfData.length);
-                        } else {
-                            // 转换失败，保留原文件
-                            log.warn("文件 {} 转换为 PDF 失败，保留原格式", fileName);
-                            finalData = fileData;
-                            finalFileName = fileName;
-                        }
-                    } else {
-                        // 不需要转换的文件（如 TXT），保留原格式
-                        log.info("文件 {} 不需要转换，保留原格式", fileName);
-                        finalData = fileData;
-                        finalFileName = fileName;
-                    }
-                } else {
-                    log.info("文件 {} 已经是 PDF 格式，无需转换，数据大小：{} 字节", fileName, fileData.length);
-                }
-
-                // 添加到处理后的文件列表
-                ArchiveExtractor.ArchiveFileInfo processedFile = new ArchiveExtractor.ArchiveFileInfo();
-                processedFile.setName(finalFileName);
-                processedFile.setData(finalData);
-                processedFile.setSize(finalData.length);
-                processedFiles.add(processedFile);
-                log.info("文件处理完成：'{}'，最终大小：{} 字节", finalFileName, finalData.length);
+            // 5. 处理文件转换（在转换线程池中并行执行，保持原有顺序）
+            progress.accept(UploadJobState.CONVERTING);
+            List<ArchiveExtractor.ArchiveFileInfo> processedFiles = pdfConvertExecutor.convertAll(extractedFiles);
+            for (ArchiveExtractor.ArchiveFileInfo processedFile : processedFiles) {
+                log.info("文件处理完成：'{}'，最终大小：{} 字节", processedFile.getName(), processedFile.getSize());
             }
 
             if (processedFiles.isEmpty()) {
@@ -183,66 +436,456 @@ public class LawCaseBatchInfoServiceImpl extends ServiceImpl<LawCaseBatchInfoMap
                 return Response.fail("上传失败：没有成功处理任何文件");
             }
 
-            // 6. 将所有文件打包成 ZIP
-            byte[] zipData = createZipFile(processedFiles);
-            log.info("成功创建 ZIP 文件，包含 {} 个文件，大小：{} 字节", processedFiles.size(), zipData.length);
+            // 6. 将所有文件打包成 ZIP（或合并为一个带书签的 PDF）
+            boolean mergePdf = isMergePdf(dto);
+            byte[] zipData = mergePdf ? createMergedPdf(processedFiles) : createZipFile(processedFiles);
+            log.info("成功创建{}文件，包含 {} 个文件，大小：{} 字节", mergePdf ? "合并 PDF " : " ZIP ", processedFiles.size(), zipData.length);
 
             // 7. 上传 ZIP 文件到 SFTP（带重试机制）
-            SftpUtil sftpUtil = new SftpUtil(sftpConfig.getHost(), sftpConfig.getPort(), sftpConfig.getUsername(), sftpConfig.getPassword());
+            progress.accept(UploadJobState.UPLOADING);
+            SftpUtil sftpUtil = null;
             try {
-                sftpUtil.connectWithRetry(); // 使用带重试机制的连接方法
+                sftpUtil = sftpClientPool.borrow();
 
                 String sftpDirectory = sftpConfig.getSftpReceivePath();
-                String zipFileName = batchId + ".zip";
+                String zipFileName = batchId + outputExtension(dto);
 
-                log.info("准备上传 ZIP 文件到 SFTP 服务器，目录: {}, 文件名: {}", sftpDirectory, zipFileName);
+                log.info("准备上传待签章文件到 SFTP 服务器，目录: {}, 文件名: {}", sftpDirectory, zipFileName);
                 sftpUtil.uploadBytesWithRetry(sftpDirectory, zipFileName, zipData);
+                downloadFileCache.invalidate(sftpDirectory + "/" + zipFileName);
                 log.info("ZIP 文件上传成功：{}", zipFileName);
+                log.info("共处理 {} 个文件，打包成 ZIP 文件", processedFiles.size());
 
-                // 8. 创建实体对象并保存到数据库
-                LawCaseBatchInfo entity = new LawCaseBatchInfo();
-                BeanUtils.copyProperties(dto, entity);
-                entity.setBatchId(batchId);
-                entity.setCreateTime(LocalDateTime.now());
-                entity.setUpdateTime(LocalDateTime.now());
-                entity.setBatchStatus("待签章文件上传完成");
-                entity.setIsSign(1);
-                entity.setIsDelete(0);
+                // 8. 保存批次信息（含文件清单）并发送通知
+                List<FileManifestEntry> manifest = new ArrayList<>();
+                for (ArchiveExtractor.ArchiveFileInfo processedFile : processedFiles) {
+                    manifest.add(new FileManifestEntry(processedFile.getName(), processedFile.getSize()));
+                }
+                return saveUnstampedBatch(dto, batchId, sftpDirectory, zipFileName, manifest, contentHash);
 
-                // 保存上传地址
-                String uploadAddress = sftpDirectory + "/" + zipFileName;
-                entity.setUploadAddress(uploadAddress);
+            } catch (com.jcraft.jsch.JSchException e) {
+                log.error("SFTP连接失败：{}", e.getMessage(), e);
+                return Response.fail("上传失败：SFTP服务器失败，请联系管理员");
+            } finally {
+                sftpClientPool.release(sftpUtil);
+            }
 
-                // 保存到数据库
-                lawCaseBatchInfoMapper.insert(entity);
+        } catch (ArchiveLimitException e) {
+            log.warn("压缩文件超出解析限制：{}", e.getMessage());
+            return Response.fail(e.getCode(), "上传失败：" + e.getMessage());
+        } catch (Exception e) {
+            log.error("上传压缩文件失败：{}", e.getMessage(), e);
+            return Response.fail("上传失败：" + e.getMessage());
+        }
 
-                 log.info("数据库记录保存成功，批次ID：{}，SFTP路径：{}", batchId, uploadAddress);
-                log.info("共处理 {} 个文件，打包成 ZIP 文件", processedFiles.size());
+    }
+
+    /**
+     * 流式上传压缩文件
+     * 先只读取条目名称完成校验，再逐个条目解压、转换并写入 ZIP 输出流直接上传到 SFTP，
+     * 内存占用只与单个条目大小和传输缓冲区有关，与压缩包大小无关
+     *
+     * @param dto      批次信息
+     * @param file        已落盘的压缩文件
+     * @param progress    处理进度回调
+     * @param contentHash 压缩包内容SHA-256，未计算时为null
+     * @return Response 包含批次信息列表或错误信息
+     */
+    private Response<List<LawCaseBatchInfoVo>> uploadUnstampedFileStreaming(LawCaseBatchInfoRequestDto dto, LocalMultipartFile file,
+                                                                            Consumer<UploadJobState> progress, String contentHash) {
+        try {
+            // 1. 只读取压缩包条目头信息（不解压条目内容）
+            progress.accept(UploadJobState.EXTRACTING);
+            List<ArchiveExtractor.ArchiveFileInfo> entries = ArchiveExtractor.listEntries(file);
+
+            // 2. 检查文件数量及必需文件
+            String checkError = checkRequiredFiles(entries);
+            if (checkError != null) {
+                return Response.fail(checkError);
+            }
+
+            // 3. 生成批次ID
+            String batchId = dto.getBatchId();
+            if (batchId == null || batchId.isEmpty()) {
+                batchId = generateBatchId();
+            }
+
+            // 4. 边解压转换边打包，直接写入 SFTP
+            SftpUtil sftpUtil = null;
+            try {
+                sftpUtil = sftpClientPool.borrow();
+
+                String sftpDirectory = sftpConfig.getSftpReceivePath();
+                boolean mergePdf = isMergePdf(dto);
+                String zipFileName = batchId + outputExtension(dto);
+
+                log.info("准备流式上传待签章文件到 SFTP 服务器，目录: {}, 文件名: {}", sftpDirectory, zipFileName);
+                List<FileManifestEntry> manifest = new ArrayList<>();
+                long zipSize = sftpUtil.uploadStreamingWithRetry(sftpDirectory, zipFileName,
+                        out -> {
+                            // 解压、转换与写入 SFTP 同时进行，条目写完后剩余的是收尾上传和校验
+                            progress.accept(UploadJobState.CONVERTING);
+                            if (mergePdf) {
+                                writeMergedPdfStream(file, out, manifest);
+                            } else {
+                                writeZipStream(file, out, manifest);
+                            }
+                            progress.accept(UploadJobState.UPLOADING);
+                        }, transferConfig.getBufferSize());
+                downloadFileCache.invalidate(sftpDirectory + "/" + zipFileName);
+                log.info("ZIP 文件流式上传成功：{}，大小：{} 字节", zipFileName, zipSize);
+
+                // 5. 保存批次信息（含文件清单）并发送通知
+                return saveUnstampedBatch(dto, batchId, sftpDirectory, zipFileName, manifest, contentHash);
+
+            } catch (com.jcraft.jsch.JSchException e) {
+                log.error("SFTP连接失败：{}", e.getMessage(), e);
+                return Response.fail("上传失败：SFTP服务器失败，请联系管理员");
+            } finally {
+                sftpClientPool.release(sftpUtil);
+            }
+
+        } catch (ArchiveLimitException e) {
+            log.warn("压缩文件超出解析限制：{}", e.getMessage());
+            return Response.fail(e.getCode(), "上传失败：" + e.getMessage());
+        } catch (Exception e) {
+            log.error("上传压缩文件失败：{}", e.getMessage(), e);
+            return Response.fail("上传失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 逐个条目解压、转换，并以 ZIP 格式写入输出流
+     * 需要转换的条目提交到转换线程池并行处理，同时处于转换中的条目数不超过 max-in-flight，
+     * 写入 ZIP 的顺序与压缩包内顺序一致
+     *
+     * @param file     上传的压缩文件
+     * @param out      目标输出流（不会被关闭）
+     * @param manifest 写入的文件清单（重试时会先清空）
+     */
+    private void writeZipStream(MultipartFile file, java.io.OutputStream out, List<FileManifestEntry> manifest) throws Exception {
+        manifest.clear();
+        byte[] buffer = new byte[transferConfig.getBufferSize()];
+        int[] count = {0};
+        java.util.Deque<PdfConvertExecutor.PendingFile> pending = new java.util.ArrayDeque<>();
+
+        try (org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream zos =
+                     new org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream(
+                             org.apache.commons.io.output.CloseShieldOutputStream.wrap(out))) {
+            zos.setEncoding("UTF-8");
+            zos.setUseLanguageEncodingFlag(true);
+
+            ArchiveExtractor.extract(file, (name, size, in) -> {
+                if (PdfConvertExecutor.needsConversion(name)) {
+                    // 需要转换的文件（DOCX、图片等），单个条目读入内存后提交转换
+                    byte[] fileData = org.springframework.util.StreamUtils.copyToByteArray(in);
+                    pending.addLast(pdfConvertExecutor.submit(name, fileData));
+                    while (pending.size() > pdfConvertExecutor.getMaxInFlight()) {
+                        writeConvertedEntry(zos, pending.removeFirst(), manifest);
+                    }
+                } else {
+                    // PDF 及无需转换的文件：先写完排在前面的转换结果，再按缓冲区大小直接拷贝
+                    while (!pending.isEmpty()) {
+                        writeConvertedEntry(zos, pending.removeFirst(), manifest);
+                    }
+                    zos.putArchiveEntry(new org.apache.commons.compress.archivers.zip.ZipArchiveEntry(name));
+                    long written = 0;
+                    int len;
+                    while ((len = in.read(buffer)) != -1) {
+                        zos.write(buffer, 0, len);
+                        written += len;
+                    }
+                    zos.closeArchiveEntry();
+                    manifest.add(new FileManifestEntry(name, written));
+                    log.info("已添加文件到 ZIP：{}", name);
+                }
+                count[0]++;
+            });
+
+            while (!pending.isEmpty()) {
+                writeConvertedEntry(zos, pending.removeFirst(), manifest);
+            }
+            zos.finish();
+        } finally {
+            // 写入失败（重试前）时取消尚未写入的转换，避免占用转换线程
+            pdfConvertExecutor.cancelAll(pending);
+        }
+
+        log.info("ZIP 流写入完成，共 {} 个文件", count[0]);
+    }
+
+    /**
+     * 等待转换完成并写入 ZIP
+     */
+    private void writeConvertedEntry(org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream zos, PdfConvertExecutor.PendingFile pendingFile,
+                                     List<FileManifestEntry> manifest) throws java.io.IOException {
+        ArchiveExtractor.ArchiveFileInfo converted = pdfConvertExecutor.await(pendingFile);
+        writeZipEntry(zos, converted.getName(), converted.getData());
+        manifest.add(new FileManifestEntry(converted.getName(), converted.getData().length));
+    }
+
+    /**
+     * 逐个条目解压、转换，并按压缩包内顺序合并为一个 PDF 写入输出流（每个文件一个书签）
+     * 所有条目都经转换线程池处理（无需转换的 PDF 直接完成），同时在内存中的条目数不超过 max-in-flight
+     *
+     * @param file     上传的压缩文件
+     * @param out      目标输出流（不会被关闭）
+     * @param manifest 写入的文件清单（重试时会先清空）
+     */
+    private void writeMergedPdfStream(MultipartFile file, java.io.OutputStream out, List<FileManifestEntry> manifest) throws Exception {
+        manifest.clear();
+        java.util.Deque<PdfConvertExecutor.PendingFile> pending = new java.util.ArrayDeque<>();
+        PdfMerger merger = new PdfMerger(out);
+
+        int pages;
+        try {
+            ArchiveExtractor.extract(file, (name, size, in) -> {
+                // PDF 合并需要随机读取，单个条目读入内存
+                byte[] fileData = org.springframework.util.StreamUtils.copyToByteArray(in);
+                pending.addLast(pdfConvertExecutor.submit(name, fileData));
+                while (pending.size() > pdfConvertExecutor.getMaxInFlight()) {
+                    mergeConvertedEntry(merger, pending.removeFirst(), manifest);
+                }
+            });
+            while (!pending.isEmpty()) {
+                mergeConvertedEntry(merger, pending.removeFirst(), manifest);
+            }
+            pages = merger.finish();
+        } finally {
+            // 写入失败（重试前）时取消尚未合并的转换，避免占用转换线程
+            pdfConvertExecutor.cancelAll(pending);
+        }
 
-                // 发送邮件通知
-                sendUploadNotification(dto, batchId);
+        log.info("合并 PDF 写入完成，共 {} 个文件、{} 页", manifest.size(), pages);
+    }
+
+    /**
+     * 等待转换完成并追加到合并 PDF
+     */
+    private void mergeConvertedEntry(PdfMerger merger, PdfConvertExecutor.PendingFile pendingFile,
+                                     List<FileManifestEntry> manifest) throws java.io.IOException {
+        ArchiveExtractor.ArchiveFileInfo converted = pdfConvertExecutor.await(pendingFile);
+        try {
+            merger.add(converted.getName(), converted.getData());
+        } catch (com.itextpdf.text.DocumentException e) {
+            throw new java.io.IOException("合并文件 " + converted.getName() + " 失败：" + e.getMessage(), e);
+        }
+        manifest.add(new FileManifestEntry(converted.getName(), converted.getData().length));
+    }
+
+    /**
+     * 是否将批次合并为一个 PDF（请求未指定时使用配置）
+     */
+    private boolean isMergePdf(LawCaseBatchInfoRequestDto dto) {
+        if (dto.getMergePdf() != null) {
+            return dto.getMergePdf();
+        }
+        return Boolean.TRUE.equals(transferConfig.getMergePdf());
+    }
+
+    /**
+     * 是否为合并 PDF（按文件名或SFTP地址的扩展名判断）
+     */
+    private boolean isMergedPdf(String fileName) {
+        return fileName != null && fileName.toLowerCase().endsWith(".pdf");
+    }
+
+    /**
+     * 待签章文件扩展名：合并模式为 .pdf，默认为 .zip
+     */
+    private String outputExtension(LawCaseBatchInfoRequestDto dto) {
+        return isMergePdf(dto) ? ".pdf" : ".zip";
+    }
+
+    /**
+     * 写入一个 ZIP 条目
+     */
+    private void writeZipEntry(org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream zos, String fileName, byte[] data) throws java.io.IOException {
+        org.apache.commons.compress.archivers.zip.ZipArchiveEntry entry =
+            new org.apache.commons.compress.archivers.zip.ZipArchiveEntry(fileName);
+        entry.setSize(data.length);
+        zos.putArchiveEntry(entry);
+        zos.write(data);
+        zos.closeArchiveEntry();
+    }
+
+    /**
+     * 检查压缩包文件数量（必须 >= 3）及是否包含必需的文件关键字
+     *
+     * @param files 压缩包内的文件列表
+     * @return 检查失败时的错误信息，检查通过返回null
+     */
+    private String checkRequiredFiles(List<ArchiveExtractor.ArchiveFileInfo> files) {
+        if (files.size() < 3) {
+            log.warn("压缩包内文件数量不足，当前数量：{}，要求：>= 3", files.size());
+            return "上传失败：压缩包内文件数量不足（至少需要3个文件）";
+        }
+
+        log.info("压缩包解析成功，共 {} 个文件", files.size());
+
+        boolean has起诉状 = false;
+        boolean has委托书 = false;
+        boolean has申请书 = false;
+
+        log.info("开始检查提取到的文件，共 {} 个文件", files.size());
+        for (ArchiveExtractor.ArchiveFileInfo fileInfo : files) {
+            String fileName = fileInfo.getName();
+            log.info("检查文件名：'{}'", fileName);
+            log.info("  - 包含'起诉状'：{}", fileName.contains("起诉状"));
+            log.info("  - 包含'委托书'：{}", fileName.contains("委托书"));
+            log.info("  - 包含'申请书'：{}", fileName.contains("申请书"));
+
+            if (fileInfo.containsKeyword("起诉状")) {
+                has起诉状 = true;
+                log.info("找到包含'起诉状'的文件：{}", fileInfo.getName());
+            }
+            if (fileInfo.containsKeyword("委托书")) {
+                has委托书 = true;
+                log.info("找到包含'委托书'的文件：{}", fileInfo.getName());
+            }
+            if (fileInfo.containsKeyword("申请书")) {
+                has申请书 = true;
+                log.info("找到包含'申请书'的文件：{}", fileInfo.getName());
+            }
+        }
 
-                // 转换为VO并返回
-                LawCaseBatchInfoVo vo = convertToVo(entity);
-                List<LawCaseBatchInfoVo> result = new ArrayList<>();
-                result.add(vo);
+        if (!has起诉状 || !has委托书 || !has申请书) {
+            log.warn("缺少必需文件：起诉状={}, 委托书={}, 申请书={}", has起诉状, has委托书, has申请书);
+            return "上传失败：压缩包必须包含'起诉状'、'委托书'、'申请书'三个文件";
+        }
+
+        log.info("必需文件检查通过");
+        return null;
+    }
+
+    /**
+     * 保存待签章批次信息并发送邮件通知
+     *
+     * @param dto           批次信息
+     * @param batchId       批次ID
+     * @param sftpDirectory SFTP上传目录
+     * @param zipFileName   上传的文件名
+     * @param manifest      压缩包文件清单，未知时为null
+     * @param contentHash   上传压缩包内容SHA-256，未计算时为null
+     * @return Response 包含批次信息列表
+     */
+    private Response<List<LawCaseBatchInfoVo>> saveUnstampedBatch(LawCaseBatchInfoRequestDto dto, String batchId, String sftpDirectory, String zipFileName,
+                                                                  List<FileManifestEntry> manifest, String contentHash) {
+        // 创建实体对象并保存到数据库
+        LawCaseBatchInfo entity = new LawCaseBatchInfo();
+        BeanUtils.copyProperties(dto, entity);
+        entity.setBatchId(batchId);
+        entity.setCreateTime(LocalDateTime.now());
+        entity.setUpdateTime(LocalDateTime.now());
+        entity.setBatchStatus("待签章文件上传完成");
+        entity.setIsSign(1);
+        entity.setIsDelete(0);
+
+        // 保存上传地址
+        String uploadAddress = sftpDirectory + "/" + zipFileName;
+        entity.setUploadAddress(uploadAddress);
+
+        // 保存文件清单，上传签章文件时据此校验，无需再从SFTP下载待签章文件
+        entity.setFileManifest(manifest != null ? com.alibaba.fastjson.JSON.toJSONString(manifest) : null);
+
+        // 保存内容哈希，之后相同内容的上传可直接复用该压缩包
+        entity.setContentHash(contentHash);
+
+        // 保存到数据库
+        lawCaseBatchInfoMapper.insert(entity);
+
+        log.info("数据库记录保存成功，批次ID：{}，SFTP路径：{}", batchId, uploadAddress);
+
+        // 发送邮件通知
+        sendUploadNotification(dto, batchId);
+
+        // 转换为VO并返回
+        LawCaseBatchInfoVo vo = convertToVo(entity);
+        List<LawCaseBatchInfoVo> result = new ArrayList<>();
+        result.add(vo);
+
+        return Response.success(result);
+    }
+
+    /**
+     * 计算上传压缩包内容的SHA-256
+     * 分片上传在接收分片时已累加计算，直接使用；其他文件读取一遍（上传请求体已由容器落盘）
+     *
+     * @param file 上传的压缩文件
+     * @return SHA-256（十六进制小写），读取失败时返回null
+     */
+    private String contentHashOf(MultipartFile file) {
+        if (file instanceof LocalMultipartFile && ((LocalMultipartFile) file).getContentHash() != null) {
+            return ((LocalMultipartFile) file).getContentHash();
+        }
+        try (InputStream in = file.getInputStream()) {
+            return FileUtil.sha256Hex(in);
+        } catch (java.io.IOException e) {
+            log.warn("计算上传文件SHA-256失败，不进行重复上传识别：{}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 复用内容相同的已存储压缩包
+     * 在接收目录为新批次创建指向原 ZIP 的硬链接（下游看到的仍是独立的 批次ID.zip，撤销任一批次互不影响），
+     * 文件清单沿用原批次；只复用与本次输出格式（ZIP 或合并 PDF）相同的文件
+     *
+     * @param dto         批次信息
+     * @param contentHash 上传压缩包内容SHA-256
+     * @param extension   本次输出文件扩展名（.zip 或 .pdf）
+     * @return 复用成功时返回保存结果；没有可复用的压缩包或服务器不支持硬链接时返回null，按正常流程处理
+     */
+    private Response<List<LawCaseBatchInfoVo>> reuseStoredArchive(LawCaseBatchInfoRequestDto dto, String contentHash, String extension) {
+        List<LawCaseBatchInfo> candidates = lawCaseBatchInfoMapper.selectList(new com.baomidou.mybatisplus.core.conditions.query.QueryWrapper<LawCaseBatchInfo>()
+                .eq("content_hash", contentHash).eq("is_delete", 0).isNotNull("upload_address").orderByDesc("id").last("limit 3"));
+        if (candidates.isEmpty()) {
+            return null;
+        }
+
+        String batchId = dto.getBatchId();
+        if (batchId == null || batchId.isEmpty()) {
+            batchId = generateBatchId();
+        }
+        String sftpDirectory = sftpConfig.getSftpReceivePath();
+        String zipFileName = batchId + extension;
+
+        SftpUtil sftpUtil = null;
+        try {
+            sftpUtil = sftpClientPool.borrow();
+            for (LawCaseBatchInfo stored : candidates) {
+                String address = stored.getUploadAddress();
+                String storedDirectory = address.substring(0, address.lastIndexOf("/"));
+                String storedFileName = address.substring(address.lastIndexOf("/") + 1);
+                if (!storedFileName.toLowerCase().endsWith(extension)) {
+                    continue;
+                }
+                if (sftpUtil.stat(storedDirectory, storedFileName) == null) {
+                    log.info("内容相同的批次 {} 的压缩包已不存在：{}", stored.getBatchId(), address);
+                    continue;
+                }
 
-                return Response.success(result);
+                try {
+                    sftpUtil.hardlink(storedDirectory, storedFileName, sftpDirectory, zipFileName);
+                } catch (Exception e) {
+                    log.warn("复用批次 {} 的压缩包失败，按正常流程处理：{}", stored.getBatchId(), e.getMessage());
+                    return null;
+                }
+                downloadFileCache.invalidate(sftpDirectory + "/" + zipFileName);
+                log.info("重复上传：批次 {} 与批次 {} 内容相同（SHA-256：{}），已复用压缩包 {}", batchId, stored.getBatchId(), contentHash, address);
 
-            } catch (com.jcraft.jsch.JSchException e) {
-                log.error("SFTP连接失败：{}", e.getMessage(), e);
-                return Response.fail("上传失败：SFTP服务器失败，请联系管理员");
-            } finally {
-                if (sftpUtil != null) {
-                    sftpUtil.disconnect();
+                List<FileManifestEntry> manifest = null;
+                if (stored.getFileManifest() != null && !stored.getFileManifest().isEmpty()) {
+                    manifest = com.alibaba.fastjson.JSON.parseArray(stored.getFileManifest(), FileManifestEntry.class);
                 }
+                return saveUnstampedBatch(dto, batchId, sftpDirectory, zipFileName, manifest, contentHash);
             }
-
         } catch (Exception e) {
-            log.error("上传压缩文件失败：{}", e.getMessage(), e);
-            return Response.fail("上传失败：" + e.getMessage());
+            log.warn("查找可复用的压缩包失败，按正常流程处理：{}", e.getMessage());
+        } finally {
+            sftpClientPool.release(sftpUtil);
         }
-
+        return null;
     }
 
     /**
@@ -282,6 +925,23 @@ public class LawCaseBatchInfoServiceImpl extends ServiceImpl<LawCaseBatchInfoMap
         }
     }
 
+    /**
+     * 将文件按顺序合并为一个 PDF（在内存中，每个文件一个书签）
+     *
+     * @param files 文件列表
+     * @return 合并后 PDF 的字节数组
+     */
+    private byte[] createMergedPdf(List<ArchiveExtractor.ArchiveFileInfo> files) throws java.io.IOException, com.itextpdf.text.DocumentException {
+        java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
+        PdfMerger merger = new PdfMerger(baos);
+        for (ArchiveExtractor.ArchiveFileInfo file : files) {
+            merger.add(file.getName(), file.getData());
+        }
+        merger.finish();
+        log.info("合并 PDF 创建完成，总大小：{} 字节", baos.size());
+        return baos.toByteArray();
+    }
+
     /**
      * 生成批次ID
      *
@@ -395,7 +1055,7 @@ public class LawCaseBatchInfoServiceImpl extends ServiceImpl<LawCaseBatchInfoMap
      * @return 批次信息列表
      */
     @Override
-    public Response<List<LawCaseBatchInfoVo>> uploadSealFile(LawCaseBatchInfoRequestDto dto, MultipartFile file) {
+    public Response<?> uploadSealFile(LawCaseBatchInfoRequestDto dto, MultipartFile file) {
         log.info("开始上传签章文件，批次ID：{}，文件名：{}", dto.getBatchId(), file.getOriginalFilename());
 
         // 验证批次ID
@@ -411,6 +1071,7 @@ public class LawCaseBatchInfoServiceImpl extends ServiceImpl<LawCaseBatchInfoMap
         }
 
         SftpUtil sftpUtil = null;
+        LocalMultipartFile localFile = null;
         try {
             // 从数据库查询批次信息（根据batch_id查询）
             LawCaseBatchInfo entity = lawCaseBatchInfoMapper.selectOne(new com.baomidou.mybatisplus.core.conditions.query.QueryWrapper<LawCaseBatchInfo>().eq("batch_id", dto.getBatchId()).eq("is_delete", 0));
@@ -425,22 +1086,8 @@ public class LawCaseBatchInfoServiceImpl extends ServiceImpl<LawCaseBatchInfoMap
                 return Response.fail("上传失败：该批次已完成签章，不能重复上传");
             }
 
-            // 连接SFTP服务器
-            sftpUtil = new SftpUtil(sftpConfig.getHost(), sftpConfig.getPort(), sftpConfig.getUsername(), sftpConfig.getPassword());
-            sftpUtil.connectWithRetry(); // 使用带重试机制的连接方法
-
-            // 步骤1: 先将上传文件读取到内存中（避免临时文件被删除后无法读取）
-            byte[] fileData;
-            try {
-                fileData = file.getBytes();
-                log.info("上传文件读取成功，大小：{} 字节", fileData.length);
-            } catch (java.io.IOException e) {
-                log.error("读取上传文件失败：{}", e.getMessage(), e);
-                return Response.fail("上传失败：读取上传文件失败");
-            }
-
-            // 步骤2: 获取待签章文件列表
-            List<String> unstampedFileNames = getUnstampedFileNames(sftpUtil, entity);
+            // 步骤1: 获取待签章文件列表（优先使用上传时保存的文件清单）
+            List<String> unstampedFileNames = getUnstampedFileNames(entity);
             if (unstampedFileNames == null || unstampedFileNames.isEmpty()) {
                 log.error("无法获取待签章文件列表，批次ID：{}", dto.getBatchId());
                 return Response.fail("上传失败：无法获取待签章文件列表");
@@ -448,39 +1095,72 @@ public class LawCaseBatchInfoServiceImpl extends ServiceImpl<LawCaseBatchInfoMap
 
             log.info("待签章文件列表（共{}个）：{}", unstampedFileNames.size(), unstampedFileNames);
 
-            // 步骤3: 解析上传的签章文件，获取文件列表（使用内存中的字节数组）
-            List<String> sealedFileNames = getZipFileNames(fileData);
-            if (sealedFileNames == null || sealedFileNames.isEmpty()) {
+            // 读取条目和上传（含续传重读）需要多次读取上传文件，先落盘一次，之后都读取落盘文件
+            try {
+                localFile = spoolUpload(file);
+            } catch (Exception e) {
+                log.error("签章文件落盘失败：{}", e.getMessage(), e);
+                return Response.fail("上传失败：" + e.getMessage());
+            }
+
+            // 步骤2: 只读取签章文件的条目头信息（ZIP 中央目录），获取文件列表；合并 PDF 批次读取书签（每个文件一个书签）
+            List<String> sealedFileNames = new ArrayList<>();
+            try {
+                if (isMergedPdf(entity.getUploadAddress()) && isMergedPdf(localFile.getOriginalFilename())) {
+                    try (InputStream in = localFile.getInputStream()) {
+                        sealedFileNames.addAll(PdfMerger.readBookmarkTitles(in));
+                    }
+                } else {
+                    for (ArchiveExtractor.ArchiveFileInfo fileInfo : ArchiveExtractor.listEntries(localFile)) {
+                        sealedFileNames.add(fileInfo.getName());
+                    }
+                }
+            } catch (ArchiveLimitException e) {
+                throw e;
+            } catch (Exception e) {
+                log.error("解析签章文件失败，批次ID：{}，错误：{}", dto.getBatchId(), e.getMessage());
+            }
+            if (sealedFileNames.isEmpty()) {
                 log.error("无法解析签章文件，批次ID：{}", dto.getBatchId());
                 return Response.fail("上传失败：无法解析签章文件，请确保上传的是有效的ZIP压缩包");
             }
 
             log.info("签章文件列表（共{}个）：{}", sealedFileNames.size(), sealedFileNames);
 
-            // 步骤3: 验证签章文件必须包含所有待签章文件
-            List<String> missingFiles = validateFileNames(unstampedFileNames, sealedFileNames);
-            if (!missingFiles.isEmpty()) {
-                log.warn("签章文件缺少必需文件：{}", missingFiles);
-                // 提取文件名（去掉路径和扩展名）用于显示
+            // 步骤3: 验证签章文件必须包含所有待签章文件，差异报告随失败结果一并返回
+            SealFileDiffVo diff = validateFileNames(unstampedFileNames, sealedFileNames);
+            boolean rejectDuplicate = diff.hasDuplicate() && Boolean.TRUE.equals(transferConfig.getRejectDuplicateSealFiles());
+            if (diff.hasMissing() || rejectDuplicate) {
+                log.warn("签章文件校验失败，缺少：{}，同名：{}，多出：{}", diff.getMissing(), diff.getDuplicate(), diff.getExtra());
                 List<String> displayNames = new ArrayList<>();
-                for (String fileName : missingFiles) {
-                    String name = fileName.substring(fileName.lastIndexOf("/") + 1);
-                    String baseName = name.contains(".") ? name.substring(0, name.lastIndexOf(".")) : name;
-                    displayNames.add(baseName);
+                for (String fileName : diff.getMissing()) {
+                    displayNames.add(getBaseName(fileName));
                 }
-                String errorMsg = "上传失败：签章文件缺少";
-                return Response.fail(errorMsg);
+                String errorMsg = diff.getMissing().isEmpty()
+                        ? "上传失败：签章文件存在同名文件：" + String.join("、", diff.getDuplicate())
+                        : "上传失败：签章文件缺少：" + String.join("、", displayNames);
+                return Response.fail(5001, "SEAL_FILE_MISMATCH", errorMsg, diff);
+            }
+            if (!diff.getExtra().isEmpty()) {
+                log.info("签章文件包含待签章文件以外的文件：{}", diff.getExtra());
+            }
+            if (diff.hasDuplicate()) {
+                log.info("签章文件存在去除扩展名后同名的文件：{}", diff.getDuplicate());
             }
 
             log.info("文件验证通过，签章文件包含所有待签章文件");
 
-            // 步骤4: 上传签章文件（带重试机制，使用内存中的字节数组）
-            String originalFilename = file.getOriginalFilename();
+            // 从连接池获取SFTP连接
+            sftpUtil = sftpClientPool.borrow();
+
+            // 步骤4: 上传签章文件（带重试机制，失败后从远程已写入的位置续传，从落盘文件重新读取）
+            String originalFilename = localFile.getOriginalFilename();
             String extension = FileUtil.getExtension(originalFilename);
             String fileName = dto.getBatchId() + (extension.isEmpty() ? "" : "." + extension);
 
             try {
-                sftpUtil.uploadBytesWithRetry(sftpConfig.getSftpReturnPath(), fileName, fileData);
+                sftpUtil.uploadWithResume(sftpConfig.getSftpReturnPath(), fileName, localFile, localFile.getSize());
+                downloadFileCache.invalidate(sftpConfig.getSftpReturnPath() + "/" + fileName);
                 log.info("签章文件上传成功：{}", fileName);
             } catch (Exception e) {
                 log.error("上传签章文件失败：{}", e.getMessage(), e);
@@ -506,19 +1186,46 @@ public class LawCaseBatchInfoServiceImpl extends ServiceImpl<LawCaseBatchInfoMap
         } catch (com.jcraft.jsch.JSchException e) {
             log.error("SFTP连接失败：{}", e.getMessage(), e);
             return Response.fail("上传失败：SFTP服务器连接失败，请联系管理员");
+        } catch (ArchiveLimitException e) {
+            log.warn("签章文件超出解析限制：{}", e.getMessage());
+            return Response.fail(e.getCode(), "上传失败：" + e.getMessage());
         } catch (Exception e) {
             throw new RuntimeException(e);
         } finally {
-            if (sftpUtil != null) {
-                sftpUtil.disconnect();
+            sftpClientPool.release(sftpUtil);
+            if (localFile != null) {
+                deleteSpoolFile(file, localFile);
+            }
+        }
+    }
+
+    /**
+     * 获取待签章文件的文件名列表
+     * 优先使用上传时保存的文件清单，清单为空的历史批次从SFTP下载待签章文件读取
+     */
+    private List<String> getUnstampedFileNames(LawCaseBatchInfo entity) throws Exception {
+        String fileManifest = entity.getFileManifest();
+        if (fileManifest != null && !fileManifest.isEmpty()) {
+            List<String> fileNames = new ArrayList<>();
+            for (FileManifestEntry entry : com.alibaba.fastjson.JSON.parseArray(fileManifest, FileManifestEntry.class)) {
+                fileNames.add(entry.getName());
             }
+            return fileNames;
+        }
+
+        log.info("批次 {} 没有文件清单，从SFTP读取待签章文件", entity.getBatchId());
+        SftpUtil sftpUtil = sftpClientPool.borrow();
+        try {
+            return downloadUnstampedFileNames(sftpUtil, entity);
+        } finally {
+            sftpClientPool.release(sftpUtil);
         }
     }
 
     /**
      * 从SFTP获取待签章文件的文件名列表
      */
-    private List<String> getUnstampedFileNames(SftpUtil sftpUtil, LawCaseBatchInfo entity) throws Exception {
+    private List<String> downloadUnstampedFileNames(SftpUtil sftpUtil, LawCaseBatchInfo entity) throws Exception {
         String uploadAddress = entity.getUploadAddress();
         if (uploadAddress == null || uploadAddress.isEmpty()) {
             log.warn("待签章文件地址为空，批次ID：{}", entity.getBatchId());
@@ -548,8 +1255,13 @@ public class LawCaseBatchInfoServiceImpl extends ServiceImpl<LawCaseBatchInfoMap
             baos.close();
             inputStream.close();
 
-            // 解析ZIP文件，获取文件名列表
+            // 合并 PDF 批次从书签读取文件名列表
             byte[] zipData = baos.toByteArray();
+            if (isMergedPdf(fileName)) {
+                return PdfMerger.readBookmarkTitles(new java.io.ByteArrayInputStream(zipData));
+            }
+
+            // 解析ZIP文件，获取文件名列表
             java.io.ByteArrayInputStream bais = new java.io.ByteArrayInputStream(zipData);
             java.util.zip.ZipInputStream zis = new java.util.zip.ZipInputStream(bais);
 
@@ -570,54 +1282,51 @@ public class LawCaseBatchInfoServiceImpl extends ServiceImpl<LawCaseBatchInfoMap
         }
     }
 
-    /**
-     * 从上传的ZIP文件字节数组中获取文件名列表
-     */
-    private List<String> getZipFileNames(byte[] fileData) throws Exception {
-        List<String> fileNames = new ArrayList<>();
-        
-        // 使用ArchiveExtractor解析ZIP文件，支持中文文件名
-        List<ArchiveExtractor.ArchiveFileInfo> extractedFiles = ArchiveExtractor.extract(fileData);
-        
-        if (extractedFiles != null) {
-            for (ArchiveExtractor.ArchiveFileInfo fileInfo : extractedFiles) {
-                fileNames.add(fileInfo.getName());
-            }
-        }
-        
-        return fileNames;
-    }
-
     /**
      * 验证签章文件是否包含所有待签章文件
-     * 签章文件可以比待签章文件多，但不能少
+     * 签章文件可以比待签章文件多，但不能少；按去除路径和扩展名后的文件名比较，
+     * 先将签章文件名建立索引，整体为线性时间
+     *
+     * @param unstampedFiles 待签章文件名列表
+     * @param sealedFiles    签章文件名列表
+     * @return 差异报告（缺少、多出、同名文件）
      */
-    private List<String> validateFileNames(List<String> unstampedFiles, List<String> sealedFiles) {
-        List<String> missingFiles = new ArrayList<>();
+    private SealFileDiffVo validateFileNames(List<String> unstampedFiles, List<String> sealedFiles) {
+        SealFileDiffVo diff = new SealFileDiffVo();
+
+        // 签章文件：文件名（去除扩展名） -> 原始文件名列表
+        java.util.Map<String, List<String>> sealedByBase = new java.util.LinkedHashMap<>();
+        for (String sealedFile : sealedFiles) {
+            sealedByBase.computeIfAbsent(getBaseName(sealedFile), k -> new ArrayList<>()).add(sealedFile);
+        }
 
+        java.util.Set<String> unstampedBases = new java.util.HashSet<>();
         for (String unstampedFile : unstampedFiles) {
-            boolean found = false;
-            for (String sealedFile : sealedFiles) {
-                // 去除路径，只比较文件名
-                String unstampedName = unstampedFile.substring(unstampedFile.lastIndexOf("/") + 1);
-                String sealedName = sealedFile.substring(sealedFile.lastIndexOf("/") + 1);
-
-                // 去除扩展名进行比较
-                String unstampedBase = unstampedName.contains(".") ? unstampedName.substring(0, unstampedName.lastIndexOf(".")) : unstampedName;
-                String sealedBase = sealedName.contains(".") ? sealedName.substring(0, sealedFile.lastIndexOf(".")) : sealedFile;
-
-                if (unstampedBase.equals(sealedBase)) {
-                    found = true;
-                    break;
-                }
+            String unstampedBase = getBaseName(unstampedFile);
+            unstampedBases.add(unstampedBase);
+            if (!sealedByBase.containsKey(unstampedBase)) {
+                diff.getMissing().add(unstampedFile);
             }
+        }
 
-            if (!found) {
-                missingFiles.add(unstampedFile);
+        for (java.util.Map.Entry<String, List<String>> entry : sealedByBase.entrySet()) {
+            if (entry.getValue().size() > 1) {
+                diff.getDuplicate().addAll(entry.getValue());
+            }
+            if (!unstampedBases.contains(entry.getKey())) {
+                diff.getExtra().addAll(entry.getValue());
             }
         }
 
-        return missingFiles;
+        return diff;
+    }
+
+    /**
+     * 去除路径和扩展名后的文件名
+     */
+    private static String getBaseName(String fileName) {
+        String name = fileName.substring(fileName.lastIndexOf("/") + 1);
+        return name.contains(".") ? name.substring(0, name.lastIndexOf(".")) : name;
     }
 
     /**
@@ -700,8 +1409,7 @@ public class LawCaseBatchInfoServiceImpl extends ServiceImpl<LawCaseBatchInfoMap
             // 删除远程签章文件
             String uploadAddressOver = entity.getUploadAddressOver();
             if (uploadAddressOver != null && !uploadAddressOver.isEmpty()) {
-                sftpUtil = new SftpUtil(sftpConfig.getHost(), sftpConfig.getPort(), sftpConfig.getUsername(), sftpConfig.getPassword());
-                sftpUtil.connect();
+                sftpUtil = sftpClientPool.borrow();
 
                 // 提取文件名
                 String fileName = uploadAddressOver.substring(uploadAddressOver.lastIndexOf("/") + 1);
@@ -711,6 +1419,7 @@ public class LawCaseBatchInfoServiceImpl extends ServiceImpl<LawCaseBatchInfoMap
 
                 // 删除文件
                 sftpUtil.delete(directory, fileName);
+                downloadFileCache.invalidate(directory + "/" + fileName);
                 log.info("远程签章文件删除成功，批次ID：{}", dto.getBatchId());
             }
 
@@ -732,9 +1441,7 @@ public class LawCaseBatchInfoServiceImpl extends ServiceImpl<LawCaseBatchInfoMap
             log.error("撤销签章文件失败，批次ID：{}，错误：{}", dto.getBatchId(), e.getMessage(), e);
             return Response.fail("撤销失败：" + e.getMessage());
         } finally {
-            if (sftpUtil != null) {
-                sftpUtil.disconnect();
-            }
+            sftpClientPool.release(sftpUtil);
         }
     }
 
@@ -742,10 +1449,10 @@ public class LawCaseBatchInfoServiceImpl extends ServiceImpl<LawCaseBatchInfoMap
      * 下载未签章文件
      *
      * @param dto 批次信息（必须包含batchId）
-     * @return ResponseEntity 包含二进制文件数据
+     * @return ResponseEntity 以流的方式输出文件数据
      */
     @Override
-    public ResponseEntity<byte[]> downloadUnstampedFile(LawCaseBatchInfoRequestDto dto) {
+    public ResponseEntity<StreamingResponseBody> downloadUnstampedFile(LawCaseBatchInfoRequestDto dto) {
         log.info("开始下载未签章文件，批次ID：{}", dto.getBatchId());
 
         // 验证批次ID
@@ -768,60 +1475,154 @@ public class LawCaseBatchInfoServiceImpl extends ServiceImpl<LawCaseBatchInfoMap
             return buildErrorResponse(404, "下载失败：文件地址为空");
         }
 
-        // 获取文件下载结果
-        FileDownloadResult result;
+        // 从SFTP流式输出文件，receive-path 为未签章文件目录
+        return streamRemoteFile(dto, entity, sftpConfig.getSftpReceivePath(), entity.getUploadAddress());
+    }
+
+    /**
+     * 构建错误响应
+     *
+     * @param statusCode HTTP状态码
+     * @param message    错误消息
+     * @return ResponseEntity
+     */
+    private ResponseEntity<StreamingResponseBody> buildErrorResponse(int statusCode, String message) {
+        byte[] errorBytes = message.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        return ResponseEntity.status(statusCode).header("Content-Type", "text/plain; charset=UTF-8").body(out -> out.write(errorBytes));
+    }
+
+    /**
+     * 将SFTP上的文件以流的方式直接写入响应
+     * 文件大小通过 stat 获取并作为 Content-Length 返回，SFTP 连接在响应写完后归还连接池；
+     * 同时流式输出的下载数受 sign.transfer.download-max-streams 限制，缓存命中时不占用连接
+     *
+     * @param dto           批次信息
+     * @param entity        批次实体
+     * @param directory     SFTP目录
+     * @param remoteAddress 数据库中保存的文件地址
+     * @return ResponseEntity 以流的方式输出文件数据
+     */
+    private ResponseEntity<StreamingResponseBody> streamRemoteFile(LawCaseBatchInfoRequestDto dto, LawCaseBatchInfo entity, String directory, String remoteAddress) {
+        String fileOnSftp = remoteAddress.substring(remoteAddress.lastIndexOf("/") + 1);
+        log.info("从SFTP服务器下载文件，目录: {}, 文件名: {}", directory, fileOnSftp);
+
+        SftpUtil sftpUtil = null;
         try {
-            result = downloadUnstampedFileBytes(dto);
+            sftpUtil = sftpClientPool.borrow();
+
+            com.jcraft.jsch.SftpATTRS attrs = sftpUtil.stat(directory, fileOnSftp);
+            if (attrs == null) {
+                log.warn("文件不存在，批次ID：{}，路径：{}/{}", dto.getBatchId(), directory, fileOnSftp);
+                sftpClientPool.release(sftpUtil);
+                return buildErrorResponse(404, "下载失败：文件不存在或无法访问");
+            }
+
+            // 更新下载信息
+            entity.setDownloadCount((entity.getDownloadCount() == null ? 0 : entity.getDownloadCount()) + 1);
+            entity.setDownloadName(dto.getDownloadName());
+            lawCaseBatchInfoMapper.updateById(entity);
+
+            // 本地缓存命中（远程路径、修改时间、大小均一致），直接从本地文件输出
+            String remotePath = directory + "/" + fileOnSftp;
+            // 在请求线程中打开缓存文件，响应写出前该条目被淘汰或失效也不影响本次输出
+            java.nio.channels.FileChannel cachedFile = downloadFileCache.open(remotePath, attrs.getMTime(), attrs.getSize());
+            if (cachedFile != null) {
+                sftpClientPool.release(sftpUtil);
+                StreamingResponseBody body = out -> {
+                    long size = downloadFileCache.transferTo(cachedFile, out);
+                    log.info("文件下载完成（本地缓存），批次ID：{}，大小：{} 字节", dto.getBatchId(), size);
+                };
+                return ResponseEntity.ok().headers(buildDownloadHeaders(entity, fileOnSftp, attrs.getSize())).body(body);
+            }
+
+            // 流式输出期间一直占用该连接，超过下载并发上限时直接拒绝，避免下载占满连接池
+            if (!downloadPermits.tryAcquire()) {
+                log.warn("流式下载数已达上限，批次ID：{}", dto.getBatchId());
+                sftpClientPool.release(sftpUtil);
+                return buildErrorResponse(503, "下载失败：当前下载人数过多，请稍后重试");
+            }
+
+            final SftpUtil client = sftpUtil;
+            final int bufferSize = transferConfig.getDownloadBufferSize();
+            StreamingResponseBody body = out -> {
+                long start = System.currentTimeMillis();
+                // 边下载边写入缓存临时文件
+                java.nio.file.Path tempFile = downloadFileCache.isCacheable(attrs.getSize()) ? downloadFileCache.createTempFile() : null;
+                boolean completed = false;
+                try (InputStream in = client.openInputStream(directory, fileOnSftp);
+                     java.io.OutputStream cacheOut = tempFile != null ? java.nio.file.Files.newOutputStream(tempFile) : null) {
+                    byte[] buffer = new byte[bufferSize];
+                    int len;
+                    while ((len = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, len);
+                        if (cacheOut != null) {
+                            cacheOut.write(buffer, 0, len);
+                        }
+                    }
+                    out.flush();
+                    completed = true;
+                    log.info("文件下载完成，批次ID：{}，大小：{} 字节，耗时：{} ms", dto.getBatchId(), attrs.getSize(), System.currentTimeMillis() - start);
+                } catch (java.io.IOException e) {
+                    log.error("文件下载中断，批次ID：{}，错误：{}", dto.getBatchId(), e.getMessage());
+                    throw e;
+                } catch (Exception e) {
+                    log.error("读取SFTP文件失败，批次ID：{}，错误：{}", dto.getBatchId(), e.getMessage(), e);
+                    throw new java.io.IOException("读取SFTP文件失败：" + e.getMessage(), e);
+                } finally {
+                    sftpClientPool.release(client);
+                    downloadPermits.release();
+                    if (tempFile != null) {
+                        if (completed) {
+                            downloadFileCache.put(remotePath, attrs.getMTime(), attrs.getSize(), tempFile);
+                        } else {
+                            downloadFileCache.discard(tempFile);
+                        }
+                    }
+                }
+            };
+
+            return ResponseEntity.ok().headers(buildDownloadHeaders(entity, fileOnSftp, attrs.getSize())).body(body);
         } catch (Exception e) {
             log.error("下载失败，批次ID：{}，错误：{}", dto.getBatchId(), e.getMessage(), e);
+            sftpClientPool.release(sftpUtil);
             return buildErrorResponse(500, "下载失败：" + e.getMessage());
         }
+    }
 
-        if (result == null || result.getBytes() == null) {
-            log.warn("下载失败，批次ID：{}", dto.getBatchId());
-            return buildErrorResponse(404, "下载失败：文件不存在或无法访问");
-        }
-
-        // 构建文件名：batchName为空则使用batchId
+    /**
+     * 构建下载响应头
+     *
+     * @param entity        批次实体（文件名：batchName为空则使用batchId）
+     * @param fileOnSftp    SFTP上的文件名（决定下载文件扩展名，合并 PDF 批次为 .pdf）
+     * @param contentLength 文件大小
+     * @return 响应头
+     */
+    private org.springframework.http.HttpHeaders buildDownloadHeaders(LawCaseBatchInfo entity, String fileOnSftp, long contentLength) {
         String baseFileName = (entity.getBatchName() != null && !entity.getBatchName().isEmpty()) ? entity.getBatchName() : entity.getBatchId();
-        String fileName = baseFileName + ".zip";
+        String fileName = baseFileName + (isMergedPdf(fileOnSftp) ? ".pdf" : ".zip");
         String encodedFileName;
         try {
             encodedFileName = java.net.URLEncoder.encode(fileName, java.nio.charset.StandardCharsets.UTF_8.toString()).replaceAll("\\+", "%20");
         } catch (java.io.UnsupportedEncodingException e) {
-            log.error("文件名编码失败，批次ID：{}，错误：{}", dto.getBatchId(), e.getMessage(), e);
+            log.error("文件名编码失败，批次ID：{}，错误：{}", entity.getBatchId(), e.getMessage(), e);
             encodedFileName = fileName;
         }
 
-        // 设置响应头
         org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
         headers.setContentType(org.springframework.http.MediaType.APPLICATION_OCTET_STREAM);
         headers.setContentDispositionFormData("attachment", encodedFileName);
-        headers.setContentLength(result.getBytes().length);
-
-        return ResponseEntity.ok().headers(headers).body(result.getBytes());
-    }
-
-    /**
-     * 构建错误响应
-     *
-     * @param statusCode HTTP状态码
-     * @param message    错误消息
-     * @return ResponseEntity
-     */
-    private ResponseEntity<byte[]> buildErrorResponse(int statusCode, String message) {
-        byte[] errorBytes = message.getBytes(java.nio.charset.StandardCharsets.UTF_8);
-        return ResponseEntity.status(statusCode).header("Content-Type", "text/plain; charset=UTF-8").body(errorBytes);
+        headers.setContentLength(contentLength);
+        return headers;
     }
 
     /**
      * 下载签章文件
      *
      * @param dto 批次信息（必须包含batchId）
-     * @return ResponseEntity 包含二进制文件数据
+     * @return ResponseEntity 以流的方式输出文件数据
      */
     @Override
-    public ResponseEntity<byte[]> downloadSealFile(LawCaseBatchInfoRequestDto dto) {
+    public ResponseEntity<StreamingResponseBody> downloadSealFile(LawCaseBatchInfoRequestDto dto) {
         log.info("开始下载签章文件，批次ID：{}", dto.getBatchId());
 
         // 验证批次ID
@@ -850,38 +1651,8 @@ public class LawCaseBatchInfoServiceImpl extends ServiceImpl<LawCaseBatchInfoMap
             return buildErrorResponse(404, "下载失败：签章文件地址为空");
         }
 
-        // 获取文件下载结果
-        FileDownloadResult result;
-        try {
-            result = downloadSealFileBytes(dto);
-        } catch (Exception e) {
-            log.error("下载失败，批次ID：{}，错误：{}", dto.getBatchId(), e.getMessage(), e);
-            return buildErrorResponse(500, "下载失败：" + e.getMessage());
-        }
-
-        if (result == null || result.getBytes() == null) {
-            log.warn("下载失败，批次ID：{}", dto.getBatchId());
-            return buildErrorResponse(404, "下载失败：文件不存在或无法访问");
-        }
-
-        // 构建文件名：batchName为空则使用batchId
-        String baseFileName = (entity.getBatchName() != null && !entity.getBatchName().isEmpty()) ? entity.getBatchName() : entity.getBatchId();
-        String fileName = baseFileName + ".zip";
-        String encodedFileName;
-        try {
-            encodedFileName = java.net.URLEncoder.encode(fileName, java.nio.charset.StandardCharsets.UTF_8.toString()).replaceAll("\\+", "%20");
-        } catch (java.io.UnsupportedEncodingException e) {
-            log.error("文件名编码失败，批次ID：{}，错误：{}", dto.getBatchId(), e.getMessage(), e);
-            encodedFileName = fileName;
-        }
-
-        // 设置响应头
-        org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
-        headers.setContentType(org.springframework.http.MediaType.APPLICATION_OCTET_STREAM);
-        headers.setContentDispositionFormData("attachment", encodedFileName);
-        headers.setContentLength(result.getBytes().length);
-
-        return ResponseEntity.ok().headers(headers).body(result.getBytes());
+        // 从SFTP流式输出文件，return-path 为签章文件目录
+        return streamRemoteFile(dto, entity, sftpConfig.getSftpReturnPath(), entity.getUploadAddressOver());
     }
 
     /**
@@ -908,191 +1679,4 @@ public class LawCaseBatchInfoServiceImpl extends ServiceImpl<LawCaseBatchInfoMap
     public List<LawCaseBatchInfoStateVo> getState(LawCaseBatchInfoRequestDto dto) {
         return lawCaseBatchInfoMapper.getState(dto);
     }
-
-    /**
-     * 下载未签章文件（返回字节数组）
-     *
-     * @param dto 批次信息（必须包含batchId）
-     * @return 文件下载结果（包含文件名和字节数组）
-     */
-    public FileDownloadResult downloadUnstampedFileBytes(LawCaseBatchInfoRequestDto dto) throws com.jcraft.jsch.JSchException, java.io.IOException {
-        log.info("开始下载未签章文件，批次ID：{}", dto.getBatchId());
-
-        // 验证批次ID
-        if (dto.getBatchId() == null || dto.getBatchId().isEmpty()) {
-            log.warn("批次ID为空，无法下载");
-            return null;
-        }
-
-        // 从数据库查询批次信息
-        LawCaseBatchInfo entity = lawCaseBatchInfoMapper.selectOne(new com.baomidou.mybatisplus.core.conditions.query.QueryWrapper<LawCaseBatchInfo>().eq("batch_id", dto.getBatchId()).eq("is_delete", 0));
-
-        if (entity == null) {
-            log.warn("批次不存在，批次ID：{}", dto.getBatchId());
-            return null;
-        }
-
-        // 检查未签章文件保存地址
-        if (entity.getUploadAddress() == null || entity.getUploadAddress().isEmpty()) {
-            log.warn("未签章文件地址为空，批次ID：{}", dto.getBatchId());
-            return null;
-        }
-
-        // 构建文件名
-        String fileName = entity.getBatchId();
-        String uploadAddress = entity.getUploadAddress();
-        if (uploadAddress != null && uploadAddress.contains(".")) {
-            String extension = uploadAddress.substring(uploadAddress.lastIndexOf("."));
-            fileName += extension;
-        }
-
-        // 连接SFTP服务器下载文件
-        SftpUtil sftpUtil = new SftpUtil(sftpConfig.getHost(), sftpConfig.getPort(), sftpConfig.getUsername(), sftpConfig.getPassword());
-        try {
-            sftpUtil.connect();
-
-            // 根据数据库中的upload_address路径下载文件
-            String uploadAddressPath = entity.getUploadAddress();
-            String fileOnSftp = uploadAddressPath.substring(uploadAddressPath.lastIndexOf("/") + 1);
-
-            // 使用配置的receive-path作为SFTP目录
-            String directory = sftpConfig.getSftpReceivePath();
-
-            log.info("从SFTP服务器下载文件，目录: {}, 文件名: {}", directory, fileOnSftp);
-
-            try {
-                // 下载文件到字节数组
-                java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
-                InputStream inputStream = sftpUtil.downloadAsStream(directory, fileOnSftp);
-                if (inputStream == null) {
-                    log.warn("下载失败，批次ID：{}", dto.getBatchId());
-                    return null;
-                }
-
-                try {
-                    byte[] buffer = new byte[8192];
-                    int bytesRead;
-                    while ((bytesRead = inputStream.read(buffer)) != -1) {
-                        baos.write(buffer, 0, bytesRead);
-                    }
-                    baos.close();
-                    inputStream.close();
-
-                    // 更新下载信息
-                    entity.setDownloadCount((entity.getDownloadCount() == null ? 0 : entity.getDownloadCount()) + 1);
-                    entity.setDownloadName(dto.getDownloadName());
-                    lawCaseBatchInfoMapper.updateById(entity);
-
-                    log.info("未签章文件下载成功，批次ID：{}", dto.getBatchId());
-
-                    return new FileDownloadResult(fileName, baos.toByteArray());
-                } catch (java.io.IOException e) {
-                    log.error("读取文件流失败，批次ID：{}，错误：{}", dto.getBatchId(), e.getMessage(), e);
-                    return null;
-                }
-            } catch (Exception e) {
-                log.error("下载文件失败，批次ID：{}，错误：{}", dto.getBatchId(), e.getMessage(), e);
-                return null;
-            }
-        } finally {
-            sftpUtil.disconnect();
-        }
-    }
-
-    /**
-     * 下载签章文件（返回字节数组）
-     *
-     * @param dto 批次信息（必须包含batchId）
-     * @return 文件下载结果（包含文件名和字节数组）
-     */
-    public FileDownloadResult downloadSealFileBytes(LawCaseBatchInfoRequestDto dto) throws com.jcraft.jsch.JSchException, java.io.IOException {
-        log.info("开始下载签章文件，批次ID：{}", dto.getBatchId());
-
-        // 验证批次ID
-        if (dto.getBatchId() == null || dto.getBatchId().isEmpty()) {
-            log.warn("批次ID为空，无法下载");
-            return null;
-        }
-
-        // 从数据库查询批次信息
-        LawCaseBatchInfo entity = lawCaseBatchInfoMapper.selectOne(new com.baomidou.mybatisplus.core.conditions.query.QueryWrapper<LawCaseBatchInfo>().eq("batch_id", dto.getBatchId()).eq("is_delete", 0));
-
-        if (entity == null) {
-            log.warn("批次不存在，批次ID：{}", dto.getBatchId());
-            return null;
-        }
-
-        // 检查是否已完成签章
-        if (entity.getIsSign() == null || entity.getIsSign() == 1) {
-            log.warn("该批次尚未完成签章，批次ID：{}", dto.getBatchId());
-            return null;
-        }
-
-        // 检查签章文件保存地址
-        if (entity.getUploadAddressOver() == null || entity.getUploadAddressOver().isEmpty()) {
-            log.warn("签章文件地址为空，批次ID：{}", dto.getBatchId());
-            return null;
-        }
-
-        // 构建文件名
-        String fileName = entity.getBatchId();
-        String uploadAddressOver = entity.getUploadAddressOver();
-        if (uploadAddressOver != null && uploadAddressOver.contains(".")) {
-            String extension = uploadAddressOver.substring(uploadAddressOver.lastIndexOf("."));
-            fileName += extension;
-        }
-
-        // 连接SFTP服务器下载文件
-        SftpUtil sftpUtil = new SftpUtil(sftpConfig.getHost(), sftpConfig.getPort(), sftpConfig.getUsername(), sftpConfig.getPassword());
-        try {
-            sftpUtil.connect();
-
-            // 根据数据库中的upload_address_over路径下载文件
-            String uploadAddressOverPath = entity.getUploadAddressOver();
-            String fileOnSftp = uploadAddressOverPath.substring(uploadAddressOverPath.lastIndexOf("/") + 1);
-
-            // 使用配置的return-path作为SFTP目录
-            String directory = sftpConfig.getSftpReturnPath();
-
-            log.info("从SFTP服务器下载文件，目录: {}, 文件名: {}", directory, fileOnSftp);
-
-            try {
-                // 下载文件到字节数组
-                java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
-                InputStream inputStream = sftpUtil.downloadAsStream(directory, fileOnSftp);
-                if (inputStream == null) {
-                    log.warn("下载失败，批次ID：{}", dto.getBatchId());
-                    return null;
-                }
-
-                try {
-                    byte[] buffer = new byte[8192];
-                    int bytesRead;
-                    while ((bytesRead = inputStream.read(buffer)) != -1) {
-                        baos.write(buffer, 0, bytesRead);
-                    }
-                    baos.close();
-                    inputStream.close();
-
-                    // 更新下载信息
-                    entity.setDownloadCount((entity.getDownloadCount() == null ? 0 : entity.getDownloadCount()) + 1);
-                    entity.setDownloadName(dto.getDownloadName());
-                    lawCaseBatchInfoMapper.updateById(entity);
-
-                    log.info("签章文件下载成功，批次ID：{}，文件路径：{}", dto.getBatchId(), uploadAddressOver);
-
-                    return new FileDownloadResult(fileName, baos.toByteArray());
-                } catch (java.io.IOException e) {
-                    log.error("读取文件流失败，批次ID：{}，错误：{}", dto.getBatchId(), e.getMessage(), e);
-                    return null;
-                }
-            } catch (Exception e) {
-                log.error("下载文件失败，批次ID：{}，错误：{}", dto.getBatchId(), e.getMessage(), e);
-                return null;
-            }
-        } finally {
-            sftpUtil.disconnect();
-        }
-    }
 }
-
@@ -0,0 +1,443 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.bean.Response;
+import com.example.demo.bean.SftpTransferState;
+import com.example.demo.bean.vo.SftpTransferVo;
+import com.example.demo.component.SftpClientPool;
+import com.example.demo.config.SftpConfig;
+import com.example.demo.config.TransferConfig;
+import com.example.demo.dto.SftpTransferRequestDto;
+import com.example.demo.service.ISftpTransferService;
+import com.example.demo.util.BandwidthLimiter;
+import com.example.demo.util.RetryPolicy;
+import com.example.demo.util.SftpUtil;
+import com.jcraft.jsch.SftpATTRS;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SFTP批量传输 服务实现类
+ * 每个任务启动多个传输通道（线程 + 源/目标各一个池化连接），通道从共享队列中领取文件，
+ * 单个文件失败后按重试策略重试（只在此处重试一层，每次重试重新获取源/目标连接，目标端从保留的临时文件续传），
+ * 所有任务共享一个总带宽限制器
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+@Slf4j
+@Service
+public class SftpTransferServiceImpl implements ISftpTransferService {
+
+    @Autowired
+    private SftpConfig sftpConfig;
+
+    @Autowired
+    private TransferConfig transferConfig;
+
+    @Autowired
+    private SftpClientPool sftpClientPool;
+
+    @Autowired
+    @Qualifier("transferExecutor")
+    private ThreadPoolTaskExecutor transferExecutor;
+
+    /* 传输任务ID -> 任务 */
+    private final Map<String, TransferJob> jobs = new ConcurrentHashMap<>();
+
+    /* 所有任务共享的带宽限制器 */
+    private BandwidthLimiter bandwidthLimiter;
+
+    /* 单个文件的重试间隔策略 */
+    private RetryPolicy fileRetryPolicy;
+
+    /* 所有任务共享的传输通道许可：每个通道占用一个默认SFTP服务器连接，合计不超过每主机连接数的一半，为上传下载保留连接 */
+    private Semaphore channelPermits;
+
+    @PostConstruct
+    public void init() {
+        bandwidthLimiter = new BandwidthLimiter(transferConfig.getReplicationBandwidthBytesPerSecond());
+        SftpConfig.Retry retry = sftpConfig.getRetry();
+        fileRetryPolicy = new RetryPolicy(transferConfig.getReplicationFileRetries(), retry.getInitialDelayMillis(),
+                retry.getMaxDelayMillis(), retry.getMultiplier(), retry.getJitter(), 0L);
+        int maxChannels = Math.max(1, Math.min(transferConfig.getReplicationMaxConcurrency(), sftpConfig.getPool().getMaxPerHost() / 2));
+        channelPermits = new Semaphore(maxChannels);
+        log.info("批量传输通道上限：{}", maxChannels);
+    }
+
+    @Override
+    public Response<SftpTransferVo> startTransfer(SftpTransferRequestDto dto) {
+        log.info("开始批量传输，源目录：{}，目标：{}@{}:{}，目标目录：{}", dto.getSourceDirectory(),
+                dto.getTargetUsername(), dto.getTargetHost(), dto.getTargetPort(), dto.getTargetDirectory());
+
+        if (dto.getTargetHost() == null || dto.getTargetHost().isEmpty()
+                || dto.getTargetUsername() == null || dto.getTargetUsername().isEmpty()) {
+            return Response.fail("传输失败：目标服务器地址和用户名不能为空");
+        }
+        int targetPort = dto.getTargetPort() != null ? dto.getTargetPort() : 22;
+        if (!isAllowedTarget(dto.getTargetHost(), targetPort)) {
+            log.warn("批量传输目标服务器不在允许列表中：{}:{}", dto.getTargetHost(), targetPort);
+            return Response.fail("传输失败：目标服务器不在允许列表中");
+        }
+        purgeExpired();
+
+        String sourceDirectory = isBlank(dto.getSourceDirectory()) ? sftpConfig.getSftpReceivePath() : dto.getSourceDirectory();
+        String targetDirectory = isBlank(dto.getTargetDirectory()) ? sourceDirectory : dto.getTargetDirectory();
+        SftpClientPool.Endpoint targetEndpoint = new SftpClientPool.Endpoint(dto.getTargetHost(), targetPort,
+                dto.getTargetUsername(), dto.getTargetPassword());
+
+        // 1. 确定待传输文件及总大小
+        List<String> fileNames = new ArrayList<>();
+        long totalBytes = 0;
+        SftpUtil source = null;
+        SftpUtil target = null;
+        try {
+            source = sftpClientPool.borrow();
+            if (dto.getFileNames() == null || dto.getFileNames().isEmpty()) {
+                for (SftpUtil.FileEntry entry : source.listFiles(sourceDirectory)) {
+                    fileNames.add(entry.getFileName());
+                    totalBytes += entry.getAttrs().getSize();
+                }
+            } else {
+                for (String fileName : dto.getFileNames()) {
+                    SftpATTRS attrs = source.stat(sourceDirectory, fileName);
+                    if (attrs == null) {
+                        return Response.fail("传输失败：源文件不存在：" + fileName);
+                    }
+                    fileNames.add(fileName);
+                    totalBytes += attrs.getSize();
+                }
+            }
+
+            // 2. 校验目标服务器可连接并创建目标目录
+            target = sftpClientPool.borrow(targetEndpoint);
+            target.ensureDirectory(targetDirectory);
+        } catch (Exception e) {
+            log.error("准备批量传输失败：{}", e.getMessage(), e);
+            return Response.fail("传输失败：" + e.getMessage());
+        } finally {
+            sftpClientPool.release(source);
+            sftpClientPool.release(target);
+        }
+
+        if (fileNames.isEmpty()) {
+            return Response.fail("传输失败：源目录下没有待传输的文件");
+        }
+
+        // 3. 申请传输通道（所有任务合计不超过通道上限，其余任务正在占用时只能获得剩余的通道）
+        int requested = dto.getConcurrency() != null ? dto.getConcurrency() : transferConfig.getReplicationConcurrency();
+        requested = Math.max(1, Math.min(requested, fileNames.size()));
+        int concurrency = 0;
+        while (concurrency < requested && channelPermits.tryAcquire()) {
+            concurrency++;
+        }
+        if (concurrency == 0) {
+            log.warn("批量传输通道已全部占用，拒绝新的传输任务");
+            return Response.fail("传输失败：当前批量传输任务过多，请稍后重试");
+        }
+
+        TransferJob job = new TransferJob(UUID.randomUUID().toString().replace("-", ""), sourceDirectory,
+                targetEndpoint, targetDirectory, fileNames, totalBytes, concurrency);
+        jobs.put(job.transferId, job);
+
+        int started = 0;
+        for (int i = 0; i < concurrency; i++) {
+            job.activeWorkers.incrementAndGet();
+            try {
+                transferExecutor.execute(() -> runWorker(job));
+                started++;
+            } catch (TaskRejectedException e) {
+                job.activeWorkers.decrementAndGet();
+                channelPermits.release(concurrency - started);
+                log.warn("传输线程池已满，任务 {} 仅启动 {} 个通道", job.transferId, started);
+                break;
+            }
+        }
+        if (started == 0) {
+            job.finish(SftpTransferState.FAILED);
+            return Response.fail("传输失败：传输线程池已满，请稍后重试");
+        }
+
+        log.info("批量传输任务已启动：{}，文件数：{}，总大小：{} 字节，通道数：{}", job.transferId, fileNames.size(), totalBytes, started);
+        return Response.success(job.toVo());
+    }
+
+    @Override
+    public Response<SftpTransferVo> getTransfer(String transferId) {
+        TransferJob job = transferId != null ? jobs.get(transferId) : null;
+        if (job == null) {
+            return Response.fail("查询失败：传输任务不存在或已过期");
+        }
+        return Response.success(job.toVo());
+    }
+
+    @Override
+    public Response<SftpTransferVo> cancelTransfer(String transferId) {
+        TransferJob job = transferId != null ? jobs.get(transferId) : null;
+        if (job == null) {
+            return Response.fail("取消失败：传输任务不存在或已过期");
+        }
+        job.cancelled = true;
+        log.info("批量传输任务已请求取消：{}", transferId);
+        return Response.success(job.toVo());
+    }
+
+    /**
+     * 传输通道：循环领取文件直到队列为空或任务被取消
+     */
+    private void runWorker(TransferJob job) {
+        try {
+            String fileName;
+            while (!job.cancelled && (fileName = job.pending.poll()) != null) {
+                transferFile(job, fileName);
+            }
+        } finally {
+            channelPermits.release();
+            if (job.activeWorkers.decrementAndGet() == 0) {
+                SftpTransferState state;
+                if (job.cancelled) {
+                    state = SftpTransferState.CANCELLED;
+                } else if (job.failedFiles.get() == 0) {
+                    state = SftpTransferState.COMPLETED;
+                } else {
+                    state = job.completedFiles.get() == 0 ? SftpTransferState.FAILED : SftpTransferState.PARTIAL_FAILED;
+                }
+                job.finish(state);
+                log.info("批量传输任务结束：{}，状态：{}，成功 {} 个，失败 {} 个", job.transferId, state.getDescription(),
+                        job.completedFiles.get(), job.failedFiles.get());
+            }
+        }
+    }
+
+    /**
+     * 传输单个文件，失败时按重试策略重试（目标端从已写入的位置续传）
+     * 每次尝试都重新从连接池获取源和目标连接，任一端连接断开都不会导致后续重试以同样的方式失败
+     */
+    private void transferFile(TransferJob job, String fileName) {
+        int retryCount = 0;
+        while (true) {
+            AtomicLong attemptBytes = new AtomicLong();
+            SftpUtil source = null;
+            SftpUtil target = null;
+            try {
+                source = sftpClientPool.borrow();
+                target = sftpClientPool.borrow(job.targetEndpoint);
+
+                SftpATTRS attrs = source.stat(job.sourceDirectory, fileName);
+                if (attrs == null) {
+                    throw new FileNotFoundException("源文件不存在：" + job.sourceDirectory + "/" + fileName);
+                }
+                long size = attrs.getSize();
+
+                SftpUtil sourceClient = source;
+                // 单次尝试，失败时保留临时文件，由本方法的重试从已写入的位置续传（源文件从该位置打开，已传输的部分不再读取）
+                target.uploadOnceWithResume(job.targetDirectory, fileName, offset -> {
+                    InputStream in;
+                    try {
+                        in = sourceClient.openInputStream(job.sourceDirectory, fileName, offset);
+                    } catch (IOException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new IOException("打开源文件失败：" + e.getMessage(), e);
+                    }
+                    return bandwidthLimiter.wrap(new ProgressInputStream(in, job, attemptBytes));
+                }, size, retryCount > 0);
+
+                // 进度以文件大小为准（续传时目标端已有的部分本次不会读取，在此补计）
+                job.transferredBytes.addAndGet(size - attemptBytes.get());
+                job.completedFiles.incrementAndGet();
+                log.info("批量传输文件成功：{}，大小：{} 字节，任务：{}", fileName, size, job.transferId);
+                return;
+
+            } catch (Exception e) {
+                job.transferredBytes.addAndGet(-attemptBytes.get());
+                retryCount++;
+                boolean retryable = !(e instanceof FileNotFoundException);
+                if (job.cancelled || !retryable || retryCount > fileRetryPolicy.getMaxRetries()) {
+                    if (target != null) {
+                        target.discardPart(job.targetDirectory, fileName);
+                    }
+                    job.failedFiles.incrementAndGet();
+                    job.failures.add(fileName + "：" + e.getMessage());
+                    log.error("批量传输文件失败：{}，任务：{}，{}", fileName, job.transferId, e.getMessage());
+                    return;
+                }
+                long delay = fileRetryPolicy.delayMillis(retryCount);
+                log.warn("批量传输文件失败（第{}次尝试）：{}，{}，{}毫秒后重试...", retryCount, fileName, e.getMessage(), delay);
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    job.cancelled = true;
+                }
+            } finally {
+                sftpClientPool.release(source);
+                sftpClientPool.release(target);
+            }
+        }
+    }
+
+    /**
+     * 清除超过保留时间的已结束任务
+     */
+    private void purgeExpired() {
+        LocalDateTime expireBefore = LocalDateTime.now().minusMinutes(transferConfig.getJobRetentionMinutes());
+        jobs.values().removeIf(job -> job.endTime != null && job.endTime.isBefore(expireBefore));
+    }
+
+    /**
+     * 目标服务器是否在允许列表中（配置项为 host 或 host:port，只写主机时允许任意端口）
+     * 目标地址和凭据由请求传入，只允许传输到运维配置过的服务器，避免借用本服务的网络位置访问任意主机
+     */
+    private boolean isAllowedTarget(String host, int port) {
+        for (String allowed : transferConfig.getReplicationAllowedHosts()) {
+            if (allowed == null || allowed.trim().isEmpty()) {
+                continue;
+            }
+            String entry = allowed.trim();
+            int colon = entry.lastIndexOf(':');
+            String allowedHost = colon > 0 ? entry.substring(0, colon) : entry;
+            String allowedPort = colon > 0 ? entry.substring(colon + 1) : null;
+            if (allowedHost.equalsIgnoreCase(host.trim()) && (allowedPort == null || allowedPort.equals(String.valueOf(port)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    /**
+     * 批量传输任务
+     */
+    private static class TransferJob {
+        private final String transferId;
+        private final String sourceDirectory;
+        private final SftpClientPool.Endpoint targetEndpoint;
+        private final String targetDirectory;
+        private final Queue<String> pending;
+        private final int totalFiles;
+        private final long totalBytes;
+        private final int concurrency;
+        private final LocalDateTime startTime = LocalDateTime.now();
+        private final AtomicInteger activeWorkers = new AtomicInteger();
+        private final AtomicInteger completedFiles = new AtomicInteger();
+        private final AtomicInteger failedFiles = new AtomicInteger();
+        private final AtomicLong transferredBytes = new AtomicLong();
+        private final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        private volatile boolean cancelled;
+        private volatile SftpTransferState state = SftpTransferState.RUNNING;
+        private volatile LocalDateTime endTime;
+
+        TransferJob(String transferId, String sourceDirectory, SftpClientPool.Endpoint targetEndpoint, String targetDirectory,
+                    List<String> fileNames, long totalBytes, int concurrency) {
+            this.transferId = transferId;
+            this.sourceDirectory = sourceDirectory;
+            this.targetEndpoint = targetEndpoint;
+            this.targetDirectory = targetDirectory;
+            this.pending = new ConcurrentLinkedQueue<>(fileNames);
+            this.totalFiles = fileNames.size();
+            this.totalBytes = totalBytes;
+            this.concurrency = concurrency;
+        }
+
+        void finish(SftpTransferState state) {
+            this.endTime = LocalDateTime.now();
+            this.state = state;
+        }
+
+        SftpTransferVo toVo() {
+            SftpTransferVo vo = new SftpTransferVo();
+            vo.setTransferId(transferId);
+            vo.setSourceDirectory(sourceDirectory);
+            vo.setTarget(targetEndpoint.toString());
+            vo.setTargetDirectory(targetDirectory);
+            vo.setState(state.name());
+            vo.setStateDesc(state.getDescription());
+            vo.setConcurrency(concurrency);
+            vo.setTotalFiles(totalFiles);
+            vo.setCompletedFiles(completedFiles.get());
+            vo.setFailedFiles(failedFiles.get());
+            vo.setTotalBytes(totalBytes);
+            vo.setTransferredBytes(transferredBytes.get());
+            long elapsedMillis = Duration.between(startTime, endTime != null ? endTime : LocalDateTime.now()).toMillis();
+            vo.setBytesPerSecond(elapsedMillis > 0 ? transferredBytes.get() * 1000 / elapsedMillis : 0L);
+            synchronized (failures) {
+                vo.setFailures(new ArrayList<>(failures));
+            }
+            vo.setStartTime(startTime);
+            vo.setEndTime(endTime);
+            return vo;
+        }
+    }
+
+    /**
+     * 统计已读取字节数的输入流，任务取消后读取立即失败
+     */
+    private static class ProgressInputStream extends FilterInputStream {
+        private final TransferJob job;
+        private final AtomicLong attemptBytes;
+
+        ProgressInputStream(InputStream in, TransferJob job, AtomicLong attemptBytes) {
+            super(in);
+            this.job = job;
+            this.attemptBytes = attemptBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkCancelled();
+            int b = in.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkCancelled();
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) {
+            attemptBytes.addAndGet(n);
+            job.transferredBytes.addAndGet(n);
+        }
+
+        private void checkCancelled() throws IOException {
+            if (job.cancelled) {
+                throw new InterruptedIOException("传输任务已取消");
+            }
+        }
+    }
+}
@@ -2,29 +2,37 @@ package com.example.demo.util;
 
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
 import org.apache.commons.compress.archivers.ar.ArArchiveInputStream;
 import org.apache.commons.compress.archivers.cpio.CpioArchiveInputStream;
 import org.apache.commons.compress.archivers.jar.JarArchiveInputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
-import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
+import org.apache.commons.io.input.CloseShieldInputStream;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Enumeration;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
 import java.util.List;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
 /**
  * 压缩文件解析工具类
  * 支持 zip, 7z, tar, gz, bz2, xz, jar, ar, cpio 等格式
- * 在内存中完成解析，不创建本地临时文件
+ * 支持一次性提取到内存，或通过 {@link EntryHandler} 逐个条目流式处理
  * 支持中文文件名
  *
  * @author zxd
@@ -33,6 +41,36 @@ import java.util.zip.ZipFile;
 @Slf4j
 public class ArchiveExtractor {
 
+    /* 未声明 UTF-8 且不是合法 UTF-8 的 ZIP 文件名使用的编码 */
+    private static final Charset ZIP_FALLBACK_CHARSET = Charset.forName("GBK");
+
+    /* 不超过该大小的上传文件直接在内存中解析，不写临时文件（字节） */
+    private static volatile long inMemoryThreshold = 32L * 1024 * 1024;
+
+    /**
+     * 设置在内存中解析的上传文件大小上限
+     *
+     * @param threshold 大小上限（字节）
+     */
+    public static void setInMemoryThreshold(long threshold) {
+        inMemoryThreshold = threshold;
+    }
+
+    /* 解析限制（条目数、单个条目大小、解压总大小、压缩比） */
+    private static volatile Limits limits = new Limits(10000, 256L * 1024 * 1024, 1024L * 1024 * 1024, 100);
+
+    /* 解压总大小超过该值后才检查压缩比，避免小文件（如纯文本）误判 */
+    private static final long RATIO_CHECK_MIN_BYTES = 1024L * 1024;
+
+    /**
+     * 设置解析限制
+     *
+     * @param newLimits 解析限制
+     */
+    public static void setLimits(Limits newLimits) {
+        limits = newLimits;
+    }
+
     /**
      * 从压缩文件中提取文件信息
      *
@@ -45,46 +83,76 @@ public class ArchiveExtractor {
         List<ArchiveFileInfo> result = new ArrayList<>();
 
         try {
-            String filename = file.getOriginalFilename();
-            if (filename == null) {
-                log.warn("文件名为空");
-                return result;
-            }
-
-            String lowerName = filename.toLowerCase();
-
-            // 根据文件扩展名选择合适的解析方式
-            if (lowerName.endsWith(".zip")) {
-                result = extractZip(file);
-            } else if (lowerName.endsWith(".tar")) {
-                result = extractTar(file);
-            } else if (lowerName.endsWith(".gz") || lowerName.endsWith(".tgz")) {
-                result = extractGzip(file);
-            } else if (lowerName.endsWith(".bz2")) {
-                result = extractBzip2(file);
-            } else if (lowerName.endsWith(".xz")) {
-                result = extractXz(file);
-            } else if (lowerName.endsWith(".jar")) {
-                result = extractJar(file);
-            } else if (lowerName.endsWith(".ar")) {
-                result = extractAr(file);
-            } else if (lowerName.endsWith(".cpio")) {
-                result = extractCpio(file);
-            } else if (lowerName.endsWith(".7z")) {
-                result = extract7z(file);
-            } else if (lowerName.endsWith(".rar")) {
-                result = extractRar(file);
-            } else {
-                log.warn("不支持的压缩格式：{}", filename);
-            }
-
-            log.info("压缩文件解析完成，共提取 {} 个文件", result.size());
-            return result;
-
+            extract(file, (name, size, in) -> result.add(readEntry(name, size, in)));
+        } catch (ArchiveLimitException e) {
+            log.warn("压缩文件超出解析限制：{}", e.getMessage());
+            throw e;
         } catch (Exception e) {
             log.error("解析压缩文件失败：{}", e.getMessage(), e);
             return result;
         }
+
+        log.info("压缩文件解析完成，共提取 {} 个文件", result.size());
+        return result;
+    }
+
+    /**
+     * 逐个条目流式解析压缩文件，条目内容不会整体加载到内存
+     *
+     * @param file    上传的压缩文件
+     * @param handler 条目处理器，按压缩包内顺序依次回调
+     * @throws Exception 解析失败或处理器抛出的异常
+     */
+    public static void extract(MultipartFile file, EntryHandler handler) throws Exception {
+        String filename = file.getOriginalFilename();
+        if (filename == null) {
+            log.warn("文件名为空");
+            return;
+        }
+
+        String lowerName = filename.toLowerCase();
+        LimitGuard guard = new LimitGuard(limits, file.getSize());
+        EntryHandler guarded = guard.wrap(handler);
+
+        // 根据文件扩展名选择合适的解析方式
+        if (lowerName.endsWith(".zip")) {
+            extractZip(file, guarded);
+        } else if (lowerName.endsWith(".tar")) {
+            try (TarArchiveInputStream tis = new TarArchiveInputStream(file.getInputStream())) {
+                extractArchiveStream(tis, guarded);
+            }
+        } else if (lowerName.endsWith(".gz") || lowerName.endsWith(".tgz")) {
+            try (GzipCompressorInputStream gis = new GzipCompressorInputStream(file.getInputStream())) {
+                guarded.handle(filename.replace(".gz", "").replace(".tgz", ".tar"), -1, CloseShieldInputStream.wrap(gis));
+            }
+        } else if (lowerName.endsWith(".bz2")) {
+            try (BZip2CompressorInputStream bis = new BZip2CompressorInputStream(file.getInputStream())) {
+                guarded.handle(filename.replace(".bz2", ""), -1, CloseShieldInputStream.wrap(bis));
+            }
+        } else if (lowerName.endsWith(".xz")) {
+            try (XZCompressorInputStream xzis = new XZCompressorInputStream(file.getInputStream())) {
+                guarded.handle(filename.replace(".xz", ""), -1, CloseShieldInputStream.wrap(xzis));
+            }
+        } else if (lowerName.endsWith(".jar")) {
+            try (JarArchiveInputStream jis = new JarArchiveInputStream(file.getInputStream())) {
+                extractArchiveStream(jis, guarded);
+            }
+        } else if (lowerName.endsWith(".ar")) {
+            try (ArArchiveInputStream ais = new ArArchiveInputStream(file.getInputStream())) {
+                extractArchiveStream(ais, guarded);
+            }
+        } else if (lowerName.endsWith(".cpio")) {
+            try (CpioArchiveInputStream cis = new CpioArchiveInputStream(file.getInputStream())) {
+                extractArchiveStream(cis, guarded);
+            }
+        } else if (lowerName.endsWith(".7z")) {
+            // 7z、RAR 条目先解压到内存，在写入缓冲区时计数，回调时不再重复计数
+            extract7z(file, handler, guard);
+        } else if (lowerName.endsWith(".rar")) {
+            extractRar(file, handler, guard);
+        } else {
+            log.warn("不支持的压缩格式：{}", filename);
+        }
     }
 
     /**
@@ -105,6 +173,9 @@ public class ArchiveExtractor {
             log.info("压缩文件解析完成，共提取 {} 个文件", result.size());
             return result;
 
+        } catch (ArchiveLimitException e) {
+            log.warn("压缩文件超出解析限制：{}", e.getMessage());
+            throw e;
         } catch (Exception e) {
             log.error("解析压缩文件失败：{}", e.getMessage(), e);
             return result;
@@ -112,496 +183,283 @@ public class ArchiveExtractor {
     }
 
     /**
-     * 解析 ZIP 文件（使用 Java 内置的 ZipFile，更好的兼容性）
+     * 只读取压缩文件的条目头信息（名称和声明的解压大小），不解压条目内容
+     * ZIP 读取中央目录，7z、RAR 读取文件头，TAR 等流式格式跳过条目内容；
+     * 同时按解析限制检查条目数和声明大小，超限时抛出 {@link ArchiveLimitException}
+     *
+     * @param file 上传的压缩文件
+     * @return 条目列表（不含内容），不支持的格式返回空列表
+     * @throws Exception 读取失败
      */
-    private static List<ArchiveFileInfo> extractZip(MultipartFile file) {
+    public static List<ArchiveFileInfo> listEntries(MultipartFile file) throws Exception {
         List<ArchiveFileInfo> result = new ArrayList<>();
-        java.io.File tempFile = null;
+        String filename = file.getOriginalFilename();
+        if (filename == null) {
+            log.warn("文件名为空");
+            return result;
+        }
 
-        try {
-            // 将 MultipartFile 转换为临时文件
-            tempFile = java.io.File.createTempFile("zip", ".zip");
-            file.transferTo(tempFile);
-
-            // 尝试多种编码，选择最合适的一个
-            // 优先尝试GBK（Windows标准），然后UTF-8（Linux标准），最后GB2312（老版本Windows）
-            String[] encodings = {"GBK", "UTF-8", "GB2312"};
-            List<List<ArchiveFileInfo>> allResults = new ArrayList<>();
-
-            for (String encoding : encodings) {
-                List<ArchiveFileInfo> files = tryExtractZipWithEncoding(tempFile, encoding);
-                if (!files.isEmpty()) {
-                    allResults.add(files);
-                    log.info("使用 {} 编码成功解析 ZIP 文件，共提取 {} 个文件", encoding, files.size());
-                    // 打印前3个文件名用于调试
-                    for (int i = 0; i < Math.min(3, files.size()); i++) {
-                        log.info("  - 示例文件名[{}]：'{}'", i, files.get(i).getName());
+        String lowerName = filename.toLowerCase();
+        LimitGuard guard = new LimitGuard(limits, file.getSize());
+        EntryHandler collector = (name, size, in) -> {
+            guard.checkEntry(name, size);
+            ArchiveFileInfo info = new ArchiveFileInfo();
+            info.setName(name);
+            info.setSize(size);
+            result.add(info);
+        };
+
+        if (lowerName.endsWith(".zip")) {
+            try (SeekableSource source = SeekableSource.open(file, ".zip");
+                 org.apache.commons.compress.archivers.zip.ZipFile zip = source.openZip()) {
+                List<ZipArchiveEntry> entries = Collections.list(zip.getEntries());
+                Charset charset = detectZipCharset(entries);
+                for (ZipArchiveEntry entry : entries) {
+                    if (!entry.isDirectory()) {
+                        collector.handle(decodeEntryName(entry, charset), entry.getSize(), null);
                     }
                 }
             }
-
-            if (allResults.isEmpty()) {
-                log.error("所有编码尝试均失败，无法解析 ZIP 文件");
-                return result;
-            }
-
-            // 选择最可能正确的编码（优先选择包含中文的结果）
-            result = selectBestResult(allResults, encodings);
-
-            log.info("最终选择解析结果，共提取 {} 个文件", result.size());
-            for (ArchiveFileInfo info : result) {
-                log.info("  - 文件名：'{}'，大小：{} 字节", info.getName(), info.getSize());
-            }
-
-        } catch (Exception e) {
-            log.error("解析 ZIP 文件时发生异常：{}", e.getMessage(), e);
-        } finally {
-            // 删除临时文件
-            if (tempFile != null && tempFile.exists()) {
-                tempFile.delete();
+        } else if (lowerName.endsWith(".7z")) {
+            list7z(file, collector);
+        } else if (lowerName.endsWith(".rar")) {
+            try (SeekableSource source = SeekableSource.open(file, ".rar");
+                 com.github.junrar.Archive archive = source.data != null
+                         ? new com.github.junrar.Archive(new ByteArrayInputStream(source.data))
+                         : new com.github.junrar.Archive(source.file)) {
+                for (com.github.junrar.rarfile.FileHeader fileHeader : archive.getFileHeaders()) {
+                    if (!fileHeader.isDirectory()) {
+                        collector.handle(fileHeader.getFileNameString(), fileHeader.getFullUnpackSize(), null);
+                    }
+                }
             }
+        } else {
+            // tar、gz、bz2、xz、jar、ar、cpio 只能顺序读取，条目内容不读取直接跳过
+            extract(file, (name, size, in) -> collector.handle(name, size, null));
         }
 
+        log.info("压缩文件条目读取完成：{}，共 {} 个文件", filename, result.size());
         return result;
     }
 
     /**
-     * 解析 ZIP 文件（从字节数组）
+     * 读取 7z 文件的条目头信息
      */
-    private static List<ArchiveFileInfo> extractZip(byte[] fileData) {
-        List<ArchiveFileInfo> result = new ArrayList<>();
-        java.io.File tempFile = null;
-
+    private static void list7z(MultipartFile file, EntryHandler collector) throws Exception {
+        SeekableSource source = SeekableSource.open(file, ".7z");
+        java.io.RandomAccessFile randomAccessFile = null;
+        net.sf.sevenzipjbinding.IInArchive inArchive = null;
         try {
-            // 将字节数组写入临时文件
-            tempFile = java.io.File.createTempFile("zip", ".zip");
-            java.io.FileOutputStream fos = new java.io.FileOutputStream(tempFile);
-            fos.write(fileData);
-            fos.close();
-
-            // 尝试多种编码，选择最合适的一个
-            // 优先尝试GBK（Windows标准），然后UTF-8（Linux标准），最后GB2312（老版本Windows）
-            String[] encodings = {"GBK", "UTF-8", "GB2312"};
-            List<List<ArchiveFileInfo>> allResults = new ArrayList<>();
-
-            for (String encoding : encodings) {
-                List<ArchiveFileInfo> files = tryExtractZipWithEncoding(tempFile, encoding);
-                if (!files.isEmpty()) {
-                    allResults.add(files);
-                    log.info("使用 {} 编码成功解析 ZIP 文件，共提取 {} 个文件", encoding, files.size());
-                    // 打印前3个文件名用于调试
-                    for (int i = 0; i < Math.min(3, files.size()); i++) {
-                        log.info("  - 示例文件名[{}]：'{}'", i, files.get(i).getName());
-                    }
-                }
-            }
-
-            if (allResults.isEmpty()) {
-                log.error("所有编码尝试均失败，无法解析 ZIP 文件");
-                return result;
+            net.sf.sevenzipjbinding.IInStream inStream;
+            if (source.data != null) {
+                inStream = new net.sf.sevenzipjbinding.util.ByteArrayStream(source.data, false);
+            } else {
+                randomAccessFile = new java.io.RandomAccessFile(source.file, "r");
+                inStream = new net.sf.sevenzipjbinding.impl.RandomAccessFileInStream(randomAccessFile);
             }
+            inArchive = net.sf.sevenzipjbinding.SevenZip.openInArchive(null, inStream);
 
-            // 选择最可能正确的编码（优先选择包含中文的结果）
-            result = selectBestResult(allResults, encodings);
-
-            log.info("最终选择解析结果，共提取 {} 个文件", result.size());
-            for (ArchiveFileInfo info : result) {
-                log.info("  - 文件名：'{}'，大小：{} 字节", info.getName(), info.getSize());
+            int itemCount = inArchive.getNumberOfItems();
+            for (int i = 0; i < itemCount; i++) {
+                if (!Boolean.TRUE.equals(inArchive.getProperty(i, net.sf.sevenzipjbinding.PropID.IS_FOLDER))) {
+                    Object size = inArchive.getProperty(i, net.sf.sevenzipjbinding.PropID.SIZE);
+                    collector.handle((String) inArchive.getProperty(i, net.sf.sevenzipjbinding.PropID.PATH),
+                            size instanceof Long ? (Long) size : -1, null);
+                }
             }
-
-        } catch (Exception e) {
-            log.error("解析 ZIP 文件时发生异常：{}", e.getMessage(), e);
         } finally {
-            // 删除临时文件
-            if (tempFile != null && tempFile.exists()) {
-                tempFile.delete();
+            if (inArchive != null) {
+                try {
+                    inArchive.close();
+                } catch (Exception e) {
+                    log.error("关闭 7z 文件失败：{}", e.getMessage());
+                }
             }
+            if (randomAccessFile != null) {
+                try {
+                    randomAccessFile.close();
+                } catch (Exception e) {
+                    log.error("关闭 RandomAccessFile 失败：{}", e.getMessage());
+                }
+            }
+            source.close();
         }
-
-        return result;
     }
 
     /**
-     * 从多个解析结果中选择最合适的一个
+     * 读取条目内容到内存
      */
-    private static List<ArchiveFileInfo> selectBestResult(List<List<ArchiveFileInfo>> allResults, String[] encodings) {
-        // 优先选择包含中文文件名的结果
-        for (int i = 0; i < allResults.size(); i++) {
-            List<ArchiveFileInfo> files = allResults.get(i);
-            if (containsChinese(files) && isValidFilenames(files)) {
-                log.info("选择 {} 编码的解析结果（包含中文文件名）", encodings[i]);
-                return files;
-            }
-        }
-
-        // 如果没有中文，选择文件名最合理的结果
-        for (int i = 0; i < allResults.size(); i++) {
-            List<ArchiveFileInfo> files = allResults.get(i);
-            if (isValidFilenames(files)) {
-                log.info("选择 {} 编码的解析结果（文件名有效）", encodings[i]);
-                return files;
-            }
-        }
-
-        // 如果都不可用，返回第一个非空结果
-        for (List<ArchiveFileInfo> files : allResults) {
-            if (!files.isEmpty()) {
-                return files;
-            }
+    private static ArchiveFileInfo readEntry(String name, long size, java.io.InputStream in) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int len;
+        while ((len = in.read(buffer)) > 0) {
+            baos.write(buffer, 0, len);
         }
 
-        return new ArrayList<>();
+        byte[] fileData = baos.toByteArray();
+        ArchiveFileInfo info = new ArchiveFileInfo();
+        info.setName(name);
+        info.setSize(size >= 0 ? size : fileData.length);
+        info.setData(fileData);
+        return info;
     }
 
     /**
-     * 检查文件列表中是否包含中文文件名
+     * 逐个条目处理 commons-compress 的归档输入流（tar、jar、ar、cpio）
      */
-    private static boolean containsChinese(List<ArchiveFileInfo> files) {
-        for (ArchiveFileInfo info : files) {
-            String name = info.getName();
-            for (char c : name.toCharArray()) {
-                if (isChinese(c)) {
-                    return true;
-                }
+    private static void extractArchiveStream(ArchiveInputStream<?> ais, EntryHandler handler) throws Exception {
+        ArchiveEntry entry;
+        while ((entry = ais.getNextEntry()) != null) {
+            if (!entry.isDirectory()) {
+                handler.handle(entry.getName(), entry.getSize(), CloseShieldInputStream.wrap(ais));
             }
         }
-        return false;
-    }
-
-    /**
-     * 判断字符是否为中文
-     */
-    private static boolean isChinese(char c) {
-        // 中文Unicode范围：\u4e00-\u9fff（基本汉字）
-        return c >= '\u4e00' && c <= '\u9fff';
     }
 
     /**
-     * 检查文件名是否有效（不包含乱码字符）
+     * 解析 ZIP 文件
      */
-    private static boolean isValidFilenames(List<ArchiveFileInfo> files) {
-        for (ArchiveFileInfo info : files) {
-            String name = info.getName();
-            // 检查是否包含明显的乱码字符（如连续的替换字符）
-            if (name.contains("\uFFFD") || name.contains("ï¿½")) {
-                return false;
-            }
-            // 检查是否包含过多的控制字符
-            int controlCharCount = 0;
-            for (char c : name.toCharArray()) {
-                if (Character.isISOControl(c) && c != '\n' && c != '\r' && c != '\t') {
-                    controlCharCount++;
-                }
-            }
-            if (controlCharCount > name.length() / 2) {
-                return false;
-            }
+    private static void extractZip(MultipartFile file, EntryHandler handler) throws Exception {
+        try (SeekableSource source = SeekableSource.open(file, ".zip");
+             org.apache.commons.compress.archivers.zip.ZipFile zip = source.openZip()) {
+            extractZip(zip, handler);
         }
-        return true;
     }
 
     /**
-     * 使用指定编码解析 ZIP 文件
+     * 解析 ZIP 文件（从字节数组，直接在内存中随机读取）
      */
-    private static List<ArchiveFileInfo> tryExtractZipWithEncoding(java.io.File zipFile, String encoding) {
+    private static List<ArchiveFileInfo> extractZip(byte[] fileData) {
         List<ArchiveFileInfo> result = new ArrayList<>();
 
-        try {
-            java.nio.charset.Charset charset = java.nio.charset.Charset.forName(encoding);
-            ZipFile zip = new ZipFile(zipFile, charset);
-
-            try {
-                Enumeration<? extends ZipEntry> entries = zip.entries();
+        LimitGuard guard = new LimitGuard(limits, fileData.length);
+        try (org.apache.commons.compress.archivers.zip.ZipFile zip = new SeekableSource(fileData, null).openZip()) {
+            extractZip(zip, guard.wrap((name, size, in) -> result.add(readEntry(name, size, in))));
 
-                while (entries.hasMoreElements()) {
-                    ZipEntry entry = entries.nextElement();
-
-                    if (!entry.isDirectory()) {
-                        // 读取文件内容
-                        java.io.InputStream is = zip.getInputStream(entry);
-                        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                        byte[] buffer = new byte[8192];
-                        int len;
-                        while ((len = is.read(buffer)) > 0) {
-                            baos.write(buffer, 0, len);
-                        }
-                        is.close();
-
-                        byte[] fileData = baos.toByteArray();
-                        log.info("[{}] 读取文件：'{}'，声明大小：{} 字节，实际读取：{} 字节",
-                                encoding, entry.getName(), entry.getSize(), fileData.length);
-
-                        ArchiveFileInfo info = new ArchiveFileInfo();
-                        info.setName(entry.getName());
-                        info.setSize(entry.getSize());
-                        info.setData(fileData);
-                        result.add(info);
-                    }
-                }
-            } finally {
-                zip.close();
-            }
-        } catch (IllegalArgumentException e) {
-            // 捕获MALFORMED错误，说明该编码不适用
-            if (e.getMessage() != null && e.getMessage().contains("MALFORMED")) {
-                log.debug("使用 {} 编码读取ZIP文件失败：文件名编码不匹配", encoding);
-            } else {
-                log.error("使用 {} 编码读取ZIP文件时发生异常：{}", encoding, e.getMessage());
+            log.info("最终选择解析结果，共提取 {} 个文件", result.size());
+            for (ArchiveFileInfo info : result) {
+                log.info("  - 文件名：'{}'，大小：{} 字节", info.getName(), info.getSize());
             }
+
+        } catch (ArchiveLimitException e) {
+            throw e;
         } catch (Exception e) {
-            log.error("使用 {} 编码读取ZIP文件时发生异常：{}", encoding, e.getMessage(), e);
+            log.error("解析 ZIP 文件时发生异常：{}", e.getMessage(), e);
         }
 
         return result;
     }
 
     /**
-     * 解析 TAR 文件
+     * 按最合适的文件名编码逐个条目解析 ZIP 文件
+     * 只读取一次中央目录：设置了 UTF-8 标志（EFS）或带 Unicode Path 扩展字段的条目直接使用其 UTF-8 文件名，
+     * 其余条目根据原始文件名字节统一判断编码，每个条目只解压一次
      */
-    private static List<ArchiveFileInfo> extractTar(MultipartFile file) {
-        List<ArchiveFileInfo> result = new ArrayList<>();
+    private static void extractZip(org.apache.commons.compress.archivers.zip.ZipFile zip, EntryHandler handler) throws Exception {
+        List<ZipArchiveEntry> entries = Collections.list(zip.getEntries());
+        Charset charset = detectZipCharset(entries);
 
-        try {
-            ByteArrayInputStream bais = new ByteArrayInputStream(file.getBytes());
-            TarArchiveInputStream tis = new TarArchiveInputStream(bais);
-
-            ArchiveEntry entry;
-            while ((entry = tis.getNextEntry()) != null) {
-                if (!entry.isDirectory()) {
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    byte[] buffer = new byte[8192];
-                    int len;
-                    while ((len = tis.read(buffer)) > 0) {
-                        baos.write(buffer, 0, len);
-                    }
-
-                    ArchiveFileInfo info = new ArchiveFileInfo();
-                    info.setName(entry.getName());
-                    info.setSize(entry.getSize());
-                    info.setData(baos.toByteArray());
-                    result.add(info);
-                }
+        for (ZipArchiveEntry entry : entries) {
+            if (entry.isDirectory()) {
+                continue;
             }
-        } catch (IOException e) {
-            log.error("解析 TAR 文件失败：{}", e.getMessage(), e);
-        }
-
-        return result;
-    }
-
-    /**
-     * 解析 GZIP 文件
-     */
-    private static List<ArchiveFileInfo> extractGzip(MultipartFile file) {
-        List<ArchiveFileInfo> result = new ArrayList<>();
-
-        try {
-            ByteArrayInputStream bais = new ByteArrayInputStream(file.getBytes());
-            GzipCompressorInputStream gis = new GzipCompressorInputStream(bais);
-
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            byte[] buffer = new byte[8192];
-            int len;
-            while ((len = gis.read(buffer)) > 0) {
-                baos.write(buffer, 0, len);
+            String name = decodeEntryName(entry, charset);
+            if (!zip.canReadEntryData(entry)) {
+                log.warn("ZIP 条目 '{}' 使用了不支持的压缩方式或已加密，跳过", name);
+                continue;
             }
-
-            ArchiveFileInfo info = new ArchiveFileInfo();
-            info.setName(file.getOriginalFilename().replace(".gz", "").replace(".tgz", ".tar"));
-            info.setSize(baos.size());
-            info.setData(baos.toByteArray());
-            result.add(info);
-
-        } catch (IOException e) {
-            log.error("解析 GZIP 文件失败：{}", e.getMessage(), e);
-        }
-
-        return result;
-    }
-
-    /**
-     * 解析 BZIP2 文件
-     */
-    private static List<ArchiveFileInfo> extractBzip2(MultipartFile file) {
-        List<ArchiveFileInfo> result = new ArrayList<>();
-
-        try {
-            ByteArrayInputStream bais = new ByteArrayInputStream(file.getBytes());
-            BZip2CompressorInputStream bis = new BZip2CompressorInputStream(bais);
-
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            byte[] buffer = new byte[8192];
-            int len;
-            while ((len = bis.read(buffer)) > 0) {
-                baos.write(buffer, 0, len);
+            try (java.io.InputStream is = zip.getInputStream(entry)) {
+                handler.handle(name, entry.getSize(), is);
             }
-
-            ArchiveFileInfo info = new ArchiveFileInfo();
-            info.setName(file.getOriginalFilename().replace(".bz2", ""));
-            info.setSize(baos.size());
-            info.setData(baos.toByteArray());
-            result.add(info);
-
-        } catch (IOException e) {
-            log.error("解析 BZIP2 文件失败：{}", e.getMessage(), e);
         }
-
-        return result;
     }
 
     /**
-     * 解析 XZ 文件
+     * 根据中央目录中的原始文件名字节检测 ZIP 文件名编码
+     * 所有未声明 UTF-8 的非 ASCII 文件名都是合法 UTF-8 字节序列时使用 UTF-8（Linux/macOS 压缩工具），
+     * 否则使用 GBK（Windows 中文系统压缩工具）
      */
-    private static List<ArchiveFileInfo> extractXz(MultipartFile file) {
-        List<ArchiveFileInfo> result = new ArrayList<>();
-
-        try {
-            ByteArrayInputStream bais = new ByteArrayInputStream(file.getBytes());
-            XZCompressorInputStream xzis = new XZCompressorInputStream(bais);
-
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            byte[] buffer = new byte[8192];
-            int len;
-            while ((len = xzis.read(buffer)) > 0) {
-                baos.write(buffer, 0, len);
+    private static Charset detectZipCharset(List<ZipArchiveEntry> entries) {
+        boolean hasNonAscii = false;
+        for (ZipArchiveEntry entry : entries) {
+            if (entry.getNameSource() != ZipArchiveEntry.NameSource.NAME) {
+                continue;
+            }
+            byte[] rawName = entry.getRawName();
+            if (isAscii(rawName)) {
+                continue;
+            }
+            hasNonAscii = true;
+            if (!canDecode(rawName, StandardCharsets.UTF_8)) {
+                log.info("ZIP 文件名编码检测结果：GBK");
+                return ZIP_FALLBACK_CHARSET;
             }
-
-            ArchiveFileInfo info = new ArchiveFileInfo();
-            info.setName(file.getOriginalFilename().replace(".xz", ""));
-            info.setSize(baos.size());
-            info.setData(baos.toByteArray());
-            result.add(info);
-
-        } catch (IOException e) {
-            log.error("解析 XZ 文件失败：{}", e.getMessage(), e);
         }
-
-        return result;
+        log.info("ZIP 文件名编码检测结果：{}", hasNonAscii ? "UTF-8" : "ASCII");
+        return StandardCharsets.UTF_8;
     }
 
     /**
-     * 解析 JAR 文件
+     * 获取条目文件名，未声明 UTF-8 的条目按检测到的编码解码原始字节
      */
-    private static List<ArchiveFileInfo> extractJar(MultipartFile file) {
-        List<ArchiveFileInfo> result = new ArrayList<>();
-
-        try {
-            ByteArrayInputStream bais = new ByteArrayInputStream(file.getBytes());
-            JarArchiveInputStream jis = new JarArchiveInputStream(bais);
-
-            ArchiveEntry entry;
-            while ((entry = jis.getNextEntry()) != null) {
-                if (!entry.isDirectory()) {
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    byte[] buffer = new byte[8192];
-                    int len;
-                    while ((len = jis.read(buffer)) > 0) {
-                        baos.write(buffer, 0, len);
-                    }
-
-                    ArchiveFileInfo info = new ArchiveFileInfo();
-                    info.setName(entry.getName());
-                    info.setSize(entry.getSize());
-                    info.setData(baos.toByteArray());
-                    result.add(info);
-                }
-            }
-        } catch (IOException e) {
-            log.error("解析 JAR 文件失败：{}", e.getMessage(), e);
+    private static String decodeEntryName(ZipArchiveEntry entry, Charset charset) {
+        if (entry.getNameSource() != ZipArchiveEntry.NameSource.NAME) {
+            return entry.getName();
         }
-
-        return result;
+        byte[] rawName = entry.getRawName();
+        if (rawName == null || isAscii(rawName)) {
+            return entry.getName();
+        }
+        return new String(rawName, charset);
     }
 
-    /**
-     * 解析 AR 文件
-     */
-    private static List<ArchiveFileInfo> extractAr(MultipartFile file) {
-        List<ArchiveFileInfo> result = new ArrayList<>();
-
-        try {
-            ByteArrayInputStream bais = new ByteArrayInputStream(file.getBytes());
-            ArArchiveInputStream ais = new ArArchiveInputStream(bais);
-
-            ArchiveEntry entry;
-            while ((entry = ais.getNextEntry()) != null) {
-                if (!entry.isDirectory()) {
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    byte[] buffer = new byte[8192];
-                    int len;
-                    while ((len = ais.read(buffer)) > 0) {
-                        baos.write(buffer, 0, len);
-                    }
-
-                    ArchiveFileInfo info = new ArchiveFileInfo();
-                    info.setName(entry.getName());
-                    info.setSize(entry.getSize());
-                    info.setData(baos.toByteArray());
-                    result.add(info);
-                }
+    private static boolean isAscii(byte[] bytes) {
+        if (bytes == null) {
+            return true;
+        }
+        for (byte b : bytes) {
+            if (b < 0) {
+                return false;
             }
-        } catch (IOException e) {
-            log.error("解析 AR 文件失败：{}", e.getMessage(), e);
         }
-
-        return result;
+        return true;
     }
 
     /**
-     * 解析 CPIO 文件
+     * 判断字节序列是否可以按指定编码严格解码（不允许替换字符）
      */
-    private static List<ArchiveFileInfo> extractCpio(MultipartFile file) {
-        List<ArchiveFileInfo> result = new ArrayList<>();
-
+    private static boolean canDecode(byte[] bytes, Charset charset) {
         try {
-            ByteArrayInputStream bais = new ByteArrayInputStream(file.getBytes());
-            CpioArchiveInputStream cis = new CpioArchiveInputStream(bais);
-
-            ArchiveEntry entry;
-            while ((entry = cis.getNextEntry()) != null) {
-                if (!entry.isDirectory()) {
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    byte[] buffer = new byte[8192];
-                    int len;
-                    while ((len = cis.read(buffer)) > 0) {
-                        baos.write(buffer, 0, len);
-                    }
-
-                    ArchiveFileInfo info = new ArchiveFileInfo();
-                    info.setName(entry.getName());
-                    info.setSize(entry.getSize());
-                    info.setData(baos.toByteArray());
-                    result.add(info);
-                }
-            }
-        } catch (IOException e) {
-            log.error("解析 CPIO 文件失败：{}", e.getMessage(), e);
+            charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(bytes));
+            return true;
+        } catch (CharacterCodingException e) {
+            return false;
         }
-
-        return result;
     }
 
     /**
      * 解析 7z 文件
-     * 使用 Seven-Zip-JBinding 库支持
-     * 注意：Seven-Zip-JBinding 需要本地文件，无法直接从内存解析
+     * 使用 Seven-Zip-JBinding 库支持，较小的文件直接在内存中随机读取
      */
-    private static List<ArchiveFileInfo> extract7z(MultipartFile file) {
-        List<ArchiveFileInfo> result = new ArrayList<>();
-
-        java.io.File tempFile = null;
+    private static void extract7z(MultipartFile file, EntryHandler handler, LimitGuard guard) throws Exception {
+        SeekableSource source = SeekableSource.open(file, ".7z");
         java.io.RandomAccessFile randomAccessFile = null;
+        net.sf.sevenzipjbinding.IInArchive inArchive = null;
         try {
-            // 创建临时文件（Seven-Zip-JBinding 需要本地文件）
-            tempFile = java.io.File.createTempFile("sevenzip", ".7z");
-            file.transferTo(tempFile);
-
-            // 使用 RandomAccessFile 包装
-            randomAccessFile = new java.io.RandomAccessFile(tempFile, "r");
+            net.sf.sevenzipjbinding.IInStream inStream;
+            if (source.data != null) {
+                inStream = new net.sf.sevenzipjbinding.util.ByteArrayStream(source.data, false);
+            } else {
+                randomAccessFile = new java.io.RandomAccessFile(source.file, "r");
+                inStream = new net.sf.sevenzipjbinding.impl.RandomAccessFileInStream(randomAccessFile);
+            }
 
             // 使用 Seven-Zip-JBinding 解析 7z 文件
-            net.sf.sevenzipjbinding.IInArchive inArchive = net.sf.sevenzipjbinding.SevenZip.openInArchive(
-                null, new net.sf.sevenzipjbinding.impl.RandomAccessFileInStream(randomAccessFile));
+            inArchive = net.sf.sevenzipjbinding.SevenZip.openInArchive(null, inStream);
 
             // 获取文件数量
             int itemCount = inArchive.getNumberOfItems();
@@ -614,9 +472,12 @@ public class ArchiveExtractor {
                     // 获取文件名
                     String fileName = (String) inArchive.getProperty(i, net.sf.sevenzipjbinding.PropID.PATH);
                     long fileSize = (Long) inArchive.getProperty(i, net.sf.sevenzipjbinding.PropID.SIZE);
+                    guard.checkEntry(fileName, fileSize);
 
-                    // 提取文件内容
+                    // 提取文件内容（7z 为固实压缩，单个条目在内存中解压，写入时按实际字节数检查限制）
                     final java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
+                    final java.io.OutputStream limited = guard.limit(baos, fileName);
+                    final ArchiveLimitException[] exceeded = {null};
                     net.sf.sevenzipjbinding.IArchiveExtractCallback callback = new net.sf.sevenzipjbinding.IArchiveExtractCallback() {
                         @Override
                         public void setCompleted(long completeValue) {
@@ -630,8 +491,12 @@ public class ArchiveExtractor {
                         public net.sf.sevenzipjbinding.ISequentialOutStream getStream(int index, net.sf.sevenzipjbinding.ExtractAskMode extractAskMode) {
                             return data1 -> {
                                 try {
-                                    baos.write(data1);
-                                } catch (Exception e) {
+                                    limited.write(data1);
+                                } catch (ArchiveLimitException e) {
+                                    // 超限时中止解压，异常在 extract 返回后重新抛出
+                                    exceeded[0] = e;
+                                    throw new net.sf.sevenzipjbinding.SevenZipException(e.getMessage());
+                                } catch (IOException e) {
                                     log.error("写入数据失败：{}", e.getMessage());
                                 }
                                 return data1.length;
@@ -650,22 +515,29 @@ public class ArchiveExtractor {
                         }
                     };
 
-                    inArchive.extract(new int[]{i}, false, callback);
+                    try {
+                        inArchive.extract(new int[]{i}, false, callback);
+                    } catch (net.sf.sevenzipjbinding.SevenZipException e) {
+                        if (exceeded[0] != null) {
+                            throw exceeded[0];
+                        }
+                        throw e;
+                    }
 
-                    ArchiveFileInfo info = new ArchiveFileInfo();
-                    info.setName(fileName);
-                    info.setSize(fileSize);
-                    info.setData(baos.toByteArray());
-                    result.add(info);
+                    handler.handle(fileName, fileSize, new ByteArrayInputStream(baos.toByteArray()));
                 }
             }
 
-            inArchive.close();
-            log.info("7z 文件解析完成，共 {} 个文件", result.size());
+            log.info("7z 文件解析完成，共 {} 个条目", itemCount);
 
-        } catch (Exception e) {
-            log.error("解析 7z 文件失败：{}", e.getMessage(), e);
         } finally {
+            if (inArchive != null) {
+                try {
+                    inArchive.close();
+                } catch (Exception e) {
+                    log.error("关闭 7z 文件失败：{}", e.getMessage());
+                }
+            }
             // 关闭 RandomAccessFile
             if (randomAccessFile != null) {
                 try {
@@ -674,64 +546,282 @@ public class ArchiveExtractor {
                     log.error("关闭 RandomAccessFile 失败：{}", e.getMessage());
                 }
             }
-            // 删除临时文件
-            if (tempFile != null && tempFile.exists()) {
-                tempFile.delete();
-            }
+            source.close();
         }
-
-        return result;
     }
 
     /**
      * 解析 RAR 文件
      * 使用 JunRAR 库支持
      */
-    private static List<ArchiveFileInfo> extractRar(MultipartFile file) {
-        List<ArchiveFileInfo> result = new ArrayList<>();
+    private static void extractRar(MultipartFile file, EntryHandler handler, LimitGuard guard) throws Exception {
+        try (SeekableSource source = SeekableSource.open(file, ".rar");
+             com.github.junrar.Archive archive = source.data != null
+                     ? new com.github.junrar.Archive(new ByteArrayInputStream(source.data))
+                     : new com.github.junrar.Archive(source.file)) {
+            int count = 0;
+            com.github.junrar.rarfile.FileHeader fileHeader = archive.nextFileHeader();
+
+            while (fileHeader != null) {
+                if (!fileHeader.isDirectory()) {
+                    String fileName = fileHeader.getFileNameString();
+                    guard.checkEntry(fileName, fileHeader.getFullUnpackSize());
+                    // 声明的解压大小不可信，写入缓冲区时按实际字节数检查限制
+                    java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
+                    try {
+                        archive.extractFile(fileHeader, guard.limit(baos, fileName));
+                    } catch (com.github.junrar.exception.RarException e) {
+                        // JunRAR 将写入时抛出的异常包装为 RarException
+                        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                            if (cause instanceof ArchiveLimitException) {
+                                throw (ArchiveLimitException) cause;
+                            }
+                        }
+                        throw e;
+                    }
+                    handler.handle(fileName, baos.size(), new ByteArrayInputStream(baos.toByteArray()));
+                    count++;
+                }
 
-        java.io.File tempFile = null;
-        try {
-            // 将 MultipartFile 转换为临时 File（JunRAR 需要 File 对象）
-            tempFile = java.io.File.createTempFile("rar", ".rar");
-            file.transferTo(tempFile);
+                fileHeader = archive.nextFileHeader();
+            }
 
-            // 使用 JunRAR 解析 RAR 文件
-            com.github.junrar.Archive archive = new com.github.junrar.Archive(tempFile);
+            log.info("RAR 文件解析完成，共 {} 个文件", count);
+        }
+    }
 
-            if (archive != null) {
-                com.github.junrar.rarfile.FileHeader fileHeader = archive.nextFileHeader();
+    /**
+     * 解析限制
+     */
+    public static final class Limits {
+        private final int maxEntries;
+        private final long maxEntrySize;
+        private final long maxTotalSize;
+        private final int maxCompressionRatio;
 
-                while (fileHeader != null) {
-                    if (!fileHeader.isDirectory()) {
-                        java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
-                        archive.extractFile(fileHeader, baos);
-
-                        ArchiveFileInfo info = new ArchiveFileInfo();
-                        info.setName(fileHeader.getFileNameString());
-                        info.setSize(baos.size());
-                        info.setData(baos.toByteArray());
-                        result.add(info);
-                    }
+        /**
+         * @param maxEntries          最大条目数
+         * @param maxEntrySize        单个条目最大解压大小（字节）
+         * @param maxTotalSize        最大解压总大小（字节）
+         * @param maxCompressionRatio 最大压缩比（解压总大小 / 压缩文件大小）
+         */
+        public Limits(int maxEntries, long maxEntrySize, long maxTotalSize, int maxCompressionRatio) {
+            this.maxEntries = maxEntries;
+            this.maxEntrySize = maxEntrySize;
+            this.maxTotalSize = maxTotalSize;
+            this.maxCompressionRatio = maxCompressionRatio;
+        }
+    }
+
+    /**
+     * 单次解析的资源计数
+     * 在条目回调前检查条目数和声明大小，读取条目内容时按实际解压字节数检查大小和压缩比，超限立即抛出 {@link ArchiveLimitException}
+     */
+    private static final class LimitGuard {
+        private final Limits limits;
+        private final long archiveSize;
+        private int entryCount;
+        private long declaredTotalSize;
+        private long totalSize;
+
+        LimitGuard(Limits limits, long archiveSize) {
+            this.limits = limits;
+            this.archiveSize = archiveSize;
+        }
 
-                    fileHeader = archive.nextFileHeader();
+        EntryHandler wrap(EntryHandler handler) {
+            return (name, size, in) -> {
+                checkEntry(name, size);
+                handler.handle(name, size, new LimitedInputStream(in, name));
+            };
+        }
+
+        /**
+         * 登记一个条目，检查条目数、声明的解压大小及声明大小之和
+         */
+        void checkEntry(String name, long size) {
+            entryCount++;
+            if (entryCount > limits.maxEntries) {
+                throw new ArchiveLimitException(ArchiveLimitException.Reason.ENTRY_COUNT, limits.maxEntries, entryCount, name);
+            }
+            checkEntrySize(name, size);
+            if (size > 0) {
+                declaredTotalSize += size;
+                if (declaredTotalSize > limits.maxTotalSize) {
+                    throw new ArchiveLimitException(ArchiveLimitException.Reason.TOTAL_SIZE, limits.maxTotalSize, declaredTotalSize, name);
                 }
             }
+        }
 
-            archive.close();
+        /**
+         * 检查条目声明的解压大小（未知为 -1 时跳过）
+         */
+        void checkEntrySize(String name, long size) {
+            if (size > limits.maxEntrySize) {
+                throw new ArchiveLimitException(ArchiveLimitException.Reason.ENTRY_SIZE, limits.maxEntrySize, size, name);
+            }
+            if (size > 0 && totalSize + size > limits.maxTotalSize) {
+                throw new ArchiveLimitException(ArchiveLimitException.Reason.TOTAL_SIZE, limits.maxTotalSize, totalSize + size, name);
+            }
+        }
 
-            log.info("RAR 文件解析完成，共 {} 个文件", result.size());
+        void count(String name, long entrySize, long bytes) {
+            totalSize += bytes;
+            if (entrySize > limits.maxEntrySize) {
+                throw new ArchiveLimitException(ArchiveLimitException.Reason.ENTRY_SIZE, limits.maxEntrySize, entrySize, name);
+            }
+            if (totalSize > limits.maxTotalSize) {
+                throw new ArchiveLimitException(ArchiveLimitException.Reason.TOTAL_SIZE, limits.maxTotalSize, totalSize, name);
+            }
+            if (archiveSize > 0 && totalSize > RATIO_CHECK_MIN_BYTES && totalSize / archiveSize > limits.maxCompressionRatio) {
+                throw new ArchiveLimitException(ArchiveLimitException.Reason.COMPRESSION_RATIO, limits.maxCompressionRatio, totalSize / archiveSize, name);
+            }
+        }
 
-        } catch (Exception e) {
-            log.error("解析 RAR 文件失败：{}", e.getMessage(), e);
-        } finally {
-            // 删除临时文件
-            if (tempFile != null && tempFile.exists()) {
+        /**
+         * 包装条目解压缓冲区，写入时按实际字节数检查限制，超限在写入前抛出
+         */
+        java.io.OutputStream limit(java.io.OutputStream out, String name) {
+            return new LimitedOutputStream(out, name);
+        }
+
+        /**
+         * 统计条目实际解压字节数的输出流
+         */
+        private final class LimitedOutputStream extends java.io.FilterOutputStream {
+            private final String name;
+            private long entrySize;
+
+            LimitedOutputStream(java.io.OutputStream out, String name) {
+                super(out);
+                this.name = name;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                entrySize++;
+                count(name, entrySize, 1);
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                entrySize += len;
+                count(name, entrySize, len);
+                out.write(b, off, len);
+            }
+        }
+
+        /**
+         * 统计条目实际解压字节数的输入流
+         */
+        private final class LimitedInputStream extends java.io.FilterInputStream {
+            private final String name;
+            private long entrySize;
+
+            LimitedInputStream(java.io.InputStream in, String name) {
+                super(in);
+                this.name = name;
+            }
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    entrySize++;
+                    count(name, entrySize, 1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (n > 0) {
+                    entrySize += n;
+                    count(name, entrySize, n);
+                }
+                return n;
+            }
+
+            @Override
+            public void close() {
+                // 条目输入流由解析方法负责关闭
+            }
+        }
+    }
+
+    /**
+     * 可随机读取的压缩文件来源
+     * 本地落盘文件直接使用；不超过内存阈值的上传文件读入内存；其余复制到临时文件，关闭时删除。
+     * 同一上传文件需要多次解析时，调用方应先落盘为 {@link LocalMultipartFile}，避免每次解析都复制一遍
+     */
+    private static final class SeekableSource implements java.io.Closeable {
+        private final byte[] data;
+        private final java.io.File file;
+        private final boolean temporary;
+
+        private SeekableSource(byte[] data, java.io.File file) {
+            this(data, file, false);
+        }
+
+        private SeekableSource(byte[] data, java.io.File file, boolean temporary) {
+            this.data = data;
+            this.file = file;
+            this.temporary = temporary;
+        }
+
+        static SeekableSource open(MultipartFile file, String suffix) throws IOException {
+            if (file instanceof LocalMultipartFile) {
+                return new SeekableSource(null, ((LocalMultipartFile) file).getFile());
+            }
+            if (file.getSize() <= inMemoryThreshold) {
+                return new SeekableSource(file.getBytes(), null);
+            }
+            // 通过输入流复制，不使用 transferTo：Servlet 容器的 transferTo 会移动已落盘的上传文件，之后无法再次读取
+            java.io.File tempFile = java.io.File.createTempFile("archive", suffix);
+            try (InputStream in = file.getInputStream()) {
+                Files.copy(in, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException | RuntimeException e) {
                 tempFile.delete();
+                throw e;
             }
+            return new SeekableSource(null, tempFile, true);
         }
 
-        return result;
+        org.apache.commons.compress.archivers.zip.ZipFile openZip() throws IOException {
+            org.apache.commons.compress.archivers.zip.ZipFile.Builder builder = org.apache.commons.compress.archivers.zip.ZipFile.builder()
+                    .setCharset(StandardCharsets.UTF_8);
+            if (data != null) {
+                builder.setSeekableByteChannel(new org.apache.commons.compress.utils.SeekableInMemoryByteChannel(data));
+            } else {
+                builder.setFile(file);
+            }
+            return builder.get();
+        }
+
+        @Override
+        public void close() {
+            if (temporary && file.exists() && !file.delete()) {
+                log.warn("删除临时文件失败：{}", file);
+            }
+        }
+    }
+
+    /**
+     * 压缩包条目处理器
+     */
+    @FunctionalInterface
+    public interface EntryHandler {
+
+        /**
+         * 处理一个文件条目
+         *
+         * @param name 条目名称（含压缩包内路径）
+         * @param size 声明的解压后大小，未知时为 -1
+         * @param in   条目内容输入流，仅在回调期间有效，无需关闭
+         */
+        void handle(String name, long size, java.io.InputStream in) throws Exception;
     }
 
     /**
@@ -0,0 +1,77 @@
+package com.example.demo.util;
+
+/**
+ * 压缩文件超出解析限制异常（条目数、单个条目大小、解压总大小或压缩比）
+ * 解析过程中一旦超限立即抛出并停止解压
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+public class ArchiveLimitException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Reason reason;
+
+    private final long limit;
+
+    private final long actual;
+
+    private final String entryName;
+
+    public ArchiveLimitException(Reason reason, long limit, long actual, String entryName) {
+        super(buildMessage(reason, limit, actual, entryName));
+        this.reason = reason;
+        this.limit = limit;
+        this.actual = actual;
+        this.entryName = entryName;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    public long getActual() {
+        return actual;
+    }
+
+    public String getEntryName() {
+        return entryName;
+    }
+
+    /**
+     * 错误编号，用于 Response 的 code 字段
+     */
+    public String getCode() {
+        return "ARCHIVE_" + reason.name();
+    }
+
+    private static String buildMessage(Reason reason, long limit, long actual, String entryName) {
+        String message = String.format("压缩文件%s超出限制（上限：%d，实际：%d）", reason.getDescription(), limit, actual);
+        return entryName == null ? message : message + "，条目：" + entryName;
+    }
+
+    /**
+     * 超限类型
+     */
+    public enum Reason {
+        ENTRY_COUNT("条目数"),
+        ENTRY_SIZE("单个文件解压大小"),
+        TOTAL_SIZE("解压总大小"),
+        COMPRESSION_RATIO("压缩比");
+
+        private final String description;
+
+        Reason(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+}
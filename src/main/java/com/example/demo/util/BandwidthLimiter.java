@@ -0,0 +1,107 @@
+package com.example.demo.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+/**
+ * 带宽限制器（令牌桶）
+ * 每秒补充 bytesPerSecond 个令牌，桶容量为一秒的流量；多个线程共享同一个限制器时共同受总带宽约束
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+public class BandwidthLimiter {
+
+    private final long bytesPerSecond;
+
+    private double tokens;
+
+    private long lastRefillNanos;
+
+    /**
+     * @param bytesPerSecond 每秒允许的字节数，小于等于0表示不限速
+     */
+    public BandwidthLimiter(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+        this.tokens = Math.max(0, bytesPerSecond);
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * 是否限速
+     */
+    public boolean isLimited() {
+        return bytesPerSecond > 0;
+    }
+
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * 获取指定字节数的令牌，令牌不足时阻塞等待
+     *
+     * @param bytes 字节数
+     */
+    public void acquire(int bytes) throws InterruptedException {
+        if (!isLimited() || bytes <= 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            refill();
+            // 先扣减令牌（允许为负），由本线程按欠额等待，其他线程随后排队
+            tokens -= bytes;
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens * 1_000_000_000L / bytesPerSecond);
+        }
+        if (waitNanos > 0) {
+            Thread.sleep(waitNanos / 1_000_000L, (int) (waitNanos % 1_000_000L));
+        }
+    }
+
+    /**
+     * 包装输入流，读取时按限制器的速率限速
+     */
+    public InputStream wrap(InputStream in) {
+        if (!isLimited()) {
+            return in;
+        }
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = in.read();
+                if (b >= 0) {
+                    throttle(1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = in.read(b, off, len);
+                if (n > 0) {
+                    throttle(n);
+                }
+                return n;
+            }
+        };
+    }
+
+    private void throttle(int bytes) throws IOException {
+        try {
+            acquire(bytes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("限速等待被中断");
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double added = (now - lastRefillNanos) * (double) bytesPerSecond / 1_000_000_000L;
+        tokens = Math.min(bytesPerSecond, tokens + added);
+        lastRefillNanos = now;
+    }
+}
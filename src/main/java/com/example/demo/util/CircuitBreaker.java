@@ -0,0 +1,137 @@
+package com.example.demo.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 熔断器
+ * 连续失败达到阈值后进入打开状态，期间所有请求立即失败；
+ * 打开一段时间后进入半开状态放行一次试探请求，成功则关闭，失败则重新打开
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        CLOSED(0, "关闭"),
+        OPEN(1, "打开"),
+        HALF_OPEN(2, "半开");
+
+        private final int code;
+        private final String description;
+
+        State(int code, String description) {
+            this.code = code;
+            this.description = description;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private final String name;
+
+    private final int failureThreshold;
+
+    private final long openDurationMillis;
+
+    private State state = State.CLOSED;
+
+    private int consecutiveFailures;
+
+    private long openedAt;
+
+    /* 半开状态下是否已有试探请求在执行 */
+    private boolean trialInFlight;
+
+    /**
+     * @param name               名称（用于日志，如 SFTP 服务器地址）
+     * @param failureThreshold   连续失败多少次后打开
+     * @param openDurationMillis 打开状态持续时间（毫秒）
+     */
+    public CircuitBreaker(String name, int failureThreshold, long openDurationMillis) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationMillis = Math.max(0L, openDurationMillis);
+    }
+
+    /**
+     * 请求前调用，熔断中则立即抛出异常
+     *
+     * @throws CircuitOpenException 熔断器打开（或半开且已有试探请求）
+     */
+    public synchronized void acquire() throws CircuitOpenException {
+        if (state == State.OPEN) {
+            long remaining = openedAt + openDurationMillis - System.currentTimeMillis();
+            if (remaining > 0) {
+                throw new CircuitOpenException(name, remaining);
+            }
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+            log.info("熔断器进入半开状态，放行试探请求：{}", name);
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                throw new CircuitOpenException(name, 0);
+            }
+            trialInFlight = true;
+        }
+    }
+
+    /**
+     * 请求成功
+     */
+    public synchronized void recordSuccess() {
+        if (state != State.CLOSED) {
+            log.info("熔断器关闭，服务已恢复：{}", name);
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    /**
+     * 请求失败
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            log.warn("熔断器打开：{}，连续失败 {} 次，{} 毫秒内快速失败", name, consecutiveFailures, openDurationMillis);
+        }
+    }
+
+    /**
+     * 请求结束但结果与服务可用性无关（如调用方的数据错误）
+     * 只释放半开状态下的试探名额，不改变状态和连续失败次数
+     */
+    public synchronized void release() {
+        trialInFlight = false;
+    }
+
+    /**
+     * 当前是否处于打开状态（打开时长已到期的视为可试探）
+     */
+    public synchronized boolean isOpen() {
+        return state == State.OPEN && System.currentTimeMillis() < openedAt + openDurationMillis;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
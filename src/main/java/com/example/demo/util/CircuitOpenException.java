@@ -0,0 +1,21 @@
+package com.example.demo.util;
+
+import com.jcraft.jsch.JSchException;
+
+/**
+ * 熔断器打开时的快速失败异常
+ * 继承 JSchException，调用方按 SFTP 连接失败处理即可
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+public class CircuitOpenException extends JSchException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(String name, long remainingMillis) {
+        super(remainingMillis > 0
+                ? String.format("SFTP服务暂不可用（熔断中）：%s，%d 毫秒后重试", name, remainingMillis)
+                : "SFTP服务暂不可用（熔断试探中）：" + name);
+    }
+}
@@ -0,0 +1,393 @@
+package com.example.demo.util;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Chunk;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Image;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.hwpf.HWPFDocument;
+import org.apache.poi.hwpf.model.PicturesTable;
+import org.apache.poi.hwpf.model.StyleDescription;
+import org.apache.poi.hwpf.usermodel.CharacterRun;
+import org.apache.poi.hwpf.usermodel.HeaderStories;
+import org.apache.poi.hwpf.usermodel.Paragraph;
+import org.apache.poi.hwpf.usermodel.Picture;
+import org.apache.poi.hwpf.usermodel.Range;
+import org.apache.poi.hwpf.usermodel.Table;
+import org.apache.poi.hwpf.usermodel.TableCell;
+import org.apache.poi.hwpf.usermodel.TableRow;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * DOC（Word 97-2003）转 PDF 转换器
+ * 基于 HWPF 按文档顺序输出段落、表格、内嵌图片、分页符和基本样式，排版规则与 DOCX 转换一致，
+ * 使用共享的中文字体，PDF 按页写入输出流
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+@Slf4j
+public class DocPdfConverter {
+
+    /* Word 二进制文本中的控制字符 */
+    private static final char CELL_MARK = '\u0007';
+    private static final char PAGE_BREAK = '\u000C';
+    private static final char LINE_BREAK = '\u000B';
+    private static final char FIELD_BEGIN = '\u0013';
+    private static final char FIELD_SEPARATOR = '\u0014';
+    private static final char FIELD_END = '\u0015';
+
+    private final HWPFDocument source;
+
+    private final PicturesTable pictures;
+
+    private final Document pdf;
+
+    /* 当前是否处于域代码中（域代码不输出，只输出域结果） */
+    private boolean inFieldCode;
+
+    private int paragraphCount;
+
+    private int tableCount;
+
+    private int pictureCount;
+
+    private DocPdfConverter(HWPFDocument source, Document pdf) {
+        this.source = source;
+        this.pictures = source.getPicturesTable();
+        this.pdf = pdf;
+    }
+
+    /**
+     * 将 DOC 转换为 PDF 并写入输出流（不关闭输出流）
+     *
+     * @param in  DOC 输入流
+     * @param out PDF 输出流
+     */
+    public static void convert(InputStream in, OutputStream out) throws IOException, DocumentException {
+        try (HWPFDocument document = new HWPFDocument(in)) {
+            Document pdfDocument = new Document();
+            PdfWriter writer = PdfWriter.getInstance(pdfDocument, out);
+            writer.setCloseStream(false);
+            writer.setPageEvent(headerFooterEvent(document));
+            pdfDocument.open();
+
+            DocPdfConverter converter = new DocPdfConverter(document, pdfDocument);
+            converter.writeBody(document.getRange());
+            if (converter.paragraphCount == 0 && converter.tableCount == 0 && converter.pictureCount == 0) {
+                log.warn("警告：DOC 文件中没有提取到任何内容！");
+                // 空文档也输出一个空白页，避免 iText 因无页面而报错
+                pdfDocument.add(Chunk.NEWLINE);
+            }
+            pdfDocument.close();
+
+            log.info("DOC 转 PDF 完成，共 {} 个段落、{} 个表格、{} 张图片", converter.paragraphCount, converter.tableCount, converter.pictureCount);
+        }
+    }
+
+    private void writeBody(Range range) throws DocumentException {
+        int count = range.numParagraphs();
+        for (int i = 0; i < count; i++) {
+            Paragraph paragraph = range.getParagraph(i);
+            if (paragraph.isInTable() && paragraph.getTableLevel() == 1) {
+                Table table = tableOf(range, paragraph);
+                if (table != null) {
+                    writeTable(table);
+                    i += table.numParagraphs() - 1;
+                    continue;
+                }
+            }
+            writeParagraph(paragraph);
+        }
+    }
+
+    private Table tableOf(Range range, Paragraph paragraph) {
+        try {
+            return range.getTable(paragraph);
+        } catch (IllegalArgumentException e) {
+            // 表格结构异常时按普通段落输出
+            log.debug("无法识别表格结构：{}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 输出正文段落，遇到分页符时换页
+     */
+    private void writeParagraph(Paragraph paragraph) throws DocumentException {
+        if (paragraph.pageBreakBefore()) {
+            pdf.newPage();
+        }
+
+        com.itextpdf.text.Paragraph current = newParagraph(paragraph);
+        Font paragraphFont = baseFont(paragraph);
+        for (int i = 0; i < paragraph.numCharacterRuns(); i++) {
+            appendRun(current, paragraph.getCharacterRun(i), paragraphFont, pdf.right() - pdf.left(), true);
+        }
+        if (current.isEmpty()) {
+            // 空段落保留为空行，维持原文档的段间距
+            current.add(new Chunk(" ", current.getFont()));
+        }
+        pdf.add(current);
+        paragraphCount++;
+    }
+
+    /**
+     * 输出表格，横向合并的单元格转换为跨列，行数较多时分批提交
+     */
+    private void writeTable(Table table) throws DocumentException {
+        int columns = 0;
+        for (int r = 0; r < table.numRows(); r++) {
+            columns = Math.max(columns, table.getRow(r).numCells());
+        }
+        if (columns == 0) {
+            return;
+        }
+
+        PdfPTable pdfTable = new PdfPTable(columns);
+        pdfTable.setWidthPercentage(100);
+        pdfTable.setSpacingBefore(4f);
+        pdfTable.setSpacingAfter(4f);
+        if (table.getRow(0).isTableHeader()) {
+            pdfTable.setHeaderRows(1);
+        }
+        pdfTable.setComplete(false);
+
+        float cellWidth = (pdf.right() - pdf.left()) / columns;
+        for (int r = 0; r < table.numRows(); r++) {
+            TableRow row = table.getRow(r);
+            PdfPCell pending = null;
+            for (int c = 0; c < row.numCells(); c++) {
+                TableCell cell = row.getCell(c);
+                if (cell.isMerged() && !cell.isFirstMerged() && pending != null) {
+                    pending.setColspan(pending.getColspan() + 1);
+                    continue;
+                }
+                if (pending != null) {
+                    pdfTable.addCell(pending);
+                }
+                pending = toCell(cell, cellWidth);
+            }
+            if (pending != null) {
+                pdfTable.addCell(pending);
+            }
+            pdfTable.completeRow();
+            if ((r + 1) % WordPdfLayout.TABLE_FLUSH_ROWS == 0) {
+                pdf.add(pdfTable);
+            }
+        }
+        pdfTable.setComplete(true);
+        pdf.add(pdfTable);
+        tableCount++;
+    }
+
+    private PdfPCell toCell(TableCell cell, float cellWidth) {
+        PdfPCell pdfCell = new PdfPCell();
+        pdfCell.setPadding(3f);
+        for (int i = 0; i < cell.numParagraphs(); i++) {
+            Paragraph paragraph = cell.getParagraph(i);
+            com.itextpdf.text.Paragraph content = newParagraph(paragraph);
+            Font paragraphFont = baseFont(paragraph);
+            for (int j = 0; j < paragraph.numCharacterRuns(); j++) {
+                appendRun(content, paragraph.getCharacterRun(j), paragraphFont, cellWidth - 6f, false);
+            }
+            pdfCell.addElement(content);
+        }
+        return pdfCell;
+    }
+
+    /**
+     * 按段落格式（对齐、缩进、段前段后间距、标题样式）创建 PDF 段落
+     */
+    private com.itextpdf.text.Paragraph newParagraph(Paragraph paragraph) {
+        com.itextpdf.text.Paragraph result = new com.itextpdf.text.Paragraph();
+        result.setFont(baseFont(paragraph));
+        result.setAlignment(alignment(paragraph.getJustification()));
+        if (paragraph.getIndentFromLeft() > 0) {
+            result.setIndentationLeft(paragraph.getIndentFromLeft() / WordPdfLayout.TWIPS_PER_POINT);
+        }
+        if (paragraph.getSpacingBefore() > 0) {
+            result.setSpacingBefore(paragraph.getSpacingBefore() / WordPdfLayout.TWIPS_PER_POINT);
+        }
+        if (paragraph.getSpacingAfter() > 0) {
+            result.setSpacingAfter(paragraph.getSpacingAfter() / WordPdfLayout.TWIPS_PER_POINT);
+        }
+        return result;
+    }
+
+    /**
+     * 按原顺序追加文本片段中的文字、制表符、换行及内嵌图片，跳过域代码、删除和隐藏的文字
+     * 正文中遇到分页符时先输出已有内容并换页，表格单元格内的分页符按换行处理
+     */
+    private void appendRun(com.itextpdf.text.Paragraph target, CharacterRun run, Font paragraphFont, float maxWidth, boolean allowPageBreak) {
+        if (run.isMarkedDeleted() || run.isVanished()) {
+            return;
+        }
+        if (pictures.hasPicture(run)) {
+            Image image = toImage(pictures.extractPicture(run, false), maxWidth);
+            if (image != null) {
+                target.add(new Chunk(image, 0, 0, true));
+                pictureCount++;
+            }
+            return;
+        }
+
+        Font font = runFont(run, paragraphFont);
+        String text = run.text();
+        StringBuilder buffer = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            switch (ch) {
+                case FIELD_BEGIN:
+                    inFieldCode = true;
+                    break;
+                case FIELD_SEPARATOR:
+                case FIELD_END:
+                    inFieldCode = false;
+                    break;
+                case PAGE_BREAK:
+                    if (allowPageBreak) {
+                        flushText(target, buffer, font);
+                        addAndClear(target);
+                        pdf.newPage();
+                    } else {
+                        buffer.append('\n');
+                    }
+                    break;
+                case LINE_BREAK:
+                    buffer.append('\n');
+                    break;
+                case '\t':
+                    buffer.append('\t');
+                    break;
+                default:
+                    // 段落结束符、单元格标记及其他控制字符不输出
+                    if (!inFieldCode && ch >= ' ' && ch != CELL_MARK) {
+                        buffer.append(ch);
+                    }
+                    break;
+            }
+        }
+        flushText(target, buffer, font);
+    }
+
+    private Image toImage(Picture picture, float maxWidth) {
+        if (picture == null) {
+            return null;
+        }
+        try {
+            Image image = Image.getInstance(picture.getContent());
+            // 按文档中的显示尺寸（缇 × 缩放千分比）输出，超出可用宽度或页面高度时等比缩小
+            float width = picture.getDxaGoal() * picture.getHorizontalScalingFactor() / 1000f / WordPdfLayout.TWIPS_PER_POINT;
+            float height = picture.getDyaGoal() * picture.getVerticalScalingFactor() / 1000f / WordPdfLayout.TWIPS_PER_POINT;
+            if (width > 0 && height > 0) {
+                image.scaleAbsolute(width, height);
+            }
+            float maxHeight = pdf.top() - pdf.bottom();
+            if (image.getScaledWidth() > maxWidth || image.getScaledHeight() > maxHeight) {
+                image.scaleToFit(maxWidth, maxHeight);
+            }
+            return image;
+        } catch (Exception e) {
+            log.warn("图片（{}）无法转换，已跳过：{}", picture.suggestFileExtension(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 段落默认字体（标题样式使用更大的粗体）
+     */
+    private Font baseFont(Paragraph paragraph) {
+        String styleName = null;
+        StyleDescription style = source.getStyleSheet().getStyleDescription(paragraph.getStyleIndex());
+        if (style != null) {
+            styleName = style.getName();
+        }
+        return WordPdfLayout.paragraphFont(WordPdfLayout.headingLevel(styleName));
+    }
+
+    private static Font runFont(CharacterRun run, Font paragraphFont) {
+        // DOC 中字号以半磅为单位，样式中的标题字号已体现在文字片段上
+        float size = run.getFontSize() > 0 ? run.getFontSize() / 2f : paragraphFont.getSize();
+
+        int style = paragraphFont.getStyle();
+        if (run.isBold()) {
+            style |= Font.BOLD;
+        }
+        if (run.isItalic()) {
+            style |= Font.ITALIC;
+        }
+        if (run.getUnderlineCode() != 0) {
+            style |= Font.UNDERLINE;
+        }
+        if (run.isStrikeThrough()) {
+            style |= Font.STRIKETHRU;
+        }
+        return PdfFontRegistry.getFont(size, style, color(run.getIco24()));
+    }
+
+    /**
+     * 24 位颜色（0x00BBGGRR），-1 表示自动
+     */
+    private static BaseColor color(int ico24) {
+        if (ico24 == -1) {
+            return null;
+        }
+        return new BaseColor(ico24 & 0xFF, (ico24 >> 8) & 0xFF, (ico24 >> 16) & 0xFF);
+    }
+
+    private static int alignment(int justification) {
+        switch (justification) {
+            case 1:
+                return Element.ALIGN_CENTER;
+            case 2:
+                return Element.ALIGN_RIGHT;
+            case 3:
+            case 4:
+                return Element.ALIGN_JUSTIFIED;
+            default:
+                return Element.ALIGN_LEFT;
+        }
+    }
+
+    private static void flushText(com.itextpdf.text.Paragraph target, StringBuilder text, Font font) {
+        if (text.length() > 0) {
+            target.add(new Chunk(text.toString(), font));
+            text.setLength(0);
+        }
+    }
+
+    /**
+     * 输出段落已有内容并清空，保留段落格式继续接收分页符之后的内容
+     */
+    private void addAndClear(com.itextpdf.text.Paragraph target) {
+        if (target.isEmpty()) {
+            return;
+        }
+        try {
+            pdf.add(target);
+        } catch (DocumentException e) {
+            throw new IllegalStateException("写入 PDF 段落失败：" + e.getMessage(), e);
+        }
+        target.clear();
+    }
+
+    private static WordPdfLayout.HeaderFooterEvent headerFooterEvent(HWPFDocument document) {
+        try {
+            HeaderStories stories = new HeaderStories(document);
+            return new WordPdfLayout.HeaderFooterEvent(stories.getOddHeader(), stories.getOddFooter());
+        } catch (RuntimeException e) {
+            log.debug("读取 DOC 页眉页脚失败：{}", e.getMessage());
+            return new WordPdfLayout.HeaderFooterEvent(null, null);
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package com.example.demo.util;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Chunk;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Image;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.xwpf.model.XWPFHeaderFooterPolicy;
+import org.apache.poi.xwpf.usermodel.IBodyElement;
+import org.apache.poi.xwpf.usermodel.ParagraphAlignment;
+import org.apache.poi.xwpf.usermodel.UnderlinePatterns;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFHeaderFooter;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFPicture;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+import org.apache.poi.xwpf.usermodel.XWPFStyle;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.apache.poi.xwpf.usermodel.XWPFTableCell;
+import org.apache.poi.xwpf.usermodel.XWPFTableRow;
+import org.apache.xmlbeans.XmlCursor;
+import org.apache.xmlbeans.XmlObject;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTBr;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTTcPr;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTText;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.STBrType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * DOCX 转 PDF 转换器
+ * 按文档顺序输出段落、表格、内嵌图片、分页符和基本样式（粗体、斜体、下划线、删除线、字号、颜色、对齐、标题），
+ * 页眉页脚文本输出到每一页。PDF 按页写入输出流，大表格分批提交，不在内存中保留整份 PDF
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+@Slf4j
+public class DocxPdfConverter {
+
+    private final XWPFDocument source;
+
+    private final Document pdf;
+
+    private int paragraphCount;
+
+    private int tableCount;
+
+    private int pictureCount;
+
+    private DocxPdfConverter(XWPFDocument source, Document pdf) {
+        this.source = source;
+        this.pdf = pdf;
+    }
+
+    /**
+     * 将 DOCX 转换为 PDF 并写入输出流（不关闭输出流）
+     *
+     * @param in  DOCX 输入流
+     * @param out PDF 输出流
+     */
+    public static void convert(InputStream in, OutputStream out) throws IOException, DocumentException {
+        try (XWPFDocument document = new XWPFDocument(in)) {
+            Document pdfDocument = new Document();
+            PdfWriter writer = PdfWriter.getInstance(pdfDocument, out);
+            writer.setCloseStream(false);
+            XWPFHeaderFooterPolicy policy = document.getHeaderFooterPolicy();
+            writer.setPageEvent(new WordPdfLayout.HeaderFooterEvent(
+                    policy == null ? null : textOf(policy.getDefaultHeader()),
+                    policy == null ? null : textOf(policy.getDefaultFooter())));
+            pdfDocument.open();
+
+            DocxPdfConverter converter = new DocxPdfConverter(document, pdfDocument);
+            converter.writeBody(document.getBodyElements());
+            if (converter.paragraphCount == 0 && converter.tableCount == 0 && converter.pictureCount == 0) {
+                log.warn("警告：DOCX 文件中没有提取到任何内容！");
+                // 空文档也输出一个空白页，避免 iText 因无页面而报错
+                pdfDocument.add(Chunk.NEWLINE);
+            }
+            pdfDocument.close();
+
+            log.info("DOCX 转 PDF 完成，共 {} 个段落、{} 个表格、{} 张图片", converter.paragraphCount, converter.tableCount, converter.pictureCount);
+        }
+    }
+
+    private void writeBody(List<IBodyElement> elements) throws DocumentException {
+        for (IBodyElement element : elements) {
+            if (element instanceof XWPFParagraph) {
+                writeParagraph((XWPFParagraph) element);
+            } else if (element instanceof XWPFTable) {
+                writeTable((XWPFTable) element);
+            }
+        }
+    }
+
+    /**
+     * 输出正文段落，遇到分页符时换页
+     */
+    private void writeParagraph(XWPFParagraph paragraph) throws DocumentException {
+        if (paragraph.isPageBreak()) {
+            newPage();
+        }
+
+        Paragraph current = newParagraph(paragraph);
+        for (XWPFRun run : paragraph.getRuns()) {
+            appendRun(current, run, paragraph, pdf.right() - pdf.left(), true);
+        }
+        if (current.isEmpty()) {
+            // 空段落保留为空行，维持原文档的段间距
+            current.add(new Chunk(" ", current.getFont()));
+        }
+        pdf.add(current);
+        paragraphCount++;
+    }
+
+    /**
+     * 输出顶层表格，行数较多时分批提交
+     */
+    private void writeTable(XWPFTable table) throws DocumentException {
+        PdfPTable pdfTable = newTable(table);
+        if (pdfTable == null) {
+            return;
+        }
+        pdfTable.setComplete(false);
+
+        int rows = 0;
+        for (XWPFTableRow row : table.getRows()) {
+            addRow(pdfTable, row, pdf.right() - pdf.left());
+            if (++rows % WordPdfLayout.TABLE_FLUSH_ROWS == 0) {
+                pdf.add(pdfTable);
+            }
+        }
+        pdfTable.setComplete(true);
+        pdf.add(pdfTable);
+        tableCount++;
+    }
+
+    /**
+     * 构建嵌套在单元格中的表格
+     */
+    private PdfPTable buildTable(XWPFTable table, float width) {
+        PdfPTable pdfTable = newTable(table);
+        if (pdfTable == null) {
+            return null;
+        }
+        for (XWPFTableRow row : table.getRows()) {
+            addRow(pdfTable, row, width);
+        }
+        return pdfTable;
+    }
+
+    private PdfPTable newTable(XWPFTable table) {
+        int columns = 0;
+        for (XWPFTableRow row : table.getRows()) {
+            int count = 0;
+            for (XWPFTableCell cell : row.getTableCells()) {
+                count += colspan(cell);
+            }
+            columns = Math.max(columns, count);
+        }
+        if (columns == 0) {
+            return null;
+        }
+
+        PdfPTable pdfTable = new PdfPTable(columns);
+        pdfTable.setWidthPercentage(100);
+        pdfTable.setSpacingBefore(4f);
+        pdfTable.setSpacingAfter(4f);
+        if (!table.getRows().isEmpty() && table.getRows().get(0).isRepeatHeader()) {
+            pdfTable.setHeaderRows(1);
+        }
+        return pdfTable;
+    }
+
+    private void addRow(PdfPTable pdfTable, XWPFTableRow row, float tableWidth) {
+        float cellWidth = tableWidth / pdfTable.getNumberOfColumns();
+        for (XWPFTableCell cell : row.getTableCells()) {
+            int span = colspan(cell);
+            PdfPCell pdfCell = new PdfPCell();
+            pdfCell.setColspan(span);
+            pdfCell.setPadding(3f);
+            BaseColor background = WordPdfLayout.parseColor(cell.getColor());
+            if (background != null) {
+                pdfCell.setBackgroundColor(background);
+            }
+            for (IBodyElement element : cell.getBodyElements()) {
+                if (element instanceof XWPFParagraph) {
+                    XWPFParagraph paragraph = (XWPFParagraph) element;
+                    Paragraph content = newParagraph(paragraph);
+                    for (XWPFRun run : paragraph.getRuns()) {
+                        appendRun(content, run, paragraph, cellWidth * span - 6f, false);
+                    }
+                    pdfCell.addElement(content);
+                } else if (element instanceof XWPFTable) {
+                    PdfPTable nested = buildTable((XWPFTable) element, cellWidth * span - 6f);
+                    if (nested != null) {
+                        pdfCell.addElement(nested);
+                    }
+                }
+            }
+            pdfTable.addCell(pdfCell);
+        }
+        pdfTable.completeRow();
+    }
+
+    /**
+     * 按段落格式（对齐、缩进、段前段后间距、标题样式）创建 PDF 段落
+     */
+    private Paragraph newParagraph(XWPFParagraph paragraph) {
+        Paragraph result = new Paragraph();
+        result.setFont(baseFont(paragraph));
+        result.setAlignment(alignment(paragraph.getAlignment()));
+        if (paragraph.getIndentationLeft() > 0) {
+            result.setIndentationLeft(paragraph.getIndentationLeft() / WordPdfLayout.TWIPS_PER_POINT);
+        }
+        if (paragraph.getSpacingBefore() > 0) {
+            result.setSpacingBefore(paragraph.getSpacingBefore() / WordPdfLayout.TWIPS_PER_POINT);
+        }
+        if (paragraph.getSpacingAfter() > 0) {
+            result.setSpacingAfter(paragraph.getSpacingAfter() / WordPdfLayout.TWIPS_PER_POINT);
+        }
+        return result;
+    }
+
+    /**
+     * 按原顺序追加文本片段中的文字、制表符、换行及内嵌图片
+     * 正文中遇到分页符时先输出已有内容并换页，表格单元格内的分页符按换行处理
+     */
+    private void appendRun(Paragraph target, XWPFRun run, XWPFParagraph paragraph, float maxWidth, boolean allowPageBreak) {
+        Font font = runFont(run, paragraph);
+        StringBuilder text = new StringBuilder();
+        XmlCursor cursor = run.getCTR().newCursor();
+        try {
+            if (cursor.toFirstChild()) {
+                do {
+                    XmlObject child = cursor.getObject();
+                    if (child instanceof CTText) {
+                        text.append(((CTText) child).getStringValue());
+                    } else if (child instanceof CTBr) {
+                        if (allowPageBreak && ((CTBr) child).getType() == STBrType.PAGE) {
+                            flushText(target, text, font);
+                            addAndClear(target);
+                            newPage();
+                        } else {
+                            text.append('\n');
+                        }
+                    } else {
+                        String name = cursor.getDomNode().getLocalName();
+                        if ("tab".equals(name)) {
+                            text.append('\t');
+                        } else if ("cr".equals(name)) {
+                            text.append('\n');
+                        }
+                    }
+                } while (cursor.toNextSibling());
+            }
+        } finally {
+            cursor.dispose();
+        }
+        flushText(target, text, font);
+
+        for (XWPFPicture picture : run.getEmbeddedPictures()) {
+            Image image = toImage(picture, maxWidth);
+            if (image != null) {
+                target.add(new Chunk(image, 0, 0, true));
+                pictureCount++;
+            }
+        }
+    }
+
+    private Image toImage(XWPFPicture picture, float maxWidth) {
+        if (picture.getPictureData() == null) {
+            return null;
+        }
+        try {
+            Image image = Image.getInstance(picture.getPictureData().getData());
+            // 按文档中的显示尺寸输出，超出可用宽度或页面高度时等比缩小
+            if (picture.getWidth() > 0 && picture.getDepth() > 0) {
+                image.scaleAbsolute((float) picture.getWidth(), (float) picture.getDepth());
+            }
+            float maxHeight = pdf.top() - pdf.bottom();
+            if (image.getScaledWidth() > maxWidth || image.getScaledHeight() > maxHeight) {
+                image.scaleToFit(maxWidth, maxHeight);
+            }
+            return image;
+        } catch (Exception e) {
+            log.warn("图片 {} 无法转换，已跳过：{}", picture.getPictureData().getFileName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 段落默认字体（标题样式使用更大的粗体）
+     */
+    private Font baseFont(XWPFParagraph paragraph) {
+        return WordPdfLayout.paragraphFont(WordPdfLayout.headingLevel(styleName(paragraph)));
+    }
+
+    private Font runFont(XWPFRun run, XWPFParagraph paragraph) {
+        Font paragraphFont = baseFont(paragraph);
+        float size = run.getFontSizeAsDouble() != null ? run.getFontSizeAsDouble().floatValue() : paragraphFont.getSize();
+
+        int style = paragraphFont.getStyle();
+        if (run.isBold()) {
+            style |= Font.BOLD;
+        }
+        if (run.isItalic()) {
+            style |= Font.ITALIC;
+        }
+        if (run.getUnderline() != null && run.getUnderline() != UnderlinePatterns.NONE) {
+            style |= Font.UNDERLINE;
+        }
+        if (run.isStrikeThrough()) {
+            style |= Font.STRIKETHRU;
+        }
+        return PdfFontRegistry.getFont(size, style, WordPdfLayout.parseColor(run.getColor()));
+    }
+
+    private String styleName(XWPFParagraph paragraph) {
+        String styleId = paragraph.getStyleID();
+        if (styleId != null && source.getStyles() != null) {
+            XWPFStyle style = source.getStyles().getStyle(styleId);
+            if (style != null && style.getName() != null) {
+                return style.getName();
+            }
+        }
+        return styleId;
+    }
+
+    private static void flushText(Paragraph target, StringBuilder text, Font font) {
+        if (text.length() > 0) {
+            target.add(new Chunk(text.toString(), font));
+            text.setLength(0);
+        }
+    }
+
+    /**
+     * 输出段落已有内容并清空，保留段落格式继续接收分页符之后的内容
+     */
+    private void addAndClear(Paragraph target) {
+        if (target.isEmpty()) {
+            return;
+        }
+        try {
+            pdf.add(target);
+        } catch (DocumentException e) {
+            throw new IllegalStateException("写入 PDF 段落失败：" + e.getMessage(), e);
+        }
+        target.clear();
+    }
+
+    private void newPage() {
+        pdf.newPage();
+    }
+
+    private static String textOf(XWPFHeaderFooter headerFooter) {
+        return headerFooter == null ? null : headerFooter.getText();
+    }
+
+    private static int colspan(XWPFTableCell cell) {
+        CTTcPr tcPr = cell.getCTTc().getTcPr();
+        if (tcPr != null && tcPr.getGridSpan() != null && tcPr.getGridSpan().getVal() != null) {
+            return Math.max(1, tcPr.getGridSpan().getVal().intValue());
+        }
+        return 1;
+    }
+
+    private static int alignment(ParagraphAlignment alignment) {
+        if (alignment == null) {
+            return Element.ALIGN_LEFT;
+        }
+        switch (alignment) {
+            case CENTER:
+                return Element.ALIGN_CENTER;
+            case RIGHT:
+            case END:
+                return Element.ALIGN_RIGHT;
+            case BOTH:
+            case DISTRIBUTE:
+                return Element.ALIGN_JUSTIFIED;
+            default:
+                return Element.ALIGN_LEFT;
+        }
+    }
+}
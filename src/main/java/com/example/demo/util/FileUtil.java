@@ -1,6 +1,10 @@
 package com.example.demo.util;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 public class FileUtil {
 
@@ -53,4 +57,39 @@ public class FileUtil {
         }
         return file.length() / (1024.0 * 1024.0);
     }
+
+    /**
+     * 计算输入流的SHA-256（十六进制小写），不关闭输入流
+     */
+    public static String sha256Hex(InputStream in) throws IOException {
+        MessageDigest digest = newSha256();
+        byte[] buffer = new byte[64 * 1024];
+        int len;
+        while ((len = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, len);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * 创建SHA-256摘要
+     */
+    public static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 字节数组转十六进制小写字符串
+     */
+    public static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
 }
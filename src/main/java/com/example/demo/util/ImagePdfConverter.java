@@ -0,0 +1,239 @@
+package com.example.demo.util;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Image;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.pdf.PdfWriter;
+import com.itextpdf.text.pdf.RandomAccessFileOrArray;
+import com.itextpdf.text.pdf.codec.TiffImage;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Locale;
+
+/**
+ * 图片转 PDF 转换器
+ * 多页 TIFF 逐页解码输出为多页 PDF；超过目标分辨率的图片在解码时按整数倍抽样降采样，
+ * 黑白页面以 CCITT G4 压缩，其余页面以 JPEG 重新压缩，内存和输出大小与页数相关而与原始像素数无关。
+ * 未超过目标分辨率的单页图片保留原始数据，不重新编码
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+@Slf4j
+public class ImagePdfConverter {
+
+    /**
+     * 每英寸磅数
+     */
+    private static final float POINTS_PER_INCH = 72f;
+
+    /* 输出分辨率（DPI） */
+    private static volatile int targetDpi = 150;
+
+    /* JPEG 重新压缩质量（0-1） */
+    private static volatile float jpegQuality = 0.75f;
+
+    private ImagePdfConverter() {
+    }
+
+    /**
+     * 设置输出分辨率和 JPEG 质量，参数为空时保持原值
+     *
+     * @param dpi     输出分辨率（DPI）
+     * @param quality JPEG 质量（0-1）
+     */
+    public static void configure(Integer dpi, Float quality) {
+        if (dpi != null && dpi > 0) {
+            targetDpi = dpi;
+        }
+        if (quality != null && quality > 0 && quality <= 1) {
+            jpegQuality = quality;
+        }
+    }
+
+    /**
+     * 将图片（含多页 TIFF）转换为 PDF 并写入输出流（不关闭输出流），每页图片占一页 A4
+     *
+     * @param data 图片数据
+     * @param out  PDF 输出流
+     * @return 输出的页数
+     */
+    public static int convert(byte[] data, OutputStream out) throws IOException, DocumentException {
+        Document pdfDocument = new Document(PageSize.A4);
+        PdfWriter writer = PdfWriter.getInstance(pdfDocument, out);
+        writer.setCloseStream(false);
+        pdfDocument.open();
+
+        PageWriter pages = new PageWriter(pdfDocument);
+        try {
+            writeWithImageIO(data, pages);
+        } catch (IOException | RuntimeException e) {
+            if (pages.count > 0) {
+                throw e;
+            }
+            log.warn("ImageIO 无法解码图片，改用 iText 直接嵌入：{}", e.getMessage());
+        }
+        if (pages.count == 0) {
+            writeWithIText(data, pages);
+        }
+
+        pdfDocument.close();
+        return pages.count;
+    }
+
+    /**
+     * 使用 ImageIO 逐页读取，读取时按目标分辨率抽样
+     */
+    private static void writeWithImageIO(byte[] data, PageWriter pages) throws IOException, DocumentException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, false, true);
+                boolean tiff = reader.getFormatName().toLowerCase(Locale.ROOT).startsWith("tif");
+                // GIF 等格式的多帧是动画而非分页，只输出第一帧
+                int count = tiff ? reader.getNumImages(true) : 1;
+                int maxWidth = toPixels(pages.maxWidth());
+                int maxHeight = toPixels(pages.maxHeight());
+                for (int i = 0; i < count; i++) {
+                    int width = reader.getWidth(i);
+                    int height = reader.getHeight(i);
+                    int step = (int) Math.ceil(Math.max((double) width / maxWidth, (double) height / maxHeight));
+                    if (step <= 1 && !tiff) {
+                        // 分辨率未超出目标，直接嵌入原图
+                        pages.add(Image.getInstance(data));
+                        continue;
+                    }
+
+                    ImageReadParam param = reader.getDefaultReadParam();
+                    if (step > 1) {
+                        param.setSourceSubsampling(step, step, 0, 0);
+                    }
+                    BufferedImage page = reader.read(i, param);
+                    pages.add(toPdfImage(page));
+                    log.debug("图片第 {} 页：{}x{} 抽样 1/{} 为 {}x{}", i + 1, width, height, Math.max(1, step), page.getWidth(), page.getHeight());
+                }
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * ImageIO 无法解码时使用 iText 嵌入（TIFF 逐页读取，不降采样）
+     */
+    private static void writeWithIText(byte[] data, PageWriter pages) throws IOException, DocumentException {
+        if (isTiff(data)) {
+            RandomAccessFileOrArray source = new RandomAccessFileOrArray(data);
+            try {
+                int count = TiffImage.getNumberOfPages(source);
+                for (int i = 1; i <= count; i++) {
+                    pages.add(TiffImage.getTiffImage(source, i));
+                }
+            } finally {
+                source.close();
+            }
+        } else {
+            pages.add(Image.getInstance(data));
+        }
+    }
+
+    /**
+     * 黑白图片使用 CCITT G4 压缩，其余转为 RGB 后以 JPEG 压缩
+     */
+    private static Image toPdfImage(BufferedImage image) throws IOException, DocumentException {
+        if (image.getColorModel().getPixelSize() == 1) {
+            return Image.getInstance(image, null, true);
+        }
+
+        BufferedImage rgb = image;
+        if (image.getType() != BufferedImage.TYPE_INT_RGB && image.getType() != BufferedImage.TYPE_3BYTE_BGR
+                && image.getType() != BufferedImage.TYPE_BYTE_GRAY) {
+            // 透明背景按白色处理，索引色、CMYK 等统一转换为 RGB
+            rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = rgb.createGraphics();
+            try {
+                graphics.drawImage(image, 0, 0, Color.WHITE, null);
+            } finally {
+                graphics.dispose();
+            }
+        }
+        return Image.getInstance(encodeJpeg(rgb));
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean isTiff(byte[] data) {
+        return data.length >= 4
+                && ((data[0] == 'I' && data[1] == 'I' && data[2] == 42 && data[3] == 0)
+                || (data[0] == 'M' && data[1] == 'M' && data[2] == 0 && data[3] == 42));
+    }
+
+    private static int toPixels(float points) {
+        return Math.max(1, Math.round(points / POINTS_PER_INCH * targetDpi));
+    }
+
+    /**
+     * 每张图片缩放到页面可用区域内并单独占一页
+     */
+    private static class PageWriter {
+
+        private final Document document;
+
+        private int count;
+
+        PageWriter(Document document) {
+            this.document = document;
+        }
+
+        float maxWidth() {
+            return document.right() - document.left();
+        }
+
+        float maxHeight() {
+            return document.top() - document.bottom();
+        }
+
+        void add(Image image) throws DocumentException {
+            image.scaleToFit(maxWidth(), maxHeight());
+            if (count > 0) {
+                document.newPage();
+            }
+            document.add(image);
+            count++;
+        }
+    }
+}
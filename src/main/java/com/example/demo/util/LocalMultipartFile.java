@@ -0,0 +1,93 @@
+package com.example.demo.util;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * 以本地文件为内容的 MultipartFile
+ * 用于请求结束后继续处理已落盘的上传文件（如异步上传任务）
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+public class LocalMultipartFile implements MultipartFile {
+
+    private final File file;
+
+    private final String originalFilename;
+
+    private final String contentType;
+
+    /* 落盘时计算的内容SHA-256，未计算时为null */
+    private final String contentHash;
+
+    public LocalMultipartFile(File file, String originalFilename, String contentType) {
+        this(file, originalFilename, contentType, null);
+    }
+
+    public LocalMultipartFile(File file, String originalFilename, String contentType, String contentHash) {
+        this.file = file;
+        this.originalFilename = originalFilename;
+        this.contentType = contentType;
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * 落盘时计算的内容SHA-256，未计算时为null
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * 本地文件
+     */
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return file.length() == 0;
+    }
+
+    @Override
+    public long getSize() {
+        return file.length();
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        return Files.readAllBytes(file.toPath());
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(file.toPath());
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException, IllegalStateException {
+        Files.copy(file.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
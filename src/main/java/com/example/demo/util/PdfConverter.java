@@ -1,13 +1,16 @@
 package com.example.demo.util;
 
 import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
 import com.itextpdf.text.Paragraph;
 import com.itextpdf.text.pdf.PdfWriter;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.xwpf.usermodel.XWPFDocument;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 /**
  * PDF 转换工具类
@@ -21,9 +24,14 @@ import java.io.ByteArrayOutputStream;
 @Slf4j
 public class PdfConverter {
 
+    /**
+     * 转换器版本，转换逻辑或输出效果变化时递增，使已缓存的转换结果失效
+     */
+    public static final String VERSION = "4";
+
     /**
      * 将文件转换为 PDF 格式
-     * 只转换 DOCX 和图片文件，跳过 TXT 文件
+     * 只转换 DOCX、DOC 和图片文件，跳过 TXT 文件
      *
      * @param fileName 文件名（用于判断文件类型）
      * @param data     文件内容（字节数组）
@@ -49,16 +57,17 @@ public class PdfConverter {
                     return convertDocxToPdf(data);
 
                 case "doc":
-                    // Word 97-2003 格式（简化处理）
-                    log.warn("DOC 格式转换功能暂未实现，跳过");
-                    return null;
+                    // Word 97-2003 格式
+                    return convertDocToPdf(data);
 
                 case "jpg":
                 case "jpeg":
                 case "png":
                 case "gif":
                 case "bmp":
-                    // 图片格式
+                case "tif":
+                case "tiff":
+                    // 图片格式（TIFF 可为多页）
                     return convertImageToPdf(data);
 
                 case "txt":
@@ -93,72 +102,53 @@ public class PdfConverter {
         log.info("开始转换 DOCX 文件为 PDF，原始数据大小：{} 字节", data.length);
 
         try (ByteArrayInputStream bais = new ByteArrayInputStream(data);
-             XWPFDocument document = new XWPFDocument(bais);
-             ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-
-            // 使用 iText 创建 PDF 文档
-            Document pdfDocument = new Document();
-            PdfWriter.getInstance(pdfDocument, baos);
-            pdfDocument.open();
-
-            // 设置中文字体支持
-            com.itextpdf.text.pdf.BaseFont baseFont = null;
-            String[] fontPaths = {
-                "C:/Windows/Fonts/simhei.ttf",      // Windows 黑体
-                "C:/Windows/Fonts/simsun.ttc",      // Windows 宋体
-                "C:/Windows/Fonts/msyh.ttc",        // Windows 微软雅黑
-                "/usr/share/fonts/truetype/droid/DroidSansFallbackFull.ttf",  // Linux
-                "/System/Library/Fonts/PingFang.ttc",  // macOS
-                "/System/Library/Fonts/STHeiti Light.ttc"  // macOS
-            };
-
-            for (String fontPath : fontPaths) {
-                try {
-                    baseFont = com.itextpdf.text.pdf.BaseFont.createFont(fontPath, com.itextpdf.text.pdf.BaseFont.IDENTITY_H, com.itextpdf.text.pdf.BaseFont.EMBEDDED);
-                    log.info("成功加载中文字体：{}", fontPath);
-                    break;
-                } catch (Exception e) {
-                    log.debug("字体 {} 加载失败：{}", fontPath, e.getMessage());
-                }
-            }
-
-            if (baseFont == null) {
-                log.warn("无法加载中文字体，尝试使用内置字体，中文可能无法显示");
-                baseFont = com.itextpdf.text.pdf.BaseFont.createFont();
-            }
-
-            com.itextpdf.text.Font chineseFont = new com.itextpdf.text.Font(baseFont, 12);
-
-            // 提取段落内容并添加到 PDF
-            int paragraphCount = document.getParagraphs().size();
-            log.info("DOCX 文件包含 {} 个段落", paragraphCount);
-
-            int addedParagraphs = 0;
-            for (org.apache.poi.xwpf.usermodel.XWPFParagraph paragraph : document.getParagraphs()) {
-                String text = paragraph.getText();
-                if (text != null && !text.trim().isEmpty()) {
-                    pdfDocument.add(new Paragraph(text, chineseFont));
-                    addedParagraphs++;
-                    log.debug("添加段落：{}", text.substring(0, Math.min(50, text.length())));
-                }
-            }
-
-            pdfDocument.close();
+             ByteArrayOutputStream baos = new ByteArrayOutputStream(data.length)) {
+            DocxPdfConverter.convert(bais, baos);
+            log.info("DOCX 转 PDF 完成，输出大小：{} 字节", baos.size());
+            return baos.toByteArray();
+        } catch (Exception e) {
+            log.error("DOCX 转 PDF 失败：{}", e.getMessage(), e);
+            return null;
+        }
+    }
 
-            log.info("DOCX 转 PDF 完成，共添加 {} 个段落，输出大小：{} 字节", addedParagraphs, baos.size());
+    /**
+     * 将 DOCX 转换为 PDF 并直接写入输出流（不关闭输出流），保留表格、图片、分页和基本样式
+     *
+     * @param in  DOCX 输入流
+     * @param out PDF 输出流
+     */
+    public static void convertDocxToPdf(InputStream in, OutputStream out) throws IOException, DocumentException {
+        DocxPdfConverter.convert(in, out);
+    }
 
-            if (addedParagraphs == 0) {
-                log.warn("警告：DOCX 文件中没有提取到任何文本内容！");
-            }
+    /**
+     * 将 Word 97-2003 (.doc) 转换为 PDF
+     */
+    private static byte[] convertDocToPdf(byte[] data) {
+        log.info("开始转换 DOC 文件为 PDF，原始数据大小：{} 字节", data.length);
 
+        try (ByteArrayInputStream bais = new ByteArrayInputStream(data);
+             ByteArrayOutputStream baos = new ByteArrayOutputStream(data.length)) {
+            DocPdfConverter.convert(bais, baos);
+            log.info("DOC 转 PDF 完成，输出大小：{} 字节", baos.size());
             return baos.toByteArray();
-
         } catch (Exception e) {
-            log.error("DOCX 转 PDF 失败：{}", e.getMessage(), e);
+            log.error("DOC 转 PDF 失败：{}", e.getMessage(), e);
             return null;
         }
     }
 
+    /**
+     * 将 DOC 转换为 PDF 并直接写入输出流（不关闭输出流），保留表格、图片、分页和基本样式
+     *
+     * @param in  DOC 输入流
+     * @param out PDF 输出流
+     */
+    public static void convertDocToPdf(InputStream in, OutputStream out) throws IOException, DocumentException {
+        DocPdfConverter.convert(in, out);
+    }
+
     /**
      * 将纯文本 (.txt) 转换为 PDF
      */
@@ -194,33 +184,8 @@ public class PdfConverter {
             PdfWriter.getInstance(pdfDocument, baos);
             pdfDocument.open();
 
-            // 设置中文字体支持
-            com.itextpdf.text.pdf.BaseFont baseFont = null;
-            String[] fontPaths = {
-                "C:/Windows/Fonts/simhei.ttf",      // Windows 黑体
-                "C:/Windows/Fonts/simsun.ttc",      // Windows 宋体
-                "C:/Windows/Fonts/msyh.ttc",        // Windows 微软雅黑
-                "/usr/share/fonts/truetype/droid/DroidSansFallbackFull.ttf",  // Linux
-                "/System/Library/Fonts/PingFang.ttc",  // macOS
-                "/System/Library/Fonts/STHeiti Light.ttc"  // macOS
-            };
-
-            for (String fontPath : fontPaths) {
-                try {
-                    baseFont = com.itextpdf.text.pdf.BaseFont.createFont(fontPath, com.itextpdf.text.pdf.BaseFont.IDENTITY_H, com.itextpdf.text.pdf.BaseFont.EMBEDDED);
-                    log.info("成功加载中文字体：{}", fontPath);
-                    break;
-                } catch (Exception e) {
-                    log.debug("字体 {} 加载失败：{}", fontPath, e.getMessage());
-                }
-            }
-
-            if (baseFont == null) {
-                log.warn("无法加载中文字体，尝试使用内置字体，中文可能无法显示");
-                baseFont = com.itextpdf.text.pdf.BaseFont.createFont();
-            }
-
-            com.itextpdf.text.Font chineseFont = new com.itextpdf.text.Font(baseFont, 12);
+            // 使用共享的中文字体（进程内只加载一次，子集嵌入）
+            com.itextpdf.text.Font chineseFont = PdfFontRegistry.getFont(12);
 
             // 按行添加文本
             String[] lines = content.split("\n");
@@ -245,24 +210,12 @@ public class PdfConverter {
      * 将图片转换为 PDF
      */
     private static byte[] convertImageToPdf(byte[] data) {
-        log.info("开始转换图片文件为 PDF");
+        log.info("开始转换图片文件为 PDF，原始数据大小：{} 字节", data.length);
 
-        try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            Document pdfDocument = new Document();
-            PdfWriter.getInstance(pdfDocument, baos);
-            pdfDocument.open();
-
-            // 添加图片到 PDF
-            com.itextpdf.text.Image image = com.itextpdf.text.Image.getInstance(data);
-            image.scaleToFit(595, 842); // A4 尺寸
-            pdfDocument.add(image);
-
-            pdfDocument.close();
-
-            log.info("图片转 PDF 完成");
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            int pages = ImagePdfConverter.convert(data, baos);
+            log.info("图片转 PDF 完成，共 {} 页，输出大小：{} 字节", pages, baos.size());
             return baos.toByteArray();
-
         } catch (Exception e) {
             log.error("图片转 PDF 失败：{}", e.getMessage(), e);
             return null;
@@ -271,7 +224,7 @@ public class PdfConverter {
 
     /**
      * 检查文件是否可以转换为 PDF
-     * 只支持 DOCX 和图片文件
+     * 支持 PDF、DOCX、DOC 和图片文件
      *
      * @param fileName 文件名
      * @return true 表示可以转换，false 表示不能转换
@@ -289,7 +242,9 @@ public class PdfConverter {
                extension.equals("jpeg") ||
                extension.equals("png") ||
                extension.equals("gif") ||
-               extension.equals("bmp");
+               extension.equals("bmp") ||
+               extension.equals("tif") ||
+               extension.equals("tiff");
     }
 
     /**
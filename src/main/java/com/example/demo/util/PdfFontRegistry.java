@@ -0,0 +1,160 @@
+package com.example.demo.util;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.pdf.BaseFont;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * PDF 转换字体注册表
+ * 进程内只解析一次中文字体并在所有转换间共享（BaseFont 只读，可跨线程使用），
+ * 以子集方式嵌入，每个 PDF 只包含实际用到的字形
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+@Slf4j
+public class PdfFontRegistry {
+
+    /**
+     * 未配置字体路径时依次探测的系统字体
+     */
+    private static final String[] DEFAULT_FONT_PATHS = {
+        "C:/Windows/Fonts/simhei.ttf",      // Windows 黑体
+        "C:/Windows/Fonts/simsun.ttc",      // Windows 宋体
+        "C:/Windows/Fonts/msyh.ttc",        // Windows 微软雅黑
+        "/usr/share/fonts/truetype/droid/DroidSansFallbackFull.ttf",  // Linux
+        "/System/Library/Fonts/PingFang.ttc",  // macOS
+        "/System/Library/Fonts/STHeiti Light.ttc"  // macOS
+    };
+
+    /**
+     * 内置字体（不支持中文）的描述
+     */
+    public static final String BUILTIN_FONT = "内置 Helvetica";
+
+    private static volatile String configuredPath;
+
+    private static volatile BaseFont baseFont;
+
+    private static volatile String resolvedFont;
+
+    private PdfFontRegistry() {
+    }
+
+    /**
+     * 设置优先使用的字体路径，已加载的字体将在下次使用时重新加载
+     *
+     * @param fontPath 字体文件路径（TTF/TTC，TTC 可用 ",n" 指定字体序号，默认第 0 个），为空时自动探测系统字体
+     */
+    public static synchronized void configure(String fontPath) {
+        configuredPath = fontPath;
+        baseFont = null;
+        resolvedFont = null;
+    }
+
+    /**
+     * 获取共享的中文字体，首次调用时加载
+     */
+    public static BaseFont getBaseFont() {
+        BaseFont font = baseFont;
+        if (font == null) {
+            synchronized (PdfFontRegistry.class) {
+                font = baseFont;
+                if (font == null) {
+                    font = load();
+                    baseFont = font;
+                }
+            }
+        }
+        return font;
+    }
+
+    /**
+     * 获取指定字号的中文字体
+     */
+    public static Font getFont(float size) {
+        return new Font(getBaseFont(), size);
+    }
+
+    /**
+     * 获取指定字号、样式和颜色的中文字体（粗体、斜体由 iText 模拟）
+     *
+     * @param size  字号
+     * @param style 样式，Font.NORMAL/BOLD/ITALIC/UNDERLINE/STRIKETHRU 的组合
+     * @param color 颜色，为null时使用黑色
+     */
+    public static Font getFont(float size, int style, BaseColor color) {
+        return new Font(getBaseFont(), size, style, color);
+    }
+
+    /**
+     * 实际使用的字体（路径或内置字体描述），尚未加载时返回null
+     */
+    public static String getResolvedFont() {
+        return resolvedFont;
+    }
+
+    private static BaseFont load() {
+        String configured = configuredPath == null || configuredPath.trim().isEmpty() ? null : configuredPath.trim();
+        List<String> candidates = new ArrayList<>();
+        if (configured != null) {
+            candidates.add(configured);
+        }
+        for (String path : DEFAULT_FONT_PATHS) {
+            candidates.add(path);
+        }
+
+        for (String path : candidates) {
+            String fontName = toFontName(path);
+            if (!new File(stripIndex(fontName)).isFile()) {
+                log.debug("字体文件不存在：{}", path);
+                continue;
+            }
+            try {
+                // 不使用 iText 全局缓存，由注册表持有唯一实例
+                BaseFont font = BaseFont.createFont(fontName, BaseFont.IDENTITY_H, BaseFont.EMBEDDED, false, null, null);
+                font.setSubset(true);
+                resolvedFont = fontName;
+                if (configured == null || path.equals(configured)) {
+                    log.info("成功加载中文字体：{}", fontName);
+                } else {
+                    log.warn("配置的中文字体 {} 不可用，回退为：{}", configured, fontName);
+                }
+                return font;
+            } catch (Exception e) {
+                log.warn("字体 {} 加载失败：{}", fontName, e.getMessage());
+            }
+        }
+
+        log.warn("无法加载中文字体，回退为{}，中文可能无法显示", BUILTIN_FONT);
+        try {
+            BaseFont font = BaseFont.createFont();
+            resolvedFont = BUILTIN_FONT;
+            return font;
+        } catch (Exception e) {
+            throw new IllegalStateException("加载内置字体失败：" + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * TTC 字体集合必须指定字体序号，未指定时使用第 0 个
+     */
+    private static String toFontName(String path) {
+        String lower = path.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".ttc")) {
+            return path + ",0";
+        }
+        return path;
+    }
+
+    private static String stripIndex(String fontName) {
+        int index = fontName.toLowerCase(Locale.ROOT).lastIndexOf(".ttc,");
+        return index < 0 ? fontName : fontName.substring(0, index + 4);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.demo.util;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.io.RandomAccessSourceFactory;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfSmartCopy;
+import com.itextpdf.text.pdf.RandomAccessFileOrArray;
+import com.itextpdf.text.pdf.SimpleBookmark;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * PDF 合并工具
+ * 按添加顺序将多个 PDF 合并为一个 PDF，每个源文件生成一个顶层书签（标题为源文件名）。
+ * 使用 PdfSmartCopy 复制页面，相同的字体、图片等资源只写入一次；每个源文件复制完成后立即写出并释放
+ * 无法作为页面合并的文件（非 PDF、加密 PDF）以附件形式嵌入，不会丢失
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+@Slf4j
+public class PdfMerger {
+
+    private final Document document;
+
+    private final PdfSmartCopy copy;
+
+    private final List<HashMap<String, Object>> bookmarks = new ArrayList<>();
+
+    private int pageCount;
+
+    private int attachmentCount;
+
+    /**
+     * @param out 合并后 PDF 的输出流（不会被关闭）
+     */
+    public PdfMerger(OutputStream out) throws DocumentException {
+        this.document = new Document();
+        this.copy = new PdfSmartCopy(document, out);
+        this.copy.setCloseStream(false);
+        this.document.open();
+    }
+
+    /**
+     * 追加一个文件
+     *
+     * @param name 源文件名（作为书签标题）
+     * @param data 文件内容
+     * @return true 表示已合并为页面，false 表示作为附件嵌入
+     */
+    public boolean add(String name, byte[] data) throws IOException, DocumentException {
+        PdfReader reader = openReader(name, data);
+        if (reader == null) {
+            attach(name, data);
+            return false;
+        }
+
+        try {
+            int firstPage = pageCount + 1;
+            int pages = reader.getNumberOfPages();
+            for (int i = 1; i <= pages; i++) {
+                copy.addPage(copy.getImportedPage(reader, i));
+            }
+            copy.freeReader(reader);
+            pageCount += pages;
+
+            addBookmark(name, firstPage);
+            log.debug("已合并文件 {}，第 {}-{} 页", name, firstPage, pageCount);
+            return true;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * 写入书签并结束 PDF（所有文件都作为附件时输出一个空白页）
+     *
+     * @return 合并后的总页数
+     */
+    public int finish() throws DocumentException {
+        if (pageCount == 0) {
+            copy.addPage(PageSize.A4, 0);
+        }
+        copy.setOutlines(bookmarks);
+        document.close();
+        log.info("PDF 合并完成，共 {} 个文件、{} 页，其中 {} 个文件以附件形式嵌入", bookmarks.size(), pageCount, attachmentCount);
+        return pageCount;
+    }
+
+    /**
+     * 读取合并 PDF 的顶层书签标题（即合并前的源文件名）
+     *
+     * @param in 合并后的 PDF
+     * @return 书签标题，按页面顺序
+     */
+    public static List<String> readBookmarkTitles(InputStream in) throws IOException {
+        PdfReader reader = new PdfReader(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(in)), null);
+        try {
+            List<String> titles = new ArrayList<>();
+            List<HashMap<String, Object>> outlines = SimpleBookmark.getBookmark(reader);
+            if (outlines != null) {
+                for (HashMap<String, Object> outline : outlines) {
+                    Object title = outline.get("Title");
+                    if (title != null) {
+                        titles.add(title.toString());
+                    }
+                }
+            }
+            return titles;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * 以页面方式打开 PDF，不是 PDF、无法解析或加密（无完整权限）时返回null
+     */
+    private PdfReader openReader(String name, byte[] data) {
+        if (!isPdf(data)) {
+            return null;
+        }
+        PdfReader reader;
+        try {
+            reader = new PdfReader(data);
+        } catch (IOException e) {
+            log.warn("文件 {} 无法解析为 PDF，作为附件嵌入：{}", name, e.getMessage());
+            return null;
+        }
+        if (!reader.isOpenedWithFullPermissions() || reader.getNumberOfPages() == 0) {
+            log.warn("文件 {} 已加密或没有页面，作为附件嵌入", name);
+            reader.close();
+            return null;
+        }
+        return reader;
+    }
+
+    private void attach(String name, byte[] data) throws IOException {
+        String displayName = name.substring(name.lastIndexOf('/') + 1);
+        copy.addFileAttachment(name, data, null, displayName);
+        // 附件同样生成书签（指向嵌入时的当前页），书签与源文件一一对应
+        addBookmark(name, Math.max(1, pageCount));
+        attachmentCount++;
+        log.info("文件 {} 无法合并为 PDF 页面，已作为附件嵌入", name);
+    }
+
+    private void addBookmark(String title, int page) {
+        HashMap<String, Object> bookmark = new HashMap<>();
+        bookmark.put("Title", title);
+        bookmark.put("Action", "GoTo");
+        bookmark.put("Page", page + " Fit");
+        bookmarks.add(bookmark);
+    }
+
+    private static boolean isPdf(byte[] data) {
+        // PDF 规范允许文件头前有少量其他字节
+        int length = Math.min(data.length, 1024);
+        return new String(data, 0, length, StandardCharsets.ISO_8859_1).contains("%PDF-");
+    }
+}
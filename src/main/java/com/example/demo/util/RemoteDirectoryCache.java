@@ -0,0 +1,201 @@
+package com.example.demo.util;
+
+import com.jcraft.jsch.SftpATTRS;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 远程目录列表缓存
+ * 缓存每个目录的 ls 结果（文件名 -> 属性），在有效期内直接返回；
+ * 过期后先只查询目录本身的修改时间，未变化则续期，变化后才重新 ls。
+ * 本服务的上传、删除操作会主动使缓存失效，其他系统写入的变更在有效期到期后发现。
+ * 每个目录维护一个失效代数，加载期间目录被失效时，加载结果只返回给本次调用而不写入缓存
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+public class RemoteDirectoryCache {
+
+    private final long ttlMillis;
+
+    private final int maxDirectories;
+
+    /* 访问顺序的目录列表：目录 -> 列表，超出上限时淘汰最近最少使用的目录 */
+    private final LinkedHashMap<String, Listing> listings = new LinkedHashMap<>(16, 0.75f, true);
+
+    /* 目录 -> 最近一次失效时的代数（未记录的目录为 generationFloor） */
+    private final Map<String, Long> generations = new HashMap<>();
+
+    /* 失效代数，每次失效递增 */
+    private long generationCounter;
+
+    /* 失效记录被清理后的默认代数 */
+    private long generationFloor;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong revalidateCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * @param ttlMillis      列表有效期（毫秒）
+     * @param maxDirectories 最多缓存的目录数
+     */
+    public RemoteDirectoryCache(long ttlMillis, int maxDirectories) {
+        this.ttlMillis = Math.max(0L, ttlMillis);
+        this.maxDirectories = Math.max(1, maxDirectories);
+    }
+
+    /**
+     * 获取目录列表
+     *
+     * @param directory 目录（绝对路径）
+     * @param source    远程查询方式
+     * @return 文件名 -> 属性（不含 . 和 ..），只读
+     * @throws Exception 目录不存在或查询失败
+     */
+    public Map<String, SftpATTRS> getListing(String directory, ListingSource source) throws Exception {
+        String key = normalize(directory);
+        Listing listing;
+        long generation;
+        synchronized (this) {
+            listing = listings.get(key);
+            generation = generationOf(key);
+        }
+
+        long now = System.currentTimeMillis();
+        if (listing != null) {
+            if (now - listing.checkedAt < ttlMillis) {
+                hitCount.incrementAndGet();
+                return listing.entries;
+            }
+            // 目录修改时间精度为秒，加载时刻同一秒内的修改可能未反映到列表中，此时不能只凭修改时间续期
+            SftpATTRS dirAttrs = source.statDirectory(key);
+            if (dirAttrs != null && dirAttrs.getMTime() == listing.dirMtime && listing.dirMtime < listing.loadedAtSeconds) {
+                listing.checkedAt = now;
+                revalidateCount.incrementAndGet();
+                return listing.entries;
+            }
+        }
+
+        missCount.incrementAndGet();
+        long loadedAtSeconds = System.currentTimeMillis() / 1000;
+        Map<String, SftpATTRS> raw = source.list(key);
+        Map<String, SftpATTRS> entries = new HashMap<>(raw.size() * 2);
+        int dirMtime = 0;
+        for (Map.Entry<String, SftpATTRS> entry : raw.entrySet()) {
+            String name = entry.getKey();
+            if (".".equals(name)) {
+                dirMtime = entry.getValue().getMTime();
+            } else if (!"..".equals(name)) {
+                entries.put(name, entry.getValue());
+            }
+        }
+        Listing loaded = new Listing(Collections.unmodifiableMap(entries), dirMtime, loadedAtSeconds, System.currentTimeMillis());
+        synchronized (this) {
+            // 加载开始后目录已被失效（如本服务刚上传了文件），列表可能不包含最新变更，不写入缓存
+            if (generationOf(key) == generation) {
+                listings.put(key, loaded);
+                while (listings.size() > maxDirectories) {
+                    listings.remove(listings.keySet().iterator().next());
+                }
+            }
+        }
+        return loaded.entries;
+    }
+
+    /**
+     * 使目录列表失效（本服务上传、删除、创建目录后调用）
+     *
+     * @param directory 目录
+     */
+    public synchronized void invalidate(String directory) {
+        String key = normalize(directory);
+        listings.remove(key);
+        generations.put(key, ++generationCounter);
+        if (generations.size() > maxDirectories) {
+            // 清理失效记录时提升默认代数，清理前开始的加载仍会被识别为过期
+            generations.clear();
+            generationFloor = generationCounter;
+        }
+    }
+
+    /**
+     * 清空所有目录列表
+     */
+    public synchronized void clear() {
+        listings.clear();
+        generations.clear();
+        generationFloor = ++generationCounter;
+    }
+
+    private long generationOf(String key) {
+        Long generation = generations.get(key);
+        return generation != null ? generation : generationFloor;
+    }
+
+    public synchronized int size() {
+        return listings.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getRevalidateCount() {
+        return revalidateCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * 统一目录格式：反斜杠转为正斜杠，去掉末尾的斜杠
+     */
+    public static String normalize(String directory) {
+        String result = directory.replace("\\", "/");
+        while (result.length() > 1 && result.endsWith("/")) {
+            result = result.substring(0, result.length() - 1);
+        }
+        return result;
+    }
+
+    /**
+     * 远程目录查询方式
+     */
+    public interface ListingSource {
+
+        /**
+         * 列出目录内容（包含 . 条目，用于获取目录修改时间）
+         */
+        Map<String, SftpATTRS> list(String directory) throws Exception;
+
+        /**
+         * 查询目录属性，目录不存在返回null
+         */
+        SftpATTRS statDirectory(String directory) throws Exception;
+    }
+
+    /**
+     * 目录列表
+     */
+    private static class Listing {
+        private final Map<String, SftpATTRS> entries;
+        private final int dirMtime;
+        private final long loadedAtSeconds;
+        private volatile long checkedAt;
+
+        Listing(Map<String, SftpATTRS> entries, int dirMtime, long loadedAtSeconds, long checkedAt) {
+            this.entries = entries;
+            this.dirMtime = dirMtime;
+            this.loadedAtSeconds = loadedAtSeconds;
+            this.checkedAt = checkedAt;
+        }
+    }
+}
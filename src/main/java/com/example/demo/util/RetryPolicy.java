@@ -0,0 +1,109 @@
+package com.example.demo.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 重试策略：指数退避 + 随机抖动 + 截止时间
+ * 第 n 次重试前等待 min(初始间隔 * 倍数^(n-1), 最大间隔)，并在该值基础上随机缩减最多 jitter 比例，
+ * 避免大量请求在同一时刻重试；从首次尝试开始经过的时间（含每次尝试本身的耗时）加上下次等待将超过截止时间时不再重试
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+public final class RetryPolicy {
+
+    /* 默认策略：最多重试3次，1秒起步、最长8秒，从首次尝试起不超过5分钟 */
+    public static final RetryPolicy DEFAULT = new RetryPolicy(3, 1000L, 8000L, 2.0, 0.5, 300000L);
+
+    /* 不重试：只执行一次（由调用方自行控制重试） */
+    public static final RetryPolicy NONE = new RetryPolicy(0, 0L, 0L, 1.0, 0.0, 0L);
+
+    private final int maxRetries;
+
+    private final long initialDelayMillis;
+
+    private final long maxDelayMillis;
+
+    private final double multiplier;
+
+    private final double jitter;
+
+    private final long deadlineMillis;
+
+    /**
+     * @param maxRetries         最大重试次数
+     * @param initialDelayMillis 首次重试间隔（毫秒）
+     * @param maxDelayMillis     最大重试间隔（毫秒）
+     * @param multiplier         间隔增长倍数
+     * @param jitter             随机抖动比例（0~1）
+     * @param deadlineMillis     从首次尝试开始的总耗时上限（毫秒，含尝试本身的耗时），0 表示不限制
+     */
+    public RetryPolicy(int maxRetries, long initialDelayMillis, long maxDelayMillis, double multiplier, double jitter, long deadlineMillis) {
+        this.maxRetries = Math.max(0, maxRetries);
+        this.initialDelayMillis = Math.max(0L, initialDelayMillis);
+        this.maxDelayMillis = Math.max(this.initialDelayMillis, maxDelayMillis);
+        this.multiplier = Math.max(1.0, multiplier);
+        this.jitter = Math.min(1.0, Math.max(0.0, jitter));
+        this.deadlineMillis = Math.max(0L, deadlineMillis);
+    }
+
+    /**
+     * 以当前策略为基础，替换重试次数和首次重试间隔（兼容按次数、间隔调用的旧接口）
+     *
+     * @param maxRetries    最大重试次数
+     * @param retryInterval 首次重试间隔（秒）
+     */
+    public RetryPolicy withRetries(int maxRetries, int retryInterval) {
+        long initial = retryInterval * 1000L;
+        return new RetryPolicy(maxRetries, initial, Math.max(initial, maxDelayMillis), multiplier, jitter, deadlineMillis);
+    }
+
+    /**
+     * 计算第 retryCount 次重试前的等待时间（已含抖动）
+     *
+     * @param retryCount 重试序号，从1开始
+     * @return 等待时间（毫秒）
+     */
+    public long delayMillis(int retryCount) {
+        double base = initialDelayMillis * Math.pow(multiplier, Math.max(0, retryCount - 1));
+        long capped = (long) Math.min(base, maxDelayMillis);
+        if (capped <= 0 || jitter == 0.0) {
+            return capped;
+        }
+        long reduction = (long) (capped * jitter * ThreadLocalRandom.current().nextDouble());
+        return capped - reduction;
+    }
+
+    /**
+     * 再等待一次后是否仍在截止时间内
+     *
+     * @param startNanos  首次尝试开始时的 {@link System#nanoTime()}
+     * @param delayMillis 下次重试前的等待时间（毫秒）
+     * @return true 表示可以继续重试
+     */
+    public boolean allowsDelay(long startNanos, long delayMillis) {
+        return allowsDelayAfter(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), delayMillis);
+    }
+
+    /**
+     * 已经过指定时间后再等待一次是否仍在截止时间内
+     *
+     * @param elapsedMillis 从首次尝试开始已经过的时间（毫秒）
+     * @param delayMillis   下次重试前的等待时间（毫秒）
+     */
+    boolean allowsDelayAfter(long elapsedMillis, long delayMillis) {
+        return deadlineMillis == 0 || elapsedMillis + delayMillis <= deadlineMillis;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy{maxRetries=" + maxRetries + ", initialDelayMillis=" + initialDelayMillis
+                + ", maxDelayMillis=" + maxDelayMillis + ", multiplier=" + multiplier
+                + ", jitter=" + jitter + ", deadlineMillis=" + deadlineMillis + "}";
+    }
+}
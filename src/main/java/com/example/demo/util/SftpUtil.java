@@ -2,12 +2,25 @@ package com.example.demo.util;
 
 import com.jcraft.jsch.*;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -17,6 +30,18 @@ import java.util.Properties;
 @Slf4j
 public class SftpUtil {
 
+    /* 上传中的临时文件后缀，校验通过后重命名为正式文件名，下游轮询时应忽略该后缀 */
+    public static final String PART_SUFFIX = ".part";
+
+    /* 服务器不支持原子覆盖时旧文件的备份后缀，新文件就位后删除，下游轮询时同样应忽略该后缀 */
+    private static final String BACKUP_SUFFIX = ".bak";
+
+    /* OpenSSH 的 rename 扩展，支持原子覆盖已存在的文件（服务器声明支持时 JSch 的 rename 自动使用） */
+    private static final String POSIX_RENAME_EXTENSION = "posix-rename@openssh.com";
+
+    /* 目标文件已存在（SFTP v5 起的状态码，JSch 未定义；部分服务器在 v3 下也返回该状态码而不是 SSH_FX_FAILURE） */
+    private static final int SSH_FX_FILE_ALREADY_EXISTS = 11;
+
     private ChannelSftp channel;
     private Session session;
     private String host;
@@ -24,6 +49,18 @@ public class SftpUtil {
     private String username;
     private String password;
 
+    /* 重命名前是否回读远程文件校验MD5 */
+    private boolean verifyChecksum;
+
+    /* 重试策略 */
+    private RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+
+    /* 熔断器（同一服务器的连接共享），为null时不熔断 */
+    private CircuitBreaker circuitBreaker;
+
+    /* 目录列表缓存（同一服务器的连接共享），为null时每次查询都访问服务器 */
+    private RemoteDirectoryCache directoryCache;
+
     /**
      * 构造函数
      */
@@ -34,6 +71,45 @@ public class SftpUtil {
         this.password = password;
     }
 
+    /**
+     * 设置重命名前是否回读远程文件校验MD5（默认只校验文件大小）
+     */
+    public void setVerifyChecksum(boolean verifyChecksum) {
+        this.verifyChecksum = verifyChecksum;
+    }
+
+    /**
+     * 设置重试策略（默认 {@link RetryPolicy#DEFAULT}）
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy != null ? retryPolicy : RetryPolicy.DEFAULT;
+    }
+
+    /**
+     * 设置熔断器，同一服务器的所有连接应共享同一个熔断器
+     */
+    public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * 设置目录列表缓存，同一服务器的所有连接应共享同一个缓存
+     */
+    public void setDirectoryCache(RemoteDirectoryCache directoryCache) {
+        this.directoryCache = directoryCache;
+    }
+
+    /**
+     * 使目录列表缓存失效（其他途径修改了远程目录时调用）
+     *
+     * @param directory 目录
+     */
+    public void invalidateListing(String directory) {
+        if (directoryCache != null && directory != null) {
+            directoryCache.invalidate(directory);
+        }
+    }
+
     /**
      * 连接SFTP服务器
      */
@@ -54,48 +130,37 @@ public class SftpUtil {
     /**
      * 连接SFTP服务器（带重试机制）
      *
-     * @param maxRetries 最大重试次数（默认3次）
-     * @param retryInterval 重试间隔（秒，默认5秒）
-     * @throws JSchException 连接失败异常
+     * @param maxRetries 最大尝试次数（默认3次）
+     * @param retryInterval 首次重试间隔（秒），之后按重试策略指数增长
+     * @throws JSchException 连接失败异常（熔断中时为 {@link CircuitOpenException}）
      */
     public void connectWithRetry(int maxRetries, int retryInterval) throws JSchException {
-        int attempt = 0;
-        JSchException lastException = null;
-
-        while (attempt < maxRetries) {
-            try {
-                connect();
-                return; // 连接成功，直接返回
-            } catch (JSchException e) {
-                lastException = e;
-                attempt++;
-                
-                if (attempt < maxRetries) {
-                    log.warn("SFTP连接失败（第{}次尝试）：{}，{}秒后重试...", 
-                            attempt, e.getMessage(), retryInterval);
-                    
-                    try {
-                        Thread.sleep(retryInterval * 1000L);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new JSchException("连接重试被中断", ie);
-                    }
-                }
-            }
-        }
-
-        // 所有重试都失败
-        log.error("SFTP连接失败，已重试{}次：{}", maxRetries, lastException.getMessage());
-        throw lastException;
+        connectWithRetry(retryPolicy.withRetries(Math.max(0, maxRetries - 1), retryInterval));
     }
 
     /**
-     * 连接SFTP服务器（带重试机制，使用默认参数）
+     * 连接SFTP服务器（带重试机制，使用默认重试策略）
      *
-     * @throws JSchException 连接失败异常
+     * @throws JSchException 连接失败异常（熔断中时为 {@link CircuitOpenException}）
      */
     public void connectWithRetry() throws JSchException {
-        connectWithRetry(3, 5);
+        connectWithRetry(retryPolicy);
+    }
+
+    private void connectWithRetry(RetryPolicy policy) throws JSchException {
+        try {
+            executeWithRetry("SFTP连接", host + ":" + port, policy, retryCount -> {
+                connect();
+                return null;
+            });
+        } catch (JSchException e) {
+            throw e;
+        } catch (Exception e) {
+            if (e.getCause() instanceof JSchException) {
+                throw (JSchException) e.getCause();
+            }
+            throw new JSchException(e.getMessage(), e);
+        }
     }
 
     /**
@@ -111,6 +176,32 @@ public class SftpUtil {
         log.info("SFTP连接已断开");
     }
 
+    /**
+     * 检查连接是否仍然可用（会与服务器进行一次往返）
+     *
+     * @return true-可用，false-不可用
+     */
+    public boolean isAlive() {
+        if (session == null || channel == null || !session.isConnected() || !channel.isConnected() || channel.isClosed()) {
+            return false;
+        }
+        try {
+            channel.realpath(".");
+            return true;
+        } catch (SftpException e) {
+            log.debug("SFTP连接校验失败: {}:{}，{}", host, port, e.getMessage());
+            return false;
+        }
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
     /**
      * 上传文件
      *
@@ -140,6 +231,8 @@ public class SftpUtil {
         try (FileInputStream fis = new FileInputStream(file)) {
             channel.put(fis, fileName);
             log.info("文件上传成功: {}/{}", directory, fileName);
+        } finally {
+            invalidateListing(directory);
         }
     }
 
@@ -171,6 +264,8 @@ public class SftpUtil {
         try (InputStream is = file.getInputStream()) {
             channel.put(is, fileName);
             log.info("文件上传成功: {}/{}", directory, fileName);
+        } finally {
+            invalidateListing(directory);
         }
     }
 
@@ -192,133 +287,336 @@ public class SftpUtil {
         } catch (Exception e) {
             log.error("文件上传失败：{}", e.getMessage(), e);
             throw e;
+        } finally {
+            invalidateListing(directory);
         }
     }
 
     /**
-     * 上传字节数组（带重试机制）
+     * 上传字节数组（带重试机制，失败后从远程已写入的位置续传）
      *
      * @param directory 上传目录
      * @param fileName  文件名
      * @param data      文件数据（字节数组）
      * @param maxRetries 最大重试次数（默认3次）
-     * @param retryInterval 重试间隔（秒，默认30秒）
+     * @param retryInterval 首次重试间隔（秒），之后按重试策略指数增长
      * @throws Exception 上传异常
      */
     public void uploadBytesWithRetry(String directory, String fileName, byte[] data, int maxRetries, int retryInterval) throws Exception {
-        int retryCount = 0;
-        Exception lastException = null;
+        uploadWithResume(directory, fileName, () -> new ByteArrayInputStream(data), data.length, retryPolicy.withRetries(maxRetries, retryInterval));
+    }
 
-        while (retryCount <= maxRetries) {
-            try {
-                if (retryCount > 0) {
-                    log.info("第 {} 次重试上传文件：{}", retryCount, fileName);
-                }
+    /**
+     * 上传字节数组（带重试机制，使用默认重试策略）
+     *
+     * @param directory 上传目录
+     * @param fileName  文件名
+     * @param data      文件数据（字节数组）
+     * @throws Exception 上传异常
+     */
+    public void uploadBytesWithRetry(String directory, String fileName, byte[] data) throws Exception {
+        uploadWithResume(directory, fileName, () -> new ByteArrayInputStream(data), data.length, retryPolicy);
+    }
 
-                channel.cd(directory);
-                ByteArrayInputStream inputStream = new ByteArrayInputStream(data);
-                channel.put(inputStream, fileName);
-                inputStream.close();
+    /**
+     * 可续传上传（带重试机制）
+     * 数据先写入 文件名.part，校验大小（及MD5）后重命名为正式文件名，下游不会看到未写完的文件。
+     * 首次上传覆盖临时文件；重试时先查询临时文件已写入的大小，重新打开数据源并跳过该位置之前的数据，追加写入临时文件，
+     * 临时文件不存在或大于数据源时从头上传。连接已断开时会先重新连接
+     *
+     * @param directory  上传目录
+     * @param fileName   文件名
+     * @param source     可重复打开的数据源（如 MultipartFile、本地文件、字节数组）
+     * @param size       数据源总大小（字节）
+     * @param maxRetries 最大重试次数
+     * @param retryInterval 首次重试间隔（秒），之后按重试策略指数增长
+     * @throws Exception 上传异常
+     */
+    public void uploadWithResume(String directory, String fileName, InputStreamSource source, long size, int maxRetries, int retryInterval) throws Exception {
+        uploadWithResume(directory, fileName, source, size, retryPolicy.withRetries(maxRetries, retryInterval));
+    }
+
+    /**
+     * 可续传上传（带重试机制，使用默认重试策略）
+     *
+     * @param directory 上传目录
+     * @param fileName  文件名
+     * @param source    可重复打开的数据源
+     * @param size      数据源总大小（字节）
+     * @throws Exception 上传异常
+     */
+    public void uploadWithResume(String directory, String fileName, InputStreamSource source, long size) throws Exception {
+        uploadWithResume(directory, fileName, source, size, retryPolicy);
+    }
 
+    private void uploadWithResume(String directory, String fileName, InputStreamSource source, long size, RetryPolicy policy) throws Exception {
+        try {
+            executeWithRetry("文件上传", fileName, policy, retryCount -> {
                 if (retryCount > 0) {
-                    log.info("第 {} 次重试上传成功：{}", retryCount, fileName);
-                } else {
-                    log.info("文件上传成功：{}", fileName);
+                    reconnectIfBroken();
+                    log.info("第 {} 次重试上传文件：{}", retryCount, fileName);
                 }
-                return;
+                putPart(directory, fileName, skipping(source), size, retryCount > 0);
+                return null;
+            });
+        } catch (Exception e) {
+            discardPart(directory, fileName);
+            throw e;
+        }
+    }
 
-            } catch (Exception e) {
-                lastException = e;
-                retryCount++;
+    /**
+     * 可续传上传（只尝试一次，由调用方控制重试）
+     * 与 {@link #uploadWithResume(String, String, InputStreamSource, long)} 相同先写入 文件名.part 再校验重命名，
+     * 但失败时保留临时文件，调用方下次以 resume=true 调用时从临时文件已写入的位置续传（数据源直接从该位置打开，已上传的部分不再读取）；
+     * 最终放弃时调用 {@link #discardPart(String, String)} 删除临时文件
+     *
+     * @param directory 上传目录
+     * @param fileName  文件名
+     * @param source    可从指定位置打开的数据源（如远程文件）
+     * @param size      数据源总大小（字节）
+     * @param resume    是否从已有临时文件续传（首次上传传 false，覆盖可能遗留的临时文件）
+     * @throws Exception 上传异常（熔断中时为 {@link CircuitOpenException}）
+     */
+    public void uploadOnceWithResume(String directory, String fileName, ResumableSource source, long size, boolean resume) throws Exception {
+        executeWithRetry("文件上传", fileName, RetryPolicy.NONE, retryCount -> {
+            putPart(directory, fileName, source, size, resume);
+            return null;
+        });
+    }
 
-                if (retryCount <= maxRetries) {
-                    log.warn("文件上传失败（第{}次尝试）：{}，{}秒后重试...", retryCount, e.getMessage(), retryInterval);
-                    try {
-                        Thread.sleep(retryInterval * 1000L);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new Exception("上传被中断", ie);
-                    }
-                }
+    /**
+     * 删除未写完的临时文件（文件名.part），失败时只记录日志
+     *
+     * @param directory 上传目录
+     * @param fileName  正式文件名
+     */
+    public void discardPart(String directory, String fileName) {
+        removeQuietly(directory + "/" + fileName + PART_SUFFIX);
+    }
+
+    /**
+     * 写入临时文件并校验重命名
+     * 续传时先查询临时文件已写入的大小，从该位置打开数据源并追加写入临时文件，临时文件不存在或大于数据源时从头上传
+     */
+    private void putPart(String directory, String fileName, ResumableSource source, long size, boolean resume) throws Exception {
+        String partName = fileName + PART_SUFFIX;
+        long offset = 0;
+        if (resume) {
+            long remoteSize = remoteSize(directory, partName);
+            if (remoteSize > 0 && remoteSize <= size) {
+                offset = remoteSize;
+                log.info("续传文件：{}，从 {}/{} 字节处续传", fileName, remoteSize, size);
             }
         }
 
-        log.error("文件上传失败，已重试{}次：{}", maxRetries, lastException.getMessage());
-        throw new Exception(String.format("文件上传失败，已重试%d次：%s", maxRetries, lastException.getMessage()), lastException);
+        channel.cd(directory);
+        try (InputStream inputStream = source.open(offset)) {
+            // 不使用 ChannelSftp.RESUME：该模式从头读取数据源并在本地丢弃已上传的部分
+            channel.put(inputStream, partName, offset > 0 ? ChannelSftp.APPEND : ChannelSftp.OVERWRITE);
+        }
+        byte[] expectedMd5 = null;
+        if (verifyChecksum) {
+            try (InputStream inputStream = source.open(0)) {
+                expectedMd5 = DigestUtils.md5Digest(inputStream);
+            }
+        }
+        commitPart(directory, fileName, size, expectedMd5);
+        log.info("文件上传成功：{}", fileName);
     }
 
     /**
-     * 上传字节数组（带重试机制，使用默认参数）
+     * 上传输入流（带重试机制，直接处理InputStream而不转换为字节数组）
+     * 输入流只能读取一次：已有数据被读取后失败将直接抛出异常，不再重试
      *
      * @param directory 上传目录
      * @param fileName  文件名
-     * @param data      文件数据（字节数组）
+     * @param inputStream 文件输入流
+     * @param maxRetries 最大重试次数
+     * @param retryInterval 首次重试间隔（秒），之后按重试策略指数增长
      * @throws Exception 上传异常
+     * @deprecated 输入流无法重放，请使用 {@link #uploadWithResume(String, String, InputStreamSource, long, int, int)}
      */
-    public void uploadBytesWithRetry(String directory, String fileName, byte[] data) throws Exception {
-        uploadBytesWithRetry(directory, fileName, data, 3, 5);
+    @Deprecated
+    public void uploadStreamWithRetry(String directory, String fileName, InputStream inputStream, int maxRetries, int retryInterval) throws Exception {
+        uploadStreamWithRetry(directory, fileName, inputStream, retryPolicy.withRetries(maxRetries, retryInterval));
     }
 
     /**
-     * 上传输入流（带重试机制，直接处理InputStream而不转换为字节数组）
+     * 上传输入流（带重试机制，使用默认重试策略）
      *
      * @param directory 上传目录
      * @param fileName  文件名
      * @param inputStream 文件输入流
-     * @param maxRetries 最大重试次数
-     * @param retryInterval 重试间隔（秒）
      * @throws Exception 上传异常
+     * @deprecated 输入流无法重放，请使用 {@link #uploadWithResume(String, String, InputStreamSource, long)}
      */
-    public void uploadStreamWithRetry(String directory, String fileName, InputStream inputStream, int maxRetries, int retryInterval) throws Exception {
-        int retryCount = 0;
-        Exception lastException = null;
+    @Deprecated
+    public void uploadStreamWithRetry(String directory, String fileName, InputStream inputStream) throws Exception {
+        uploadStreamWithRetry(directory, fileName, inputStream, retryPolicy);
+    }
 
-        while (retryCount <= maxRetries) {
-            try {
+    private void uploadStreamWithRetry(String directory, String fileName, InputStream inputStream, RetryPolicy policy) throws Exception {
+        CountingInputStream countingStream = new CountingInputStream(inputStream);
+        String partName = fileName + PART_SUFFIX;
+        try {
+            executeWithRetry("文件上传", fileName, policy, retryCount -> {
                 if (retryCount > 0) {
+                    reconnectIfBroken();
                     log.info("第 {} 次重试上传文件：{}", retryCount, fileName);
                 }
+                try {
+                    channel.cd(directory);
+                    channel.put(countingStream, partName);
+                    commitPart(directory, fileName, countingStream.getCount(), null);
+                } catch (Exception e) {
+                    if (countingStream.getCount() > 0) {
+                        log.error("文件上传失败，输入流已读取 {} 字节无法重试：{}", countingStream.getCount(), e.getMessage());
+                        throw new IllegalStateException("文件上传失败，输入流已被读取无法重试：" + e.getMessage(), e);
+                    }
+                    throw e;
+                }
+                log.info("文件上传成功：{}", fileName);
+                return null;
+            });
+        } catch (Exception e) {
+            removeQuietly(directory + "/" + partName);
+            throw e;
+        }
+    }
 
-                channel.cd(directory);
-                channel.put(inputStream, fileName);
+    /**
+     * 流式上传（带重试机制），由写入器直接向SFTP输出流写数据，不在内存中保留完整文件
+     * 数据先写入 文件名.part，校验通过后重命名为正式文件名；每次重试都会重新调用写入器，因此写入器必须可重复执行
+     *
+     * @param directory  上传目录
+     * @param fileName   文件名
+     * @param writer     数据写入器
+     * @param bufferSize 写缓冲区大小（字节）
+     * @param maxRetries 最大重试次数
+     * @param retryInterval 首次重试间隔（秒），之后按重试策略指数增长
+     * @return 写入的字节数
+     * @throws Exception 上传异常
+     */
+    public long uploadStreamingWithRetry(String directory, String fileName, StreamWriter writer, int bufferSize, int maxRetries, int retryInterval) throws Exception {
+        return uploadStreamingWithRetry(directory, fileName, writer, bufferSize, retryPolicy.withRetries(maxRetries, retryInterval));
+    }
+
+    /**
+     * 流式上传（带重试机制，使用默认重试策略）
+     *
+     * @param directory  上传目录
+     * @param fileName   文件名
+     * @param writer     数据写入器
+     * @param bufferSize 写缓冲区大小（字节）
+     * @return 写入的字节数
+     * @throws Exception 上传异常
+     */
+    public long uploadStreamingWithRetry(String directory, String fileName, StreamWriter writer, int bufferSize) throws Exception {
+        return uploadStreamingWithRetry(directory, fileName, writer, bufferSize, retryPolicy);
+    }
 
+    private long uploadStreamingWithRetry(String directory, String fileName, StreamWriter writer, int bufferSize, RetryPolicy policy) throws Exception {
+        String partName = fileName + PART_SUFFIX;
+        try {
+            return executeWithRetry("文件上传", fileName, policy, retryCount -> {
                 if (retryCount > 0) {
-                    log.info("第 {} 次重试上传成功：{}", retryCount, fileName);
-                } else {
-                    log.info("文件上传成功：{}", fileName);
+                    reconnectIfBroken();
+                    log.info("第 {} 次重试上传文件：{}", retryCount, fileName);
                 }
-                return;
 
-            } catch (Exception e) {
-                lastException = e;
-                retryCount++;
-
-                if (retryCount <= maxRetries) {
-                    log.warn("文件上传失败（第{}次尝试）：{}，{}秒后重试...", retryCount, e.getMessage(), retryInterval);
+                channel.cd(directory);
+                CountingOutputStream counter;
+                MessageDigest digest = verifyChecksum ? MessageDigest.getInstance("MD5") : null;
+                try (TransportOutputStream remote = new TransportOutputStream(channel.put(partName));
+                     OutputStream os = new BufferedOutputStream(remote, bufferSize)) {
+                    counter = new CountingOutputStream(digest != null ? new DigestOutputStream(os, digest) : os);
                     try {
-                        Thread.sleep(retryInterval * 1000L);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new Exception("上传被中断", ie);
+                        writer.writeTo(counter);
+                        counter.flush();
+                    } catch (Exception e) {
+                        if (remote.isFailed()) {
+                            // SFTP 输出流写入失败，按传输错误重试
+                            throw e;
+                        }
+                        // 写入方的数据错误（如压缩包超出解析限制、转换或合并失败），与服务器无关，重试无意义
+                        log.error("文件写入失败，不再重试：{}，{}", fileName, e.getMessage());
+                        throw e instanceof RuntimeException ? (RuntimeException) e : new StreamWriterException(e);
                     }
                 }
-            }
-        }
+                commitPart(directory, fileName, counter.getCount(), digest != null ? digest.digest() : null);
 
-        log.error("文件上传失败，已重试{}次：{}", maxRetries, lastException.getMessage());
-        throw new Exception(String.format("文件上传失败，已重试%d次：%s", maxRetries, lastException.getMessage()), lastException);
+                log.info("文件上传成功：{}，大小：{} 字节", fileName, counter.getCount());
+                return counter.getCount();
+            });
+        } catch (Exception e) {
+            removeQuietly(directory + "/" + partName);
+            throw e;
+        }
     }
 
     /**
-     * 上传输入流（带重试机制，使用默认参数）
+     * 按重试策略执行SFTP操作
+     * 每次尝试前检查熔断器，熔断中立即失败；重试间隔按指数退避并加入随机抖动，
+     * 重试次数用尽、从首次尝试起的耗时加下次等待将超过截止时间或熔断器已打开时停止重试。
+     * RuntimeException 视为调用方的数据错误，直接抛出不重试，也不计入熔断失败
      *
-     * @param directory 上传目录
-     * @param fileName  文件名
-     * @param inputStream 文件输入流
-     * @throws Exception 上传异常
+     * @param action  操作名称（用于日志）
+     * @param target  操作对象（用于日志）
+     * @param policy  重试策略
+     * @param attempt 单次尝试，参数为当前重试序号（首次为0）
+     * @return 操作结果
+     * @throws Exception 所有尝试均失败
      */
-    public void uploadStreamWithRetry(String directory, String fileName, InputStream inputStream) throws Exception {
-        uploadStreamWithRetry(directory, fileName, inputStream, 3, 5);
+    private <T> T executeWithRetry(String action, String target, RetryPolicy policy, Attempt<T> attempt) throws Exception {
+        long startNanos = System.nanoTime();
+        int retryCount = 0;
+
+        while (true) {
+            if (circuitBreaker != null) {
+                circuitBreaker.acquire();
+            }
+            try {
+                T result = attempt.run(retryCount);
+                if (circuitBreaker != null) {
+                    circuitBreaker.recordSuccess();
+                }
+                if (retryCount > 0) {
+                    log.info("第 {} 次重试{}成功：{}", retryCount, action, target);
+                }
+                return result;
+
+            } catch (RuntimeException e) {
+                // 数据错误与服务器可用性无关，只释放半开状态下的试探名额
+                if (circuitBreaker != null) {
+                    circuitBreaker.release();
+                }
+                throw e;
+            } catch (Exception e) {
+                if (circuitBreaker != null) {
+                    circuitBreaker.recordFailure();
+                }
+                retryCount++;
+                long delay = policy.delayMillis(retryCount);
+
+                boolean exhausted = retryCount > policy.getMaxRetries();
+                boolean pastDeadline = !policy.allowsDelay(startNanos, delay);
+                boolean open = circuitBreaker != null && circuitBreaker.isOpen();
+                if (exhausted || pastDeadline || open) {
+                    String reason = exhausted ? "重试次数已用尽" : (pastDeadline ? "已超过截止时间" : "熔断器已打开");
+                    log.error("{}失败，已重试{}次（{}）：{}", action, retryCount - 1, reason, e.getMessage());
+                    throw new Exception(String.format("%s失败，已重试%d次：%s", action, retryCount - 1, e.getMessage()), e);
+                }
+
+                log.warn("{}失败（第{}次尝试）：{}，{}毫秒后重试...", action, retryCount, e.getMessage(), delay);
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new Exception(action + "被中断", ie);
+                }
+            }
+        }
     }
 
     /**
@@ -398,10 +696,131 @@ public class SftpUtil {
         }
 
         channel.cd(directory);
-        channel.rm(fileName);
+        try {
+            channel.rm(fileName);
+        } finally {
+            invalidateListing(directory);
+        }
         log.info("文件删除成功: {}/{}", directory, fileName);
     }
 
+    /**
+     * 删除当前目录下未写完的文件，失败时只记录日志
+     *
+     * @param fileName 文件名
+     */
+    private void removeQuietly(String fileName) {
+        try {
+            channel.rm(fileName);
+            log.info("已删除未写完的文件：{}", fileName);
+        } catch (Exception e) {
+            log.warn("删除未写完的文件失败：{}，{}", fileName, e.getMessage());
+        }
+    }
+
+    /**
+     * 校验当前目录下的临时文件并重命名为正式文件名，校验失败时删除临时文件
+     * 服务器支持 posix-rename 扩展时直接原子覆盖；否则正式文件已存在时先改名为备份再重命名，
+     * 两次重命名之间正式文件短暂不存在，第二次重命名失败时恢复备份，不会丢失旧文件
+     *
+     * @param directory    当前目录（用于使目录列表缓存失效）
+     * @param fileName     正式文件名
+     * @param expectedSize 期望的文件大小（字节）
+     * @param expectedMd5  期望的MD5，为null时不回读校验
+     */
+    private void commitPart(String directory, String fileName, long expectedSize, byte[] expectedMd5) throws Exception {
+        String partName = fileName + PART_SUFFIX;
+        long actualSize = channel.stat(partName).getSize();
+        if (actualSize != expectedSize) {
+            removeQuietly(partName);
+            throw new IOException(String.format("上传文件大小校验失败：%s，期望 %d 字节，实际 %d 字节", fileName, expectedSize, actualSize));
+        }
+        if (expectedMd5 != null) {
+            byte[] actualMd5;
+            try (InputStream in = channel.get(partName)) {
+                actualMd5 = DigestUtils.md5Digest(in);
+            }
+            if (!MessageDigest.isEqual(expectedMd5, actualMd5)) {
+                removeQuietly(partName);
+                throw new IOException("上传文件MD5校验失败：" + fileName);
+            }
+        }
+
+        try {
+            channel.rename(partName, fileName);
+        } catch (SftpException e) {
+            // SFTP v3 的 rename 不允许覆盖已存在的文件（支持 posix-rename 时的失败是其他原因）
+            boolean targetExists = e.id == ChannelSftp.SSH_FX_FAILURE || e.id == SSH_FX_FILE_ALREADY_EXISTS;
+            if (!targetExists || channel.getExtension(POSIX_RENAME_EXTENSION) != null) {
+                throw e;
+            }
+            replaceWithBackup(partName, fileName);
+        } finally {
+            invalidateListing(directory);
+        }
+        log.info("临时文件校验通过，已重命名：{} -> {}", partName, fileName);
+    }
+
+    /**
+     * 服务器不支持原子覆盖时替换当前目录下已存在的正式文件：
+     * 旧文件改名为备份，临时文件改名为正式文件名，成功后删除备份，失败时把备份恢复为正式文件
+     *
+     * @param partName 临时文件名
+     * @param fileName 正式文件名
+     */
+    private void replaceWithBackup(String partName, String fileName) throws SftpException {
+        String backupName = fileName + BACKUP_SUFFIX;
+        try {
+            // 上次替换中断遗留的备份（正式文件仍存在，说明备份已无用）
+            channel.rm(backupName);
+        } catch (SftpException e) {
+            if (e.id != ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                throw e;
+            }
+        }
+
+        channel.rename(fileName, backupName);
+        try {
+            channel.rename(partName, fileName);
+        } catch (SftpException e) {
+            try {
+                channel.rename(backupName, fileName);
+                log.warn("临时文件重命名失败，已恢复原文件：{}", fileName);
+            } catch (SftpException restoreException) {
+                log.error("临时文件重命名失败且恢复原文件失败，原文件保留为：{}", backupName);
+                e.addSuppressed(restoreException);
+            }
+            throw e;
+        }
+
+        try {
+            channel.rm(backupName);
+        } catch (SftpException e) {
+            log.warn("删除备份文件失败：{}，{}", backupName, e.getMessage());
+        }
+    }
+
+    /**
+     * 重试前检查连接，已断开时重新建立连接
+     */
+    private void reconnectIfBroken() throws JSchException {
+        if (!isAlive()) {
+            log.warn("SFTP连接已断开，重新连接: {}:{}", host, port);
+            disconnect();
+            connect();
+        }
+    }
+
+    /**
+     * 查询远程文件已写入的大小
+     *
+     * @return 文件大小，文件不存在返回0
+     */
+    private long remoteSize(String directory, String fileName) throws Exception {
+        SftpATTRS attrs = stat(directory, fileName);
+        return attrs == null ? 0 : attrs.getSize();
+    }
+
     /**
      * 创建目录
      *
@@ -427,6 +846,7 @@ public class SftpUtil {
             } catch (SftpException e) {
                 if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
                     channel.mkdir(currentPath);
+                    invalidateListing(currentPath.substring(0, currentPath.lastIndexOf('/') + 1));
                     log.info("创建目录: {}", currentPath);
                 } else {
                     throw e;
@@ -442,7 +862,7 @@ public class SftpUtil {
     }
 
     /**
-     * 检查文件是否存在
+     * 检查文件是否存在（启用目录列表缓存时从缓存判断）
      *
      * @param directory  目录
      * @param fileName   文件名
@@ -453,6 +873,17 @@ public class SftpUtil {
             throw new IllegalStateException("SFTP未连接");
         }
 
+        if (directoryCache != null) {
+            try {
+                return listDirectory(directory).containsKey(fileName);
+            } catch (SftpException e) {
+                if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                    return false;
+                }
+                throw e;
+            }
+        }
+
         try {
             channel.cd(directory);
             channel.ls(fileName);
@@ -466,7 +897,7 @@ public class SftpUtil {
     }
 
     /**
-     * 递归搜索文件
+     * 递归搜索文件（启用目录列表缓存时各级目录从缓存读取，缓存有效期内不访问服务器）
      *
      * @param directory  搜索目录
      * @param fileName   文件名
@@ -479,12 +910,8 @@ public class SftpUtil {
 
         log.info("开始递归搜索文件，目录: {}, 文件名: {}", directory, fileName);
 
-        // 保存当前工作目录
-        String currentDir = channel.pwd();
-
         try {
-            // 尝试切换到目标目录
-            channel.cd(directory);
+            listDirectory(directory);
         } catch (SftpException e) {
             if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
                 log.warn("目录不存在: {}", directory);
@@ -493,13 +920,7 @@ public class SftpUtil {
             throw e;
         }
 
-        // 搜索当前目录
-        String foundPath = searchFileRecursive(fileName, directory);
-
-        // 恢复工作目录
-        channel.cd(currentDir);
-
-        return foundPath;
+        return searchFileRecursive(fileName, RemoteDirectoryCache.normalize(directory));
     }
 
     /**
@@ -510,39 +931,182 @@ public class SftpUtil {
      * @return  文件的完整路径，如果未找到返回null
      */
     private String searchFileRecursive(String fileName, String currentDir) throws Exception {
+        Map<String, SftpATTRS> entries;
         try {
-            @SuppressWarnings("unchecked")
-            java.util.Vector<ChannelSftp.LsEntry> entries = channel.ls(currentDir);
-
-            for (ChannelSftp.LsEntry entry : entries) {
-                String name = entry.getFilename();
-                // 跳过当前目录和上级目录
-                if (".".equals(name) || "..".equals(name)) {
-                    continue;
+            entries = listDirectory(currentDir);
+        } catch (SftpException e) {
+            log.error("搜索目录时出错: {}, 错误: {}", currentDir, e.getMessage());
+            return null;
+        }
+
+        // 先查当前目录（哈希查找），再进入子目录
+        SftpATTRS attrs = entries.get(fileName);
+        if (attrs != null && !attrs.isDir()) {
+            String fullPath = currentDir + "/" + fileName;
+            log.info("找到文件: {}", fullPath);
+            return fullPath;
+        }
+        for (Map.Entry<String, SftpATTRS> entry : entries.entrySet()) {
+            if (entry.getValue().isDir()) {
+                String subDir = currentDir + "/" + entry.getKey();
+                log.debug("进入子目录搜索: {}", subDir);
+                String foundPath = searchFileRecursive(fileName, subDir);
+                if (foundPath != null) {
+                    return foundPath;
                 }
+            }
+        }
 
-                String fullPath = currentDir + "/" + name;
+        return null;
+    }
 
-                if (entry.getAttrs().isDir()) {
-                    // 如果是目录，递归搜索
-                    log.debug("进入子目录搜索: {}", fullPath);
-                    String foundPath = searchFileRecursive(fileName, fullPath);
-                    if (foundPath != null) {
-                        return foundPath;
-                    }
-                } else {
-                    // 如果是文件，检查是否匹配
-                    if (name.equals(fileName)) {
-                        log.info("找到文件: {}", fullPath);
-                        return fullPath;
+    /**
+     * 列出目录内容（不含 . 和 ..），启用缓存时优先读取缓存
+     *
+     * @param directory 目录
+     * @return 文件名 -> 属性
+     */
+    private Map<String, SftpATTRS> listDirectory(String directory) throws Exception {
+        if (directoryCache == null) {
+            Map<String, SftpATTRS> entries = lsAsMap(directory);
+            entries.remove(".");
+            entries.remove("..");
+            return entries;
+        }
+        return directoryCache.getListing(directory, new RemoteDirectoryCache.ListingSource() {
+            @Override
+            public Map<String, SftpATTRS> list(String dir) throws Exception {
+                return lsAsMap(dir);
+            }
+
+            @Override
+            public SftpATTRS statDirectory(String dir) throws Exception {
+                try {
+                    return channel.stat(dir);
+                } catch (SftpException e) {
+                    if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                        return null;
                     }
+                    throw e;
                 }
             }
+        });
+    }
+
+    private Map<String, SftpATTRS> lsAsMap(String directory) throws SftpException {
+        @SuppressWarnings("unchecked")
+        java.util.Vector<ChannelSftp.LsEntry> entries = channel.ls(directory);
+        Map<String, SftpATTRS> result = new HashMap<>(entries.size() * 2);
+        for (ChannelSftp.LsEntry entry : entries) {
+            result.put(entry.getFilename(), entry.getAttrs());
+        }
+        return result;
+    }
+
+    /**
+     * 列出目录下的普通文件（不递归，不含未写完的 .part 临时文件）
+     *
+     * @param directory 目录
+     * @return 文件列表（文件名及属性）
+     */
+    public List<FileEntry> listFiles(String directory) throws Exception {
+        if (channel == null) {
+            throw new IllegalStateException("SFTP未连接");
+        }
+
+        List<FileEntry> files = new ArrayList<>();
+        for (Map.Entry<String, SftpATTRS> entry : listDirectory(directory).entrySet()) {
+            String name = entry.getKey();
+            if (entry.getValue().isReg() && !name.endsWith(PART_SUFFIX)) {
+                files.add(new FileEntry(name, entry.getValue()));
+            }
+        }
+        return files;
+    }
+
+    /**
+     * 创建硬链接（hardlink@openssh.com 扩展），新文件与源文件共享数据，删除任一方不影响另一方
+     *
+     * @param sourceDirectory 源文件目录
+     * @param sourceFileName  源文件名
+     * @param targetDirectory 链接目录
+     * @param targetFileName  链接文件名
+     * @throws SftpException 服务器不支持硬链接、源文件不存在或链接文件已存在
+     */
+    public void hardlink(String sourceDirectory, String sourceFileName, String targetDirectory, String targetFileName) throws Exception {
+        if (channel == null) {
+            throw new IllegalStateException("SFTP未连接");
+        }
+
+        try {
+            channel.hardlink(sourceDirectory + "/" + sourceFileName, targetDirectory + "/" + targetFileName);
+        } finally {
+            invalidateListing(targetDirectory);
+        }
+        log.info("硬链接创建成功: {}/{} -> {}/{}", targetDirectory, targetFileName, sourceDirectory, sourceFileName);
+    }
+
+    /**
+     * 确保目录存在，不存在时逐级创建
+     *
+     * @param directory 目录
+     */
+    public void ensureDirectory(String directory) throws Exception {
+        if (channel == null) {
+            throw new IllegalStateException("SFTP未连接");
+        }
+        createDirectory(directory);
+    }
+
+    /**
+     * 获取远程文件属性
+     *
+     * @param directory  目录
+     * @param fileName   文件名
+     * @return  文件属性（大小、修改时间等），文件不存在返回null
+     */
+    public SftpATTRS stat(String directory, String fileName) throws Exception {
+        if (channel == null) {
+            throw new IllegalStateException("SFTP未连接");
+        }
+
+        try {
+            return channel.stat(directory + "/" + fileName);
         } catch (SftpException e) {
-            log.error("搜索目录时出错: {}, 错误: {}", currentDir, e.getMessage());
+            if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                return null;
+            }
+            throw e;
         }
+    }
 
-        return null;
+    /**
+     * 打开远程文件输入流（不检查文件是否存在，调用方通常已通过 {@link #stat} 确认）
+     *
+     * @param directory  源目录
+     * @param fileName   文件名
+     * @return  文件的输入流，读取完毕后必须关闭
+     */
+    public InputStream openInputStream(String directory, String fileName) throws Exception {
+        if (channel == null) {
+            throw new IllegalStateException("SFTP未连接");
+        }
+        return channel.get(directory + "/" + fileName);
+    }
+
+    /**
+     * 从指定位置打开远程文件输入流（由服务器定位，之前的数据不会传输）
+     *
+     * @param directory 源目录
+     * @param fileName  文件名
+     * @param offset    起始位置（字节）
+     * @return 文件的输入流，读取完毕后必须关闭
+     */
+    public InputStream openInputStream(String directory, String fileName, long offset) throws Exception {
+        if (channel == null) {
+            throw new IllegalStateException("SFTP未连接");
+        }
+        return channel.get(directory + "/" + fileName, null, offset);
     }
 
     /**
@@ -584,4 +1148,227 @@ public class SftpUtil {
             throw new RuntimeException("SFTP获取文件流失败: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 将可重复打开的数据源适配为 {@link ResumableSource}：每次从头打开，在本地跳过指定位置之前的数据
+     * 适用于本地文件、上传文件等跳过成本很低的数据源
+     */
+    private static ResumableSource skipping(InputStreamSource source) {
+        return offset -> {
+            InputStream in = source.getInputStream();
+            try {
+                long remaining = offset;
+                while (remaining > 0) {
+                    long skipped = in.skip(remaining);
+                    if (skipped <= 0) {
+                        if (in.read() < 0) {
+                            throw new IOException("数据源长度小于续传位置：" + offset);
+                        }
+                        skipped = 1;
+                    }
+                    remaining -= skipped;
+                }
+                return in;
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * 可从指定位置打开的数据源，续传时只读取尚未上传的部分
+     */
+    @FunctionalInterface
+    public interface ResumableSource {
+
+        /**
+         * 从指定位置打开输入流
+         *
+         * @param offset 起始位置（字节）
+         * @return 从 offset 开始的输入流，由调用方关闭
+         */
+        InputStream open(long offset) throws IOException;
+    }
+
+    /**
+     * 流式上传的数据写入器
+     */
+    @FunctionalInterface
+    public interface StreamWriter {
+
+        /**
+         * 将数据写入输出流（无需关闭输出流）
+         *
+         * @param out SFTP输出流
+         */
+        void writeTo(OutputStream out) throws Exception;
+    }
+
+    /**
+     * 远程文件（文件名及属性）
+     */
+    public static class FileEntry {
+        private final String fileName;
+        private final SftpATTRS attrs;
+
+        FileEntry(String fileName, SftpATTRS attrs) {
+            this.fileName = fileName;
+            this.attrs = attrs;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public SftpATTRS getAttrs() {
+            return attrs;
+        }
+    }
+
+    /**
+     * 流式写入器的数据错误（非SFTP传输错误），不重试、不计入熔断失败
+     */
+    public static class StreamWriterException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        StreamWriterException(Exception cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * 记录SFTP输出流是否发生写入错误，用于区分传输错误和写入方的数据错误
+     */
+    private static class TransportOutputStream extends FilterOutputStream {
+        private boolean failed;
+
+        TransportOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            try {
+                out.write(b);
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            try {
+                out.write(b, off, len);
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                out.close();
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        boolean isFailed() {
+            return failed;
+        }
+    }
+
+    /**
+     * 可重试的单次操作
+     */
+    @FunctionalInterface
+    private interface Attempt<T> {
+
+        /**
+         * @param retryCount 当前重试序号（首次为0）
+         */
+        T run(int retryCount) throws Exception;
+    }
+
+    /**
+     * 统计写入字节数的输出流
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * 统计读取字节数的输入流
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.demo.util;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.ColumnText;
+import com.itextpdf.text.pdf.PdfPageEventHelper;
+import com.itextpdf.text.pdf.PdfWriter;
+
+import java.util.Locale;
+
+/**
+ * Word（DOCX/DOC）转 PDF 的公共排版规则：字号、标题样式、颜色、页眉页脚
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+final class WordPdfLayout {
+
+    /**
+     * 默认正文字号
+     */
+    static final float DEFAULT_FONT_SIZE = 12f;
+
+    /**
+     * 页眉页脚字号
+     */
+    static final float HEADER_FOOTER_FONT_SIZE = 9f;
+
+    /**
+     * 大表格每累计多少行提交一次，已提交的行随页面写出后释放
+     */
+    static final int TABLE_FLUSH_ROWS = 50;
+
+    /**
+     * Word 长度单位：1 磅 = 20 缇
+     */
+    static final float TWIPS_PER_POINT = 20f;
+
+    private WordPdfLayout() {
+    }
+
+    /**
+     * 根据样式名称判断标题级别：0 表示文档标题，1-9 表示各级标题，-1 表示正文
+     */
+    static int headingLevel(String styleName) {
+        if (styleName == null) {
+            return -1;
+        }
+        String name = styleName.toLowerCase(Locale.ROOT).replace(" ", "");
+        if ("title".equals(name)) {
+            return 0;
+        }
+        if (name.startsWith("heading") && name.length() > "heading".length()) {
+            char level = name.charAt("heading".length());
+            if (level >= '1' && level <= '9') {
+                return level - '0';
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 段落默认字体（标题样式使用更大的粗体）
+     */
+    static Font paragraphFont(int headingLevel) {
+        if (headingLevel == 0) {
+            return PdfFontRegistry.getFont(22f, Font.BOLD, null);
+        }
+        if (headingLevel > 0) {
+            return PdfFontRegistry.getFont(Math.max(DEFAULT_FONT_SIZE, 20f - (headingLevel - 1) * 2f), Font.BOLD, null);
+        }
+        return PdfFontRegistry.getFont(DEFAULT_FONT_SIZE, Font.NORMAL, null);
+    }
+
+    /**
+     * 解析 Word 颜色（RRGGBB），auto 或无法解析时返回null
+     */
+    static BaseColor parseColor(String hex) {
+        if (hex == null || hex.length() != 6) {
+            return null;
+        }
+        try {
+            int rgb = Integer.parseInt(hex, 16);
+            return new BaseColor((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 页眉页脚文本合并为单行，空白时返回null
+     */
+    static String singleLine(String text) {
+        if (text == null) {
+            return null;
+        }
+        String result = text.replaceAll("[\\s\\u0000-\\u001F]+", " ").trim();
+        return result.isEmpty() ? null : result;
+    }
+
+    /**
+     * 在每页页边距内输出页眉页脚文本
+     */
+    static class HeaderFooterEvent extends PdfPageEventHelper {
+
+        private final String headerText;
+
+        private final String footerText;
+
+        HeaderFooterEvent(String headerText, String footerText) {
+            this.headerText = singleLine(headerText);
+            this.footerText = singleLine(footerText);
+        }
+
+        @Override
+        public void onEndPage(PdfWriter writer, Document document) {
+            Rectangle page = document.getPageSize();
+            float x = (document.left() + document.right()) / 2;
+            Font font = PdfFontRegistry.getFont(HEADER_FOOTER_FONT_SIZE);
+            if (headerText != null) {
+                ColumnText.showTextAligned(writer.getDirectContent(), Element.ALIGN_CENTER, new Phrase(headerText, font),
+                        x, page.getHeight() - document.topMargin() / 2, 0);
+            }
+            if (footerText != null) {
+                ColumnText.showTextAligned(writer.getDirectContent(), Element.ALIGN_CENTER, new Phrase(footerText, font),
+                        x, document.bottomMargin() / 2, 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.demo.component;
+
+import com.example.demo.bean.vo.ChunkUploadVo;
+import com.example.demo.config.TransferConfig;
+import com.example.demo.util.FileUtil;
+import com.example.demo.util.LocalMultipartFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChunkedUploadManagerTest {
+
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path tempDir;
+
+    private ChunkedUploadManager manager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TransferConfig transferConfig = new TransferConfig();
+        transferConfig.setSpoolDirectory(tempDir.toString());
+        manager = new ChunkedUploadManager(transferConfig);
+        manager.init();
+    }
+
+    @Test
+    void assemblesChunksInOrder() throws Exception {
+        String uploadId = manager.create("batch.zip", CONTENT.length).getUploadId();
+
+        append(uploadId, 0, 8);
+        ChunkUploadVo upload = append(uploadId, 8, CONTENT.length);
+        assertEquals(CONTENT.length, upload.getReceived());
+
+        LocalMultipartFile file = manager.beginComplete(uploadId);
+        assertArrayEquals(CONTENT, file.getBytes());
+        assertEquals("batch.zip", file.getOriginalFilename());
+        assertEquals(FileUtil.toHex(FileUtil.newSha256().digest(CONTENT)), file.getContentHash());
+
+        manager.endComplete(uploadId, true);
+        assertFalse(Files.exists(file.getFile().toPath()));
+        assertThrows(IllegalArgumentException.class, () -> manager.get(uploadId));
+    }
+
+    @Test
+    void rejectsOffsetMismatchWithReceivedSize() throws Exception {
+        String uploadId = manager.create("batch.zip", CONTENT.length).getUploadId();
+        append(uploadId, 0, 8);
+
+        ChunkedUploadManager.ChunkOffsetException e = assertThrows(ChunkedUploadManager.ChunkOffsetException.class,
+                () -> append(uploadId, 12, CONTENT.length));
+        assertEquals(8, e.getUpload().getReceived());
+
+        // 重传已接收的分片同样视为偏移量错误
+        assertThrows(ChunkedUploadManager.ChunkOffsetException.class, () -> append(uploadId, 0, 8));
+    }
+
+    @Test
+    void rollsBackChunkOnChecksumMismatch() throws Exception {
+        String uploadId = manager.create("batch.zip", CONTENT.length).getUploadId();
+        append(uploadId, 0, 8);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.append(uploadId, 8, md5(CONTENT, 8, 12), new ByteArrayInputStream(CONTENT, 8, 12)));
+        assertEquals(8, manager.get(uploadId).getReceived());
+
+        // 从原偏移量重传后内容和整体哈希不受失败分片影响
+        append(uploadId, 8, CONTENT.length);
+        LocalMultipartFile file = manager.beginComplete(uploadId);
+        assertArrayEquals(CONTENT, file.getBytes());
+        assertEquals(FileUtil.toHex(FileUtil.newSha256().digest(CONTENT)), file.getContentHash());
+    }
+
+    @Test
+    void rollsBackChunkOnInterruptedStream() throws Exception {
+        String uploadId = manager.create("batch.zip", CONTENT.length).getUploadId();
+        append(uploadId, 0, 8);
+
+        InputStream broken = new InputStream() {
+            private int count;
+
+            @Override
+            public int read() throws IOException {
+                if (count++ >= 4) {
+                    throw new IOException("连接中断");
+                }
+                return 'x';
+            }
+        };
+        assertThrows(IOException.class, () -> manager.append(uploadId, 8, md5(CONTENT, 8, CONTENT.length), broken));
+        assertEquals(8, manager.get(uploadId).getReceived());
+
+        append(uploadId, 8, CONTENT.length);
+        assertArrayEquals(CONTENT, manager.beginComplete(uploadId).getBytes());
+    }
+
+    @Test
+    void rejectsChunkBeyondTotalSize() throws Exception {
+        String uploadId = manager.create("batch.zip", 8).getUploadId();
+
+        assertThrows(IllegalArgumentException.class, () -> append(uploadId, 0, 12));
+        assertEquals(0, manager.get(uploadId).getReceived());
+    }
+
+    @Test
+    void rejectsCompleteBeforeAllBytesReceived() throws Exception {
+        String uploadId = manager.create("batch.zip", CONTENT.length).getUploadId();
+        append(uploadId, 0, 8);
+
+        assertThrows(IllegalStateException.class, () -> manager.beginComplete(uploadId));
+    }
+
+    @Test
+    void keepsSessionAfterFailedCompleteForResubmit() throws Exception {
+        String uploadId = manager.create("batch.zip", CONTENT.length).getUploadId();
+        append(uploadId, 0, CONTENT.length);
+
+        manager.beginComplete(uploadId);
+        assertThrows(IllegalStateException.class, () -> manager.beginComplete(uploadId));
+        manager.endComplete(uploadId, false);
+
+        assertArrayEquals(CONTENT, manager.beginComplete(uploadId).getBytes());
+    }
+
+    private ChunkUploadVo append(String uploadId, int from, int to) throws IOException {
+        return manager.append(uploadId, from, md5(CONTENT, from, to), new ByteArrayInputStream(CONTENT, from, to - from));
+    }
+
+    private static String md5(byte[] data, int from, int to) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            digest.update(data, from, to - from);
+            return FileUtil.toHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.demo.component;
+
+import com.example.demo.config.CacheConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PdfConversionCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private CacheConfig cacheConfig;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        cacheConfig = new CacheConfig();
+        CacheConfig.Conversion conversion = cacheConfig.getConversion();
+        conversion.setMemoryMaxBytes(100L);
+        conversion.setDiskMaxBytes(130L);
+        conversion.setMaxEntryBytes(80L);
+        conversion.setDiskDirectory(tempDir.toString());
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void returnsResultFromMemory() throws Exception {
+        PdfConversionCache cache = newCache();
+        String key = cache.buildKey("a.docx", bytes("a"));
+
+        assertNull(cache.get(key));
+        cache.put(key, pdf(60));
+
+        assertArrayEquals(pdf(60), cache.get(key));
+        assertEquals(60L, cache.getMemoryBytes());
+        assertEquals(1.0, hits("memory"));
+        assertEquals(1.0, meterRegistry.get("pdf.convert.cache.miss").counter().count());
+    }
+
+    @Test
+    void spillsEvictedResultToDiskAndPromotesOnHit() throws Exception {
+        PdfConversionCache cache = newCache();
+        String first = cache.buildKey("a.docx", bytes("a"));
+        String second = cache.buildKey("b.docx", bytes("b"));
+
+        cache.put(first, pdf(60));
+        cache.put(second, pdf(60));
+        assertEquals(60L, cache.getMemoryBytes());
+        assertEquals(60L, cache.getDiskBytes());
+        assertTrue(Files.exists(tempDir.resolve(first + ".pdf")));
+
+        // 磁盘命中后提升到内存层，内存中的另一个结果溢出到磁盘
+        assertArrayEquals(pdf(60), cache.get(first));
+        assertEquals(1.0, hits("disk"));
+        assertEquals(60L, cache.getMemoryBytes());
+        assertEquals(120L, cache.getDiskBytes());
+        assertArrayEquals(pdf(60), cache.get(first));
+        assertEquals(1.0, hits("memory"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedFromDisk() throws Exception {
+        PdfConversionCache cache = newCache();
+        String a = cache.buildKey("a.docx", bytes("a"));
+        String b = cache.buildKey("b.docx", bytes("b"));
+        String c = cache.buildKey("c.docx", bytes("c"));
+        String d = cache.buildKey("d.docx", bytes("d"));
+
+        cache.put(a, pdf(60));
+        cache.put(b, pdf(60));
+        cache.put(c, pdf(60));
+        // 磁盘层：a、b，各60字节
+        cache.put(d, pdf(60));
+        // c 溢出后超过130字节，淘汰最早的 a
+        assertEquals(120L, cache.getDiskBytes());
+        assertFalse(Files.exists(tempDir.resolve(a + ".pdf")));
+        assertNull(cache.get(a));
+        assertArrayEquals(pdf(60), cache.get(b));
+    }
+
+    @Test
+    void skipsOversizedResult() throws Exception {
+        PdfConversionCache cache = newCache();
+        String key = cache.buildKey("a.docx", bytes("a"));
+
+        cache.put(key, pdf(81));
+
+        assertNull(cache.get(key));
+        assertEquals(0L, cache.getMemoryBytes());
+    }
+
+    @Test
+    void rebuildsDiskIndexOnRestart() throws Exception {
+        PdfConversionCache cache = newCache();
+        String first = cache.buildKey("a.docx", bytes("a"));
+        cache.put(first, pdf(60));
+        cache.put(cache.buildKey("b.docx", bytes("b")), pdf(60));
+        Path stale = Files.write(tempDir.resolve("spill123.tmp"), pdf(10));
+
+        PdfConversionCache restarted = newCache();
+
+        assertEquals(60L, restarted.getDiskBytes());
+        assertFalse(Files.exists(stale));
+        assertArrayEquals(pdf(60), restarted.get(first));
+    }
+
+    private PdfConversionCache newCache() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        PdfConversionCache cache = new PdfConversionCache(cacheConfig, meterRegistry);
+        cache.init();
+        return cache;
+    }
+
+    private double hits(String tier) {
+        return meterRegistry.get("pdf.convert.cache.hit").tag("tier", tier).counter().count();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] pdf(int length) {
+        byte[] data = new byte[length];
+        data[0] = (byte) length;
+        return data;
+    }
+}
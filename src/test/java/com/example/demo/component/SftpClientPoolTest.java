@@ -0,0 +1,163 @@
+package com.example.demo.component;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.config.SftpConfig;
+import com.example.demo.support.EmbeddedSftpServer;
+import com.example.demo.util.SftpUtil;
+import com.jcraft.jsch.JSchException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SftpClientPoolTest {
+
+    @TempDir
+    Path tempDir;
+
+    private EmbeddedSftpServer server;
+
+    private SftpConfig sftpConfig;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SftpClientPool pool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new EmbeddedSftpServer(tempDir);
+        sftpConfig = new SftpConfig();
+        sftpConfig.setHost(server.getHost());
+        sftpConfig.setPort(server.getPort());
+        sftpConfig.setUsername(EmbeddedSftpServer.USERNAME);
+        sftpConfig.setPassword(EmbeddedSftpServer.PASSWORD);
+        sftpConfig.getPool().setMaxPerHost(2);
+        sftpConfig.getPool().setMaxWaitMillis(200L);
+        meterRegistry = new SimpleMeterRegistry();
+        pool = new SftpClientPool(sftpConfig, new CacheConfig(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        pool.destroy();
+        server.close();
+    }
+
+    @Test
+    void reusesReleasedConnection() throws Exception {
+        SftpUtil first = pool.borrow();
+        pool.release(first);
+        SftpUtil second = pool.borrow();
+        pool.release(second);
+
+        assertSame(first, second);
+        assertEquals(1, server.getSessionCount());
+    }
+
+    @Test
+    void lendsSeparateConnectionsConcurrently() throws Exception {
+        SftpUtil first = pool.borrow();
+        SftpUtil second = pool.borrow();
+
+        assertNotSame(first, second);
+        assertEquals(2.0, meterRegistry.get("sftp.pool.active").gauge().value());
+
+        pool.release(first);
+        pool.release(second);
+        assertEquals(0.0, meterRegistry.get("sftp.pool.active").gauge().value());
+        assertEquals(2.0, meterRegistry.get("sftp.pool.idle").gauge().value());
+    }
+
+    @Test
+    void replacesBrokenConnectionOnRelease() throws Exception {
+        SftpUtil broken = pool.borrow();
+        broken.disconnect();
+        pool.release(broken);
+
+        SftpUtil next = pool.borrow();
+        assertNotSame(broken, next);
+        assertTrue(next.isAlive());
+        pool.release(next);
+    }
+
+    @Test
+    void failsWhenPoolExhausted() throws Exception {
+        SftpUtil first = pool.borrow();
+        SftpUtil second = pool.borrow();
+
+        assertThrows(JSchException.class, () -> pool.borrow());
+        assertEquals(1.0, meterRegistry.get("sftp.pool.borrow.timeout").counter().count());
+
+        pool.release(first);
+        SftpUtil third = pool.borrow();
+        assertSame(first, third);
+        pool.release(second);
+        pool.release(third);
+    }
+
+    @Test
+    void keepsSeparatePoolsPerEndpoint() throws Exception {
+        SftpClientPool.Endpoint other = new SftpClientPool.Endpoint(server.getHost(), server.getPort(),
+                EmbeddedSftpServer.USERNAME, EmbeddedSftpServer.PASSWORD);
+        SftpClientPool.Endpoint loopback = new SftpClientPool.Endpoint("localhost", server.getPort(),
+                EmbeddedSftpServer.USERNAME, EmbeddedSftpServer.PASSWORD);
+
+        SftpUtil first = pool.borrow(other);
+        SftpUtil second = pool.borrow(loopback);
+        assertNotSame(first, second);
+        assertEquals("localhost", second.getHost());
+
+        pool.release(first);
+        pool.release(second);
+        assertSame(first, pool.borrow());
+    }
+
+    @Test
+    void doesNotLendPooledConnectionToOtherCredentials() throws Exception {
+        sftpConfig.getRetry().setMaxRetries(0);
+        pool.destroy();
+        pool = new SftpClientPool(sftpConfig, new CacheConfig(), meterRegistry);
+        pool.release(pool.borrow());
+
+        SftpClientPool.Endpoint wrongPassword = new SftpClientPool.Endpoint(server.getHost(), server.getPort(),
+                EmbeddedSftpServer.USERNAME, "wrong-secret");
+        assertNotEquals(pool.defaultEndpoint(), wrongPassword);
+        assertThrows(JSchException.class, () -> pool.borrow(wrongPassword));
+        assertEquals(pool.defaultEndpoint(), new SftpClientPool.Endpoint(server.getHost(), server.getPort(),
+                EmbeddedSftpServer.USERNAME, EmbeddedSftpServer.PASSWORD));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedHostsBeyondLimit() throws Exception {
+        sftpConfig.getPool().setMaxHosts(1);
+        pool.destroy();
+        meterRegistry = new SimpleMeterRegistry();
+        pool = new SftpClientPool(sftpConfig, new CacheConfig(), meterRegistry);
+        SftpClientPool.Endpoint loopback = new SftpClientPool.Endpoint("localhost", server.getPort(),
+                EmbeddedSftpServer.USERNAME, EmbeddedSftpServer.PASSWORD);
+
+        pool.release(pool.borrow());
+        pool.release(pool.borrow(loopback));
+
+        // 只保留最近使用的服务器的熔断器指标
+        assertEquals(1, meterRegistry.find("sftp.circuit.state").gauges().size());
+        assertEquals("localhost:" + server.getPort(), meterRegistry.get("sftp.circuit.state").gauge().getId().getTag("host"));
+        pool.release(pool.borrow());
+        assertEquals(server.getHost() + ":" + server.getPort(), meterRegistry.get("sftp.circuit.state").gauge().getId().getTag("host"));
+    }
+
+    @Test
+    void releaseIgnoresNull() {
+        pool.release(null);
+    }
+}
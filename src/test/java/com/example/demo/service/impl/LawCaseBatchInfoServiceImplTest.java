@@ -0,0 +1,251 @@
+package com.example.demo.service.impl;
+
+import com.alibaba.fastjson.JSON;
+import com.example.demo.bean.FileManifestEntry;
+import com.example.demo.bean.Response;
+import com.example.demo.bean.vo.SealFileDiffVo;
+import com.example.demo.component.DownloadFileCache;
+import com.example.demo.component.PdfConvertExecutor;
+import com.example.demo.component.SftpClientPool;
+import com.example.demo.config.EmailConfig;
+import com.example.demo.config.SftpConfig;
+import com.example.demo.config.TransferConfig;
+import com.example.demo.dto.LawCaseBatchInfoRequestDto;
+import com.example.demo.entity.LawCaseBatchInfo;
+import com.example.demo.mapper.LawCaseBatchInfoMapper;
+import com.example.demo.util.LocalMultipartFile;
+import com.example.demo.util.SftpUtil;
+import com.jcraft.jsch.SftpATTRS;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LawCaseBatchInfoServiceImplTest {
+
+    private static final String BATCH_ID = "B20261017001";
+
+    @Mock
+    private LawCaseBatchInfoMapper lawCaseBatchInfoMapper;
+
+    @Mock
+    private SftpClientPool sftpClientPool;
+
+    @Mock
+    private DownloadFileCache downloadFileCache;
+
+    @Mock
+    private SftpUtil sftpUtil;
+
+    @Mock
+    private PdfConvertExecutor pdfConvertExecutor;
+
+    @Spy
+    private EmailConfig emailConfig = new EmailConfig();
+
+    @Spy
+    private SftpConfig sftpConfig = new SftpConfig();
+
+    @Spy
+    private TransferConfig transferConfig = new TransferConfig();
+
+    @InjectMocks
+    private LawCaseBatchInfoServiceImpl service;
+
+    @TempDir
+    Path spoolDirectory;
+
+    private LawCaseBatchInfo batch;
+
+    @BeforeEach
+    void setUp() {
+        sftpConfig.setReturnPath("/return");
+        sftpConfig.setReceivePath("/receive");
+        transferConfig.setSpoolDirectory(spoolDirectory.toString());
+        transferConfig.setDownloadMaxStreams(1);
+        service.init();
+        batch = new LawCaseBatchInfo();
+        batch.setBatchId(BATCH_ID);
+        batch.setIsSign(1);
+        batch.setFileManifest(JSON.toJSONString(Arrays.asList(
+                new FileManifestEntry("起诉状.pdf", 100), new FileManifestEntry("身份证明.pdf", 200))));
+    }
+
+    @Test
+    void uploadsSealFileMatchingManifest() throws Exception {
+        when(lawCaseBatchInfoMapper.selectOne(any())).thenReturn(batch);
+        when(sftpClientPool.borrow()).thenReturn(sftpUtil);
+        MockMultipartFile file = spy(zip("sealed.zip", "起诉状.pdf", "身份证明.pdf"));
+        long size = file.getSize();
+        byte[][] uploaded = new byte[1][];
+        doAnswer(i -> {
+            uploaded[0] = StreamUtils.copyToByteArray(i.<LocalMultipartFile>getArgument(2).getInputStream());
+            return null;
+        }).when(sftpUtil).uploadWithResume(eq("/return"), eq(BATCH_ID + ".zip"), any(LocalMultipartFile.class), eq(size));
+
+        Response<?> response = service.uploadSealFile(request(), file);
+
+        assertEquals(200, response.getStatus(), response.getMessage());
+        // 条目校验和上传都读取落盘文件，容器的上传文件只转存一次
+        assertArrayEquals(file.getBytes(), uploaded[0]);
+        verify(file).transferTo(any(File.class));
+        verify(file, never()).getInputStream();
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            assertEquals(0, files.count(), "落盘文件应在处理完成后删除");
+        }
+        verify(sftpClientPool).release(sftpUtil);
+        assertEquals("/return/" + BATCH_ID + ".zip", batch.getUploadAddressOver());
+        assertEquals(0, batch.getIsSign());
+        verify(lawCaseBatchInfoMapper).updateById(batch);
+    }
+
+    @Test
+    void rejectsSealFileMissingDocumentWithoutConnecting() throws Exception {
+        when(lawCaseBatchInfoMapper.selectOne(any())).thenReturn(batch);
+
+        Response<?> response = service.uploadSealFile(request(), zip("sealed.zip", "起诉状.pdf", "说明.txt"));
+
+        assertEquals(5001, response.getStatus());
+        assertEquals("SEAL_FILE_MISMATCH", response.getCode());
+        assertEquals("上传失败：签章文件缺少：身份证明", response.getMessage());
+        SealFileDiffVo diff = (SealFileDiffVo) response.getData();
+        assertEquals(Collections.singletonList("身份证明.pdf"), diff.getMissing());
+        assertEquals(Collections.singletonList("说明.txt"), diff.getExtra());
+        verify(sftpClientPool, never()).borrow();
+        verify(lawCaseBatchInfoMapper, never()).updateById(any(LawCaseBatchInfo.class));
+    }
+
+    @Test
+    void matchesSealFilesByBaseNameInAnyDirectory() throws Exception {
+        when(lawCaseBatchInfoMapper.selectOne(any())).thenReturn(batch);
+        when(sftpClientPool.borrow()).thenReturn(sftpUtil);
+
+        Response<?> response = service.uploadSealFile(request(), zip("sealed.zip", "签章/起诉状.ofd", "签章/证据/身份证明.pdf"));
+
+        assertEquals(200, response.getStatus(), response.getMessage());
+    }
+
+    @Test
+    void acceptsDuplicateBaseNamesByDefault() throws Exception {
+        when(lawCaseBatchInfoMapper.selectOne(any())).thenReturn(batch);
+        when(sftpClientPool.borrow()).thenReturn(sftpUtil);
+
+        Response<?> response = service.uploadSealFile(request(), zip("sealed.zip", "起诉状.pdf", "起诉状.docx", "身份证明.pdf"));
+
+        assertEquals(200, response.getStatus(), response.getMessage());
+    }
+
+    @Test
+    void rejectsDuplicateBaseNamesWhenConfigured() throws Exception {
+        when(lawCaseBatchInfoMapper.selectOne(any())).thenReturn(batch);
+        transferConfig.setRejectDuplicateSealFiles(true);
+
+        Response<?> response = service.uploadSealFile(request(), zip("sealed.zip", "起诉状.pdf", "起诉状.docx", "身份证明.pdf"));
+
+        assertEquals(5001, response.getStatus());
+        assertEquals("上传失败：签章文件存在同名文件：起诉状.pdf、起诉状.docx", response.getMessage());
+        assertEquals(Arrays.asList("起诉状.pdf", "起诉状.docx"), ((SealFileDiffVo) response.getData()).getDuplicate());
+        verify(sftpClientPool, never()).borrow();
+    }
+
+    @Test
+    void readsUnstampedUploadOnceThroughSpoolFile() throws Exception {
+        when(sftpClientPool.borrow()).thenReturn(sftpUtil);
+        when(sftpUtil.uploadStreamingWithRetry(eq("/receive"), eq(BATCH_ID + ".zip"), any(), anyInt())).thenAnswer(i -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            i.<SftpUtil.StreamWriter>getArgument(2).writeTo(out);
+            return (long) out.size();
+        });
+        MockMultipartFile file = spy(zip("batch.zip", "起诉状.pdf", "委托书.pdf", "申请书.pdf"));
+
+        Response<?> response = service.uploadUnstampedFile(request(), file);
+
+        assertEquals(200, response.getStatus(), response.getMessage());
+        // 哈希计算、条目校验、解压都读取落盘文件，容器的上传文件只转存一次
+        verify(file).transferTo(any(File.class));
+        verify(file, never()).getInputStream();
+        verify(file, never()).getBytes();
+        ArgumentCaptor<LawCaseBatchInfo> saved = ArgumentCaptor.forClass(LawCaseBatchInfo.class);
+        verify(lawCaseBatchInfoMapper).insert(saved.capture());
+        assertEquals(3, JSON.parseArray(saved.getValue().getFileManifest(), FileManifestEntry.class).size());
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            assertEquals(0, files.count(), "落盘文件应在处理完成后删除");
+        }
+    }
+
+    @Test
+    void limitsConcurrentStreamingDownloads() throws Exception {
+        batch.setUploadAddress("/receive/" + BATCH_ID + ".zip");
+        when(lawCaseBatchInfoMapper.selectOne(any())).thenReturn(batch);
+        when(sftpClientPool.borrow()).thenReturn(sftpUtil);
+        SftpATTRS attrs = mock(SftpATTRS.class);
+        when(attrs.getSize()).thenReturn(5L);
+        when(sftpUtil.stat("/receive", BATCH_ID + ".zip")).thenReturn(attrs);
+        when(sftpUtil.openInputStream("/receive", BATCH_ID + ".zip")).thenAnswer(i -> new ByteArrayInputStream("hello".getBytes()));
+
+        ResponseEntity<StreamingResponseBody> first = service.downloadUnstampedFile(request());
+        assertEquals(200, first.getStatusCodeValue());
+        // 第一个下载的响应尚未写出，仍占用连接和下载许可
+        assertEquals(503, service.downloadUnstampedFile(request()).getStatusCodeValue());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        first.getBody().writeTo(out);
+        assertEquals("hello", out.toString());
+        assertEquals(200, service.downloadUnstampedFile(request()).getStatusCodeValue());
+        verify(sftpClientPool, times(2)).release(sftpUtil);
+    }
+
+    private static LawCaseBatchInfoRequestDto request() {
+        LawCaseBatchInfoRequestDto dto = new LawCaseBatchInfoRequestDto();
+        dto.setBatchId(BATCH_ID);
+        return dto;
+    }
+
+    private static MockMultipartFile zip(String fileName, String... entryNames) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(bytes)) {
+            for (String entryName : entryNames) {
+                zos.putArchiveEntry(new ZipArchiveEntry(entryName));
+                zos.write(entryName.getBytes(StandardCharsets.UTF_8));
+                zos.closeArchiveEntry();
+            }
+        }
+        return new MockMultipartFile("file", fileName, "application/zip", bytes.toByteArray());
+    }
+}
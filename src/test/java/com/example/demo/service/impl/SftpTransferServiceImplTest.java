@@ -0,0 +1,206 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.bean.Response;
+import com.example.demo.bean.SftpTransferState;
+import com.example.demo.bean.vo.SftpTransferVo;
+import com.example.demo.component.SftpClientPool;
+import com.example.demo.config.CacheConfig;
+import com.example.demo.config.SftpConfig;
+import com.example.demo.config.TransferConfig;
+import com.example.demo.dto.SftpTransferRequestDto;
+import com.example.demo.support.EmbeddedSftpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SftpTransferServiceImplTest {
+
+    private static final String[] FILES = {"a.zip", "b.zip", "c.zip", "d.zip", "e.zip"};
+
+    @TempDir
+    Path tempDir;
+
+    private EmbeddedSftpServer source;
+
+    private EmbeddedSftpServer target;
+
+    private SftpClientPool sftpClientPool;
+
+    private ThreadPoolTaskExecutor transferExecutor;
+
+    private TransferConfig transferConfig;
+
+    private SftpTransferServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        source = new EmbeddedSftpServer(Files.createDirectory(tempDir.resolve("source")));
+        target = new EmbeddedSftpServer(Files.createDirectory(tempDir.resolve("target")));
+        source.mkdirs("/receive");
+        Random random = new Random(7);
+        for (int i = 0; i < FILES.length; i++) {
+            byte[] data = new byte[(i + 1) * 40 * 1024];
+            random.nextBytes(data);
+            Files.write(source.resolve("/receive/" + FILES[i]), data);
+        }
+
+        SftpConfig sftpConfig = new SftpConfig();
+        sftpConfig.setHost(source.getHost());
+        sftpConfig.setPort(source.getPort());
+        sftpConfig.setUsername(EmbeddedSftpServer.USERNAME);
+        sftpConfig.setPassword(EmbeddedSftpServer.PASSWORD);
+        sftpConfig.setReceivePath("/receive");
+        sftpConfig.getPool().setMaxPerHost(8);
+        sftpConfig.getRetry().setInitialDelayMillis(10L);
+        sftpClientPool = new SftpClientPool(sftpConfig, new CacheConfig(), new SimpleMeterRegistry());
+
+        transferConfig = new TransferConfig();
+        transferConfig.setReplicationFileRetries(0);
+        transferConfig.setReplicationAllowedHosts(Collections.singletonList(target.getHost() + ":" + target.getPort()));
+
+        transferExecutor = new ThreadPoolTaskExecutor();
+        transferExecutor.setCorePoolSize(4);
+        transferExecutor.setQueueCapacity(0);
+        transferExecutor.initialize();
+
+        service = new SftpTransferServiceImpl();
+        ReflectionTestUtils.setField(service, "sftpConfig", sftpConfig);
+        ReflectionTestUtils.setField(service, "transferConfig", transferConfig);
+        ReflectionTestUtils.setField(service, "sftpClientPool", sftpClientPool);
+        ReflectionTestUtils.setField(service, "transferExecutor", transferExecutor);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        transferExecutor.shutdown();
+        sftpClientPool.destroy();
+        source.close();
+        target.close();
+    }
+
+    @Test
+    void transfersAllFilesThroughParallelChannels() throws Exception {
+        SftpTransferRequestDto dto = request();
+        dto.setConcurrency(3);
+
+        Response<SftpTransferVo> response = service.startTransfer(dto);
+        assertEquals(200, response.getStatus(), response.getMessage());
+        assertEquals(3, response.getData().getConcurrency());
+
+        SftpTransferVo vo = await(response.getData().getTransferId());
+        assertEquals(SftpTransferState.COMPLETED.name(), vo.getState(), String.valueOf(vo.getFailures()));
+        assertEquals(FILES.length, vo.getCompletedFiles());
+        assertEquals(vo.getTotalBytes(), vo.getTransferredBytes());
+        for (String file : FILES) {
+            assertArrayEquals(Files.readAllBytes(source.resolve("/receive/" + file)),
+                    Files.readAllBytes(target.resolve("/backup/" + file)));
+            assertFalse(Files.exists(target.resolve("/backup/" + file + ".part")));
+        }
+    }
+
+    @Test
+    void capsConcurrencyAtFileCount() throws Exception {
+        SftpTransferRequestDto dto = request();
+        dto.setFileNames(Arrays.asList("a.zip", "b.zip"));
+        dto.setConcurrency(8);
+
+        Response<SftpTransferVo> response = service.startTransfer(dto);
+
+        assertEquals(2, response.getData().getConcurrency());
+        assertEquals(SftpTransferState.COMPLETED.name(), await(response.getData().getTransferId()).getState());
+    }
+
+    @Test
+    void sharesChannelLimitAcrossJobs() throws Exception {
+        // 限速使第一个任务在第二个任务提交时仍在运行
+        transferConfig.setReplicationBandwidthBytesPerSecond(64 * 1024L);
+        service.init();
+        SftpTransferRequestDto dto = request();
+        dto.setConcurrency(8);
+
+        Response<SftpTransferVo> first = service.startTransfer(dto);
+        // 通道数不超过每主机连接数的一半，其余连接留给上传下载
+        assertEquals(4, first.getData().getConcurrency());
+        assertEquals("传输失败：当前批量传输任务过多，请稍后重试", service.startTransfer(request()).getMessage());
+
+        service.cancelTransfer(first.getData().getTransferId());
+        assertEquals(SftpTransferState.CANCELLED.name(), await(first.getData().getTransferId()).getState());
+        transferConfig.setReplicationBandwidthBytesPerSecond(0L);
+        service.init();
+        assertEquals(SftpTransferState.COMPLETED.name(), await(service.startTransfer(request()).getData().getTransferId()).getState());
+    }
+
+    @Test
+    void reportsFilesThatFailWithoutStoppingOthers() throws Exception {
+        // 目标端同名目录导致该文件无法重命名到位
+        target.mkdirs("/backup/c.zip/keep");
+
+        Response<SftpTransferVo> response = service.startTransfer(request());
+        SftpTransferVo vo = await(response.getData().getTransferId());
+
+        assertEquals(SftpTransferState.PARTIAL_FAILED.name(), vo.getState());
+        assertEquals(FILES.length - 1, vo.getCompletedFiles());
+        assertEquals(1, vo.getFailures().size());
+        assertTrue(vo.getFailures().get(0).startsWith("c.zip"), vo.getFailures().get(0));
+    }
+
+    @Test
+    void rejectsMissingSourceFileBeforeStarting() {
+        SftpTransferRequestDto dto = request();
+        dto.setFileNames(Arrays.asList("a.zip", "missing.zip"));
+
+        Response<SftpTransferVo> response = service.startTransfer(dto);
+
+        assertEquals("传输失败：源文件不存在：missing.zip", response.getMessage());
+        assertFalse(Files.exists(target.resolve("/backup/a.zip")));
+    }
+
+    @Test
+    void rejectsTargetNotInAllowList() {
+        SftpTransferRequestDto dto = request();
+        dto.setTargetPort(source.getPort());
+
+        Response<SftpTransferVo> response = service.startTransfer(dto);
+
+        assertEquals("传输失败：目标服务器不在允许列表中", response.getMessage());
+        assertFalse(Files.exists(target.resolve("/backup")));
+    }
+
+    private SftpTransferRequestDto request() {
+        SftpTransferRequestDto dto = new SftpTransferRequestDto();
+        dto.setTargetHost(target.getHost());
+        dto.setTargetPort(target.getPort());
+        dto.setTargetUsername(EmbeddedSftpServer.USERNAME);
+        dto.setTargetPassword(EmbeddedSftpServer.PASSWORD);
+        dto.setTargetDirectory("/backup");
+        return dto;
+    }
+
+    private SftpTransferVo await(String transferId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 20000L;
+        while (System.currentTimeMillis() < deadline) {
+            SftpTransferVo vo = service.getTransfer(transferId).getData();
+            if (SftpTransferState.valueOf(vo.getState()).isFinished()) {
+                return vo;
+            }
+            Thread.sleep(20L);
+        }
+        throw new AssertionError("传输任务未在规定时间内结束：" + transferId);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.demo.support;
+
+import org.apache.sshd.common.file.virtualfs.VirtualFileSystemFactory;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.apache.sshd.sftp.SftpModuleProperties;
+import org.apache.sshd.sftp.server.SftpSubsystemFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+/**
+ * 测试用嵌入式 SFTP 服务器
+ * 监听本机随机端口，根目录为指定的本地目录，只接受 {@link #USERNAME}/{@link #PASSWORD} 登录
+ *
+ * @author zxd
+ * @since 2026-10-17
+ */
+public class EmbeddedSftpServer implements AutoCloseable {
+
+    public static final String USERNAME = "sign";
+
+    public static final String PASSWORD = "sign-secret";
+
+    private final SshServer server;
+
+    private final Path root;
+
+    public EmbeddedSftpServer(Path root) throws IOException {
+        this(root, true);
+    }
+
+    /**
+     * @param root        服务器根目录
+     * @param posixRename 是否声明支持 posix-rename@openssh.com 扩展（不支持时 rename 不能覆盖已存在的文件）
+     */
+    public EmbeddedSftpServer(Path root, boolean posixRename) throws IOException {
+        this.root = root;
+        this.server = SshServer.setUpDefaultServer();
+        if (!posixRename) {
+            SftpModuleProperties.OPENSSH_EXTENSIONS.set(server, "fsync@openssh.com=1");
+        }
+        server.setHost("127.0.0.1");
+        server.setPort(0);
+        server.setKeyPairProvider(new SimpleGeneratorHostKeyProvider());
+        server.setPasswordAuthenticator((username, password, session) -> USERNAME.equals(username) && PASSWORD.equals(password));
+        server.setSubsystemFactories(Collections.singletonList(new SftpSubsystemFactory()));
+        server.setFileSystemFactory(new VirtualFileSystemFactory(root));
+        server.start();
+    }
+
+    public String getHost() {
+        return "127.0.0.1";
+    }
+
+    public int getPort() {
+        return server.getPort();
+    }
+
+    /**
+     * 当前已建立的 SSH 会话数
+     */
+    public int getSessionCount() {
+        return server.getActiveSessions().size();
+    }
+
+    /**
+     * 服务器目录下的本地文件
+     *
+     * @param path 服务器上的路径（如 /receive/a.zip）
+     */
+    public Path resolve(String path) {
+        return root.resolve(path.startsWith("/") ? path.substring(1) : path);
+    }
+
+    /**
+     * 创建服务器上的目录
+     */
+    public Path mkdirs(String path) throws IOException {
+        return Files.createDirectories(resolve(path));
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.stop(true);
+    }
+}
@@ -0,0 +1,338 @@
+package com.example.demo.util;
+
+import org.apache.catalina.core.ApplicationPart;
+import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
+import org.apache.commons.compress.archivers.sevenz.SevenZOutputFile;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.tomcat.util.http.fileupload.disk.DiskFileItem;
+import org.apache.tomcat.util.http.fileupload.util.FileItemHeadersImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.support.StandardMultipartHttpServletRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArchiveExtractorTest {
+
+    private static final int MB = 1024 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void restoreDefaults() {
+        ArchiveExtractor.setInMemoryThreshold(32L * MB);
+        ArchiveExtractor.setLimits(new ArchiveExtractor.Limits(10000, 256L * MB, 1024L * MB, 100));
+    }
+
+    @Test
+    void extractsSmallZipInMemory() throws Exception {
+        MockMultipartFile file = zip("a.txt", text("hello"), "dir/b.txt", text("world"));
+
+        List<ArchiveExtractor.ArchiveFileInfo> entries = ArchiveExtractor.extract(file);
+
+        assertEquals(2, entries.size());
+        assertEquals("a.txt", entries.get(0).getName());
+        assertArrayEquals(text("hello"), entries.get(0).getData());
+        assertEquals("dir/b.txt", entries.get(1).getName());
+    }
+
+    @Test
+    void extractsZipAboveThresholdThroughTempFile() throws Exception {
+        ArchiveExtractor.setInMemoryThreshold(16);
+        MockMultipartFile file = zip("a.txt", text("hello"), "b.txt", text("world"));
+
+        List<ArchiveExtractor.ArchiveFileInfo> first = ArchiveExtractor.extract(file);
+        List<ArchiveExtractor.ArchiveFileInfo> second = ArchiveExtractor.extract(file);
+
+        assertEquals(2, first.size());
+        assertEquals(2, second.size());
+        assertArrayEquals(text("world"), second.get(1).getData());
+    }
+
+    @Test
+    void readsContainerPartAboveThresholdMoreThanOnce() throws Exception {
+        // Tomcat 落盘的上传文件：transferTo 会移动原文件，多次解析不能依赖 transferTo
+        ArchiveExtractor.setInMemoryThreshold(16);
+        MultipartFile file = containerPart("batch.zip", zip("a.txt", text("hello"), "b.txt", text("world")).getBytes());
+
+        assertEquals(2, ArchiveExtractor.listEntries(file).size());
+        assertEquals(2, ArchiveExtractor.extract(file).size());
+        assertArrayEquals(text("world"), ArchiveExtractor.extract(file).get(1).getData());
+    }
+
+    @Test
+    void readsLocalFileInPlace() throws Exception {
+        ArchiveExtractor.setInMemoryThreshold(16);
+        File archive = tempDir.resolve("upload.bin").toFile();
+        Files.write(archive.toPath(), zip("a.txt", text("hello")).getBytes());
+        LocalMultipartFile file = new LocalMultipartFile(archive, "batch.zip", null);
+
+        List<ArchiveExtractor.ArchiveFileInfo> entries = ArchiveExtractor.extract(file);
+
+        assertEquals(1, entries.size());
+        assertTrue(archive.exists(), "落盘文件不应被删除");
+    }
+
+    @Test
+    void extractsZipBytes() throws Exception {
+        List<ArchiveExtractor.ArchiveFileInfo> entries = ArchiveExtractor.extract(zip("a.txt", text("hello")).getBytes());
+
+        assertEquals(1, entries.size());
+        assertArrayEquals(text("hello"), entries.get(0).getData());
+    }
+
+    @Test
+    void extracts7zInMemoryAndThroughTempFile() throws Exception {
+        File archive = tempDir.resolve("batch.7z").toFile();
+        try (SevenZOutputFile out = new SevenZOutputFile(archive)) {
+            SevenZArchiveEntry entry = new SevenZArchiveEntry();
+            entry.setName("a.txt");
+            out.putArchiveEntry(entry);
+            out.write(text("hello"));
+            out.closeArchiveEntry();
+        }
+        MockMultipartFile file = new MockMultipartFile("file", "batch.7z", null, Files.readAllBytes(archive.toPath()));
+
+        assertArrayEquals(text("hello"), ArchiveExtractor.extract(file).get(0).getData());
+        ArchiveExtractor.setInMemoryThreshold(16);
+        assertArrayEquals(text("hello"), ArchiveExtractor.extract(file).get(0).getData());
+    }
+
+    @Test
+    void rejectsTooManyEntries() throws Exception {
+        ArchiveExtractor.setLimits(new ArchiveExtractor.Limits(2, 256L * MB, 1024L * MB, 100));
+        MockMultipartFile file = zip("a.txt", text("a"), "b.txt", text("b"), "c.txt", text("c"));
+
+        ArchiveLimitException e = assertThrows(ArchiveLimitException.class,
+                () -> ArchiveExtractor.extract(file, (name, size, in) -> {
+                }));
+        assertEquals(ArchiveLimitException.Reason.ENTRY_COUNT, e.getReason());
+        assertEquals("c.txt", e.getEntryName());
+    }
+
+    @Test
+    void rejectsDeclaredEntrySizeBeforeReading() throws Exception {
+        ArchiveExtractor.setLimits(new ArchiveExtractor.Limits(100, 1000, 1024L * MB, 100));
+        MockMultipartFile file = zip("small.txt", text("ok"), "large.bin", new byte[2000]);
+
+        List<String> handled = new ArrayList<>();
+        ArchiveLimitException e = assertThrows(ArchiveLimitException.class,
+                () -> ArchiveExtractor.extract(file, (name, size, in) -> handled.add(name)));
+        assertEquals(ArchiveLimitException.Reason.ENTRY_SIZE, e.getReason());
+        assertEquals(2000, e.getActual());
+        assertEquals(1, handled.size());
+    }
+
+    @Test
+    void stopsStreamingEntryWithUnknownSizeAtLimit() throws Exception {
+        ArchiveExtractor.setLimits(new ArchiveExtractor.Limits(100, MB, 1024L * MB, 10000));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GzipCompressorOutputStream gz = new GzipCompressorOutputStream(bytes)) {
+            gz.write(new byte[4 * MB]);
+        }
+        MockMultipartFile file = new MockMultipartFile("file", "data.bin.gz", null, bytes.toByteArray());
+
+        AtomicLong read = new AtomicLong();
+        ArchiveLimitException e = assertThrows(ArchiveLimitException.class,
+                () -> ArchiveExtractor.extract(file, (name, size, in) -> {
+                    byte[] buffer = new byte[8192];
+                    int len;
+                    while ((len = in.read(buffer)) != -1) {
+                        read.addAndGet(len);
+                    }
+                }));
+        assertEquals(ArchiveLimitException.Reason.ENTRY_SIZE, e.getReason());
+        assertTrue(read.get() <= MB, "超限前已读取 " + read.get() + " 字节");
+    }
+
+    @Test
+    void rejectsTotalSizeAcrossEntries() throws Exception {
+        ArchiveExtractor.setLimits(new ArchiveExtractor.Limits(100, MB, MB, 10000));
+        MockMultipartFile file = tar("a.bin", new byte[600 * 1024], "b.bin", new byte[600 * 1024]);
+
+        ArchiveLimitException e = assertThrows(ArchiveLimitException.class,
+                () -> ArchiveExtractor.extract(file, (name, size, in) -> drain(in)));
+        assertEquals(ArchiveLimitException.Reason.TOTAL_SIZE, e.getReason());
+        assertEquals("b.bin", e.getEntryName());
+    }
+
+    @Test
+    void rejectsCompressionRatioWhileReading() throws Exception {
+        ArchiveExtractor.setLimits(new ArchiveExtractor.Limits(100, 256L * MB, 1024L * MB, 10));
+        MockMultipartFile file = zip("zeros.bin", new byte[8 * MB]);
+
+        ArchiveLimitException e = assertThrows(ArchiveLimitException.class,
+                () -> ArchiveExtractor.extract(file, (name, size, in) -> drain(in)));
+        assertEquals(ArchiveLimitException.Reason.COMPRESSION_RATIO, e.getReason());
+    }
+
+    @Test
+    void rejects7zCompressionRatioBeforeEntryIsBuffered() throws Exception {
+        // 7z 条目先在内存中解压，限制必须在写入缓冲区时生效，超限时处理器不会被调用
+        ArchiveExtractor.setLimits(new ArchiveExtractor.Limits(100, 256L * MB, 1024L * MB, 100));
+        File archive = tempDir.resolve("zeros.7z").toFile();
+        try (SevenZOutputFile out = new SevenZOutputFile(archive)) {
+            SevenZArchiveEntry entry = new SevenZArchiveEntry();
+            entry.setName("zeros.bin");
+            out.putArchiveEntry(entry);
+            byte[] chunk = new byte[MB];
+            for (int i = 0; i < 64; i++) {
+                out.write(chunk);
+            }
+            out.closeArchiveEntry();
+        }
+        MockMultipartFile file = new MockMultipartFile("file", "zeros.7z", null, Files.readAllBytes(archive.toPath()));
+
+        List<String> handled = new ArrayList<>();
+        ArchiveLimitException e = assertThrows(ArchiveLimitException.class,
+                () -> ArchiveExtractor.extract(file, (name, size, in) -> handled.add(name)));
+        assertEquals(ArchiveLimitException.Reason.COMPRESSION_RATIO, e.getReason());
+        assertTrue(handled.isEmpty());
+    }
+
+
+    @Test
+    void propagatesLimitFromBulkExtract() throws Exception {
+        ArchiveExtractor.setLimits(new ArchiveExtractor.Limits(1, 256L * MB, 1024L * MB, 100));
+
+        assertThrows(ArchiveLimitException.class,
+                () -> ArchiveExtractor.extract(zip("a.txt", text("a"), "b.txt", text("b"))));
+        assertThrows(ArchiveLimitException.class,
+                () -> ArchiveExtractor.extract(zip("a.txt", text("a"), "b.txt", text("b")).getBytes()));
+    }
+
+    @Test
+    void listsZipEntriesFromCentralDirectory() throws Exception {
+        MockMultipartFile file = zip("a.txt", text("hello"), "dir/", new byte[0], "dir/b.txt", text("world!"));
+
+        List<ArchiveExtractor.ArchiveFileInfo> entries = ArchiveExtractor.listEntries(file);
+
+        assertEquals(2, entries.size());
+        assertEquals("a.txt", entries.get(0).getName());
+        assertEquals(5, entries.get(0).getSize());
+        assertEquals("dir/b.txt", entries.get(1).getName());
+        assertEquals(6, entries.get(1).getSize());
+        assertNull(entries.get(0).getData());
+    }
+
+    @Test
+    void lists7zAndTarEntries() throws Exception {
+        File archive = tempDir.resolve("batch.7z").toFile();
+        try (SevenZOutputFile out = new SevenZOutputFile(archive)) {
+            for (String name : new String[]{"a.txt", "b.txt"}) {
+                SevenZArchiveEntry entry = new SevenZArchiveEntry();
+                entry.setName(name);
+                out.putArchiveEntry(entry);
+                out.write(text(name));
+                out.closeArchiveEntry();
+            }
+        }
+        MockMultipartFile sevenZ = new MockMultipartFile("file", "batch.7z", null, Files.readAllBytes(archive.toPath()));
+        List<ArchiveExtractor.ArchiveFileInfo> entries = ArchiveExtractor.listEntries(sevenZ);
+        assertEquals(2, entries.size());
+        assertEquals("b.txt", entries.get(1).getName());
+        assertEquals(5, entries.get(1).getSize());
+
+        entries = ArchiveExtractor.listEntries(tar("a.txt", text("hello"), "b.txt", text("hi")));
+        assertEquals(2, entries.size());
+        assertEquals(2, entries.get(1).getSize());
+    }
+
+    @Test
+    void rejectsDeclaredSizesWhenListing() throws Exception {
+        ArchiveExtractor.setLimits(new ArchiveExtractor.Limits(100, 1000, 1500, 100));
+
+        ArchiveLimitException e = assertThrows(ArchiveLimitException.class,
+                () -> ArchiveExtractor.listEntries(zip("small.txt", text("ok"), "large.bin", new byte[2000])));
+        assertEquals(ArchiveLimitException.Reason.ENTRY_SIZE, e.getReason());
+        assertEquals(2000, e.getActual());
+
+        e = assertThrows(ArchiveLimitException.class,
+                () -> ArchiveExtractor.listEntries(zip("a.bin", new byte[800], "b.bin", new byte[800])));
+        assertEquals(ArchiveLimitException.Reason.TOTAL_SIZE, e.getReason());
+        assertEquals("b.bin", e.getEntryName());
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (in.read(buffer) != -1) {
+            // 读取即计数
+        }
+    }
+
+    private static byte[] text(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 与 Tomcat 处理 multipart 请求相同：上传内容写入磁盘上的 DiskFileItem，再经 StandardMultipartHttpServletRequest 包装
+     */
+    private MultipartFile containerPart(String fileName, byte[] content) throws IOException {
+        DiskFileItem item = new DiskFileItem("file", "application/zip", false, fileName, 0, tempDir.toFile());
+        FileItemHeadersImpl headers = new FileItemHeadersImpl();
+        headers.addHeader("content-disposition", "form-data; name=\"file\"; filename=\"" + fileName + "\"");
+        item.setHeaders(headers);
+        try (OutputStream out = item.getOutputStream()) {
+            out.write(content);
+        }
+        assertFalse(item.isInMemory());
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/upload");
+        request.setContentType("multipart/form-data; boundary=test");
+        request.addPart(new ApplicationPart(item, tempDir.toFile()));
+        return new StandardMultipartHttpServletRequest(request).getFile("file");
+    }
+
+    private static MockMultipartFile zip(Object... entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(bytes)) {
+            for (int i = 0; i < entries.length; i += 2) {
+                zos.putArchiveEntry(new ZipArchiveEntry((String) entries[i]));
+                zos.write((byte[]) entries[i + 1]);
+                zos.closeArchiveEntry();
+            }
+        }
+        return new MockMultipartFile("file", "test.zip", null, bytes.toByteArray());
+    }
+
+    private static MockMultipartFile tar(Object... entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tos = new TarArchiveOutputStream(bytes)) {
+            for (int i = 0; i < entries.length; i += 2) {
+                byte[] data = (byte[]) entries[i + 1];
+                TarArchiveEntry entry = new TarArchiveEntry((String) entries[i]);
+                entry.setSize(data.length);
+                tos.putArchiveEntry(entry);
+                tos.write(data);
+                tos.closeArchiveEntry();
+            }
+        }
+        return new MockMultipartFile("file", "test.tar", null, bytes.toByteArray());
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensAfterConsecutiveFailuresAndFailsFast() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 3, 60000L);
+
+        for (int i = 0; i < 2; i++) {
+            breaker.acquire();
+            breaker.recordFailure();
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.acquire();
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertTrue(breaker.isOpen());
+        assertThrows(CircuitOpenException.class, breaker::acquire);
+    }
+
+    @Test
+    void successResetsFailureCount() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 2, 60000L);
+
+        breaker.acquire();
+        breaker.recordFailure();
+        breaker.acquire();
+        breaker.recordSuccess();
+        breaker.acquire();
+        breaker.recordFailure();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void halfOpenAllowsSingleTrialAndClosesOnSuccess() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, 0L);
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.isOpen());
+
+        breaker.acquire();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        // 试探请求未结束前其余请求快速失败
+        assertThrows(CircuitOpenException.class, breaker::acquire);
+
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertDoesNotThrow(breaker::acquire);
+    }
+
+    @Test
+    void halfOpenFailureReopens() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 3, 50L);
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+        Thread.sleep(80L);
+
+        breaker.acquire();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.recordFailure();
+
+        // 半开失败一次即重新打开，不需要再次达到阈值
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(CircuitOpenException.class, breaker::acquire);
+    }
+
+    @Test
+    void releaseFreesTrialWithoutClosing() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, 0L);
+        breaker.recordFailure();
+
+        breaker.acquire();
+        breaker.release();
+
+        // 状态不变，下一个请求可以继续试探
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertDoesNotThrow(breaker::acquire);
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void releaseKeepsConsecutiveFailureCount() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 2, 60000L);
+
+        breaker.acquire();
+        breaker.recordFailure();
+        breaker.acquire();
+        breaker.release();
+        breaker.acquire();
+        breaker.recordFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
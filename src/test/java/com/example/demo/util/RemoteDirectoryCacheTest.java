@@ -0,0 +1,147 @@
+package com.example.demo.util;
+
+import com.jcraft.jsch.SftpATTRS;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RemoteDirectoryCacheTest {
+
+    /* 目录修改时间取早于当前的整秒，保证可以凭修改时间续期 */
+    private static final int DIR_MTIME = (int) (System.currentTimeMillis() / 1000) - 60;
+
+    @Test
+    void returnsCachedListingWithinTtl() throws Exception {
+        RemoteDirectoryCache cache = new RemoteDirectoryCache(60000L, 10);
+        FakeSource source = new FakeSource();
+        source.files.put("a.pdf", attrs(1));
+
+        Map<String, SftpATTRS> first = cache.getListing("/data/batch/", source);
+        Map<String, SftpATTRS> second = cache.getListing("/data/batch", source);
+
+        assertEquals(1, source.listCalls.get());
+        assertEquals(first, second);
+        assertTrue(first.containsKey("a.pdf"));
+        assertFalse(first.containsKey("."));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void revalidatesByDirectoryMtimeAfterTtl() throws Exception {
+        RemoteDirectoryCache cache = new RemoteDirectoryCache(0L, 10);
+        FakeSource source = new FakeSource();
+        source.files.put("a.pdf", attrs(1));
+
+        cache.getListing("/data/batch", source);
+        cache.getListing("/data/batch", source);
+        assertEquals(1, source.listCalls.get());
+        assertEquals(1, source.statCalls.get());
+        assertEquals(1, cache.getRevalidateCount());
+
+        // 目录修改时间变化后重新列出
+        source.dirMtime = DIR_MTIME + 1;
+        source.files.put("b.pdf", attrs(2));
+        Map<String, SftpATTRS> listing = cache.getListing("/data/batch", source);
+        assertEquals(2, source.listCalls.get());
+        assertTrue(listing.containsKey("b.pdf"));
+    }
+
+    @Test
+    void invalidateForcesReload() throws Exception {
+        RemoteDirectoryCache cache = new RemoteDirectoryCache(60000L, 10);
+        FakeSource source = new FakeSource();
+
+        cache.getListing("/data/batch", source);
+        source.files.put("a.pdf", attrs(1));
+        cache.invalidate("/data/batch/");
+        Map<String, SftpATTRS> listing = cache.getListing("/data/batch", source);
+
+        assertEquals(2, source.listCalls.get());
+        assertTrue(listing.containsKey("a.pdf"));
+    }
+
+    @Test
+    void dropsListingLoadedAcrossInvalidation() throws Exception {
+        RemoteDirectoryCache cache = new RemoteDirectoryCache(60000L, 10);
+        FakeSource source = new FakeSource();
+        // 模拟 ls 执行期间本服务上传了文件并使目录失效
+        source.duringList = () -> cache.invalidate("/data/batch");
+
+        cache.getListing("/data/batch", source);
+        assertEquals(0, cache.size());
+
+        source.duringList = null;
+        cache.getListing("/data/batch", source);
+        assertEquals(1, cache.size());
+        cache.getListing("/data/batch", source);
+        assertEquals(2, source.listCalls.get());
+    }
+
+    @Test
+    void dropsListingLoadedAcrossClear() throws Exception {
+        RemoteDirectoryCache cache = new RemoteDirectoryCache(60000L, 10);
+        FakeSource source = new FakeSource();
+        source.duringList = cache::clear;
+
+        cache.getListing("/data/batch", source);
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedDirectory() throws Exception {
+        RemoteDirectoryCache cache = new RemoteDirectoryCache(60000L, 2);
+        FakeSource source = new FakeSource();
+
+        cache.getListing("/a", source);
+        cache.getListing("/b", source);
+        cache.getListing("/a", source);
+        cache.getListing("/c", source);
+        assertEquals(2, cache.size());
+
+        cache.getListing("/a", source);
+        cache.getListing("/b", source);
+        assertEquals(4, source.listCalls.get());
+    }
+
+    private static SftpATTRS attrs(int mtime) {
+        SftpATTRS attrs = mock(SftpATTRS.class);
+        when(attrs.getMTime()).thenReturn(mtime);
+        return attrs;
+    }
+
+    private static class FakeSource implements RemoteDirectoryCache.ListingSource {
+        private final Map<String, SftpATTRS> files = new HashMap<>();
+        private final AtomicInteger listCalls = new AtomicInteger();
+        private final AtomicInteger statCalls = new AtomicInteger();
+        private int dirMtime = DIR_MTIME;
+        private Runnable duringList;
+
+        @Override
+        public Map<String, SftpATTRS> list(String directory) {
+            listCalls.incrementAndGet();
+            if (duringList != null) {
+                duringList.run();
+            }
+            Map<String, SftpATTRS> result = new HashMap<>(files);
+            result.put(".", attrs(dirMtime));
+            result.put("..", attrs(0));
+            return result;
+        }
+
+        @Override
+        public SftpATTRS statDirectory(String directory) {
+            statCalls.incrementAndGet();
+            return attrs(dirMtime);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryPolicyTest {
+
+    @Test
+    void delayGrowsExponentiallyUpToCap() {
+        RetryPolicy policy = new RetryPolicy(6, 1000L, 8000L, 2.0, 0.0, 0L);
+
+        assertEquals(1000L, policy.delayMillis(1));
+        assertEquals(2000L, policy.delayMillis(2));
+        assertEquals(4000L, policy.delayMillis(3));
+        assertEquals(8000L, policy.delayMillis(4));
+        assertEquals(8000L, policy.delayMillis(5));
+        assertEquals(8000L, policy.delayMillis(6));
+    }
+
+    @Test
+    void jitterOnlyShortensDelayWithinRatio() {
+        RetryPolicy policy = new RetryPolicy(3, 1000L, 8000L, 2.0, 0.5, 0L);
+
+        for (int i = 0; i < 1000; i++) {
+            long delay = policy.delayMillis(3);
+            assertTrue(delay >= 2000L && delay <= 4000L, "抖动后的等待时间越界：" + delay);
+        }
+    }
+
+    @Test
+    void deadlineBoundsElapsedTimePlusNextDelay() {
+        RetryPolicy policy = new RetryPolicy(10, 1000L, 8000L, 2.0, 0.0, 5000L);
+
+        assertTrue(policy.allowsDelayAfter(0L, 1000L));
+        assertTrue(policy.allowsDelayAfter(3000L, 2000L));
+        assertFalse(policy.allowsDelayAfter(3000L, 2001L));
+    }
+
+    @Test
+    void deadlineCountsAttemptTimeSinceStart() {
+        RetryPolicy policy = new RetryPolicy(10, 1000L, 8000L, 2.0, 0.0, 5000L);
+
+        assertTrue(policy.allowsDelay(System.nanoTime(), 1000L));
+        // 尝试本身已耗时4秒（没有任何重试等待），再等待2秒会超过截止时间
+        assertFalse(policy.allowsDelay(System.nanoTime() - TimeUnit.SECONDS.toNanos(4), 2000L));
+    }
+
+    @Test
+    void zeroDeadlineIsUnlimited() {
+        RetryPolicy policy = new RetryPolicy(3, 1000L, 8000L, 2.0, 0.0, 0L);
+
+        assertTrue(policy.allowsDelayAfter(Long.MAX_VALUE / 2, 8000L));
+    }
+
+    @Test
+    void withRetriesReplacesCountAndInitialDelay() {
+        RetryPolicy policy = RetryPolicy.DEFAULT.withRetries(5, 2);
+
+        assertEquals(5, policy.getMaxRetries());
+        // 首次间隔替换为2秒，后续按原倍数增长
+        assertTrue(policy.delayMillis(1) >= 1000L && policy.delayMillis(1) <= 2000L);
+        assertEquals(0, RetryPolicy.NONE.getMaxRetries());
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.demo.util;
+
+import com.example.demo.support.EmbeddedSftpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SftpUtilTest {
+
+    private static final byte[] CONTENT = new byte[256 * 1024];
+
+    static {
+        new Random(42).nextBytes(CONTENT);
+    }
+
+    @TempDir
+    Path tempDir;
+
+    private EmbeddedSftpServer server;
+
+    private SftpUtil sftpUtil;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new EmbeddedSftpServer(tempDir);
+        server.mkdirs("/upload");
+        sftpUtil = new SftpUtil(server.getHost(), server.getPort(), EmbeddedSftpServer.USERNAME, EmbeddedSftpServer.PASSWORD);
+        sftpUtil.connect();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        sftpUtil.disconnect();
+        server.close();
+    }
+
+    @Test
+    void resumesFromPartialRemoteFile() throws Exception {
+        FlakySource source = new FlakySource(CONTENT, 100 * 1024);
+
+        sftpUtil.uploadWithResume("/upload", "batch.zip", source, CONTENT.length, 2, 0);
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(server.resolve("/upload/batch.zip")));
+        assertEquals(2, source.reads.size());
+        // 第二次只读取远程文件之后的部分
+        assertTrue(source.reads.get(1) < CONTENT.length, "续传读取了 " + source.reads.get(1) + " 字节");
+        assertEquals(CONTENT.length, source.reads.get(0) + source.reads.get(1), 64 * 1024);
+    }
+
+    @Test
+    void overwritesExistingFileOnFirstAttempt() throws Exception {
+        Files.write(server.resolve("/upload/batch.zip"), new byte[CONTENT.length * 2]);
+
+        sftpUtil.uploadWithResume("/upload", "batch.zip", () -> new ByteArrayInputStream(CONTENT), CONTENT.length, 0, 0);
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(server.resolve("/upload/batch.zip")));
+    }
+
+    @Test
+    void failsAfterRetriesExhausted() {
+        FlakySource source = new FlakySource(CONTENT, 0);
+        source.failEveryTime = true;
+
+        assertThrows(Exception.class,
+                () -> sftpUtil.uploadWithResume("/upload", "batch.zip", source, CONTENT.length, 1, 0));
+        assertEquals(2, source.reads.size());
+    }
+
+    @Test
+    void renamesPartOverExistingFile() throws Exception {
+        Files.write(server.resolve("/upload/batch.zip"), "old".getBytes());
+
+        sftpUtil.uploadWithResume("/upload", "batch.zip", () -> new ByteArrayInputStream(CONTENT), CONTENT.length, 0, 0);
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(server.resolve("/upload/batch.zip")));
+        assertFalse(Files.exists(server.resolve("/upload/batch.zip" + SftpUtil.PART_SUFFIX)));
+    }
+
+    @Test
+    void replacesExistingFileThroughBackupWithoutPosixRename() throws Exception {
+        reconnect(new EmbeddedSftpServer(Files.createDirectory(tempDir.resolve("plain")), false));
+        server.mkdirs("/upload");
+        Files.write(server.resolve("/upload/batch.zip"), "old".getBytes());
+        // 上次替换中断遗留的备份
+        Files.write(server.resolve("/upload/batch.zip.bak"), "stale".getBytes());
+
+        sftpUtil.uploadWithResume("/upload", "batch.zip", () -> new ByteArrayInputStream(CONTENT), CONTENT.length, 0, 0);
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(server.resolve("/upload/batch.zip")));
+        assertFalse(Files.exists(server.resolve("/upload/batch.zip" + SftpUtil.PART_SUFFIX)));
+        assertFalse(Files.exists(server.resolve("/upload/batch.zip.bak")));
+    }
+
+    @Test
+    void doesNotFallBackToBackupWhenPosixRenameFails() throws Exception {
+        // 支持 posix-rename 时同名目录导致的失败不能通过备份绕过
+        server.mkdirs("/upload/batch.zip/keep");
+
+        assertThrows(Exception.class,
+                () -> sftpUtil.uploadWithResume("/upload", "batch.zip", () -> new ByteArrayInputStream(CONTENT), CONTENT.length, 0, 0));
+
+        assertTrue(Files.isDirectory(server.resolve("/upload/batch.zip/keep")));
+        assertFalse(Files.exists(server.resolve("/upload/batch.zip.bak")));
+    }
+
+    @Test
+    void removesPartWhenSizeDoesNotMatch() {
+        assertThrows(Exception.class, () -> sftpUtil.uploadWithResume("/upload", "batch.zip",
+                () -> new ByteArrayInputStream(CONTENT), CONTENT.length + 1, 1, 0));
+
+        assertFalse(Files.exists(server.resolve("/upload/batch.zip")));
+        assertFalse(Files.exists(server.resolve("/upload/batch.zip" + SftpUtil.PART_SUFFIX)));
+    }
+
+    @Test
+    void removesPartWhenChecksumDoesNotMatch() {
+        sftpUtil.setVerifyChecksum(true);
+        byte[] other = CONTENT.clone();
+        other[other.length - 1] ^= 1;
+        InputStreamSource[] sources = {() -> new ByteArrayInputStream(CONTENT), () -> new ByteArrayInputStream(other)};
+        int[] opened = {0};
+
+        // 第二次打开（回读计算MD5）返回不同内容
+        assertThrows(Exception.class, () -> sftpUtil.uploadWithResume("/upload", "batch.zip",
+                () -> sources[opened[0]++ % 2].getInputStream(), CONTENT.length, 0, 0));
+
+        assertFalse(Files.exists(server.resolve("/upload/batch.zip")));
+        assertFalse(Files.exists(server.resolve("/upload/batch.zip" + SftpUtil.PART_SUFFIX)));
+    }
+
+    @Test
+    void verifiesChecksumBeforeRename() throws Exception {
+        sftpUtil.setVerifyChecksum(true);
+
+        sftpUtil.uploadWithResume("/upload", "batch.zip", () -> new ByteArrayInputStream(CONTENT), CONTENT.length, 0, 0);
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(server.resolve("/upload/batch.zip")));
+    }
+
+    @Test
+    void streamsToPartThenRenames() throws Exception {
+        long written = sftpUtil.uploadStreamingWithRetry("/upload", "batch.pdf", out -> out.write(CONTENT), 8192);
+
+        assertEquals(CONTENT.length, written);
+        assertArrayEquals(CONTENT, Files.readAllBytes(server.resolve("/upload/batch.pdf")));
+        assertFalse(Files.exists(server.resolve("/upload/batch.pdf" + SftpUtil.PART_SUFFIX)));
+    }
+
+    @Test
+    void keepsPartForCallerDrivenResume() throws Exception {
+        FlakySource source = new FlakySource(CONTENT, 100 * 1024);
+
+        assertThrows(Exception.class, () -> sftpUtil.uploadOnceWithResume("/upload", "batch.zip", source, CONTENT.length, false));
+
+        // 调用方重试时使用新的连接（连接池会销毁失败的连接）
+        sftpUtil.disconnect();
+        sftpUtil.connect();
+        assertTrue(Files.size(server.resolve("/upload/batch.zip" + SftpUtil.PART_SUFFIX)) > 0);
+        long uploaded = Files.size(server.resolve("/upload/batch.zip" + SftpUtil.PART_SUFFIX));
+        sftpUtil.uploadOnceWithResume("/upload", "batch.zip", source, CONTENT.length, true);
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(server.resolve("/upload/batch.zip")));
+        // 数据源直接从临时文件已写入的位置打开，已上传的部分不再读取
+        assertEquals(uploaded, (long) source.offsets.get(1));
+        assertEquals(CONTENT.length - uploaded, (long) source.reads.get(1));
+        assertFalse(Files.exists(server.resolve("/upload/batch.zip" + SftpUtil.PART_SUFFIX)));
+    }
+
+    @Test
+    void opensRemoteFileAtOffset() throws Exception {
+        Files.write(server.resolve("/upload/batch.zip"), CONTENT);
+
+        byte[] tail;
+        try (InputStream in = sftpUtil.openInputStream("/upload", "batch.zip", 100 * 1024)) {
+            tail = StreamUtils.copyToByteArray(in);
+        }
+
+        assertArrayEquals(Arrays.copyOfRange(CONTENT, 100 * 1024, CONTENT.length), tail);
+    }
+
+    @Test
+    void discardPartRemovesLeftover() throws Exception {
+        Files.write(server.resolve("/upload/batch.zip" + SftpUtil.PART_SUFFIX), "half".getBytes());
+
+        sftpUtil.discardPart("/upload", "batch.zip");
+
+        assertFalse(Files.exists(server.resolve("/upload/batch.zip" + SftpUtil.PART_SUFFIX)));
+    }
+
+    private void reconnect(EmbeddedSftpServer newServer) throws Exception {
+        sftpUtil.disconnect();
+        server.close();
+        server = newServer;
+        sftpUtil = new SftpUtil(server.getHost(), server.getPort(), EmbeddedSftpServer.USERNAME, EmbeddedSftpServer.PASSWORD);
+        sftpUtil.connect();
+    }
+
+    /**
+     * 首次打开的流读取指定字节后中断，之后打开的流正常读取，并记录每次打开的位置和实际读取的字节数
+     */
+    private static class FlakySource implements InputStreamSource, SftpUtil.ResumableSource {
+
+        private final byte[] data;
+
+        private final int failAfter;
+
+        private boolean failEveryTime;
+
+        private final List<Long> offsets = new ArrayList<>();
+
+        private final List<Integer> reads = new ArrayList<>();
+
+        FlakySource(byte[] data, int failAfter) {
+            this.data = data;
+            this.failAfter = failAfter;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return open(0);
+        }
+
+        @Override
+        public InputStream open(long offset) {
+            boolean fail = failEveryTime || reads.isEmpty();
+            int index = reads.size();
+            offsets.add(offset);
+            reads.add(0);
+            return new FilterInputStream(new ByteArrayInputStream(data, (int) offset, data.length - (int) offset)) {
+                @Override
+                public int read() throws IOException {
+                    byte[] one = new byte[1];
+                    return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int read = reads.get(index);
+                    if (fail && read >= failAfter) {
+                        throw new IOException("连接中断");
+                    }
+                    int n = super.read(b, off, fail ? Math.min(len, failAfter - read) : len);
+                    if (n > 0) {
+                        reads.set(index, read + n);
+                    }
+                    return n;
+                }
+            };
+        }
+    }
+}